@@ -0,0 +1,114 @@
+package pathfinding.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pathfinding.AStar;
+import pathfinding.BatchSearch;
+import pathfinding.GridMap;
+import pathfinding.JumpPointSearch;
+import pathfinding.MapGenerator;
+import pathfinding.PathResult;
+
+/**
+ * Batches of queries on a map snapshot, to see how throughput scales with the number of threads.
+ * @author ducda
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+	/**
+	 * Number of queries in a batch.
+	 */
+	private static final int QUERIES = 1024;
+
+	/**
+	 * Engine to run.
+	 */
+	@Param({ "ASTAR", "JPS" })
+	public String engine;
+	/**
+	 * Number of worker threads.
+	 */
+	@Param({ "1", "2", "4", "8" })
+	public int threads;
+
+	/**
+	 * Pool the batches run on.
+	 */
+	private ForkJoinPool pool;
+	/**
+	 * Batch runner.
+	 */
+	private BatchSearch batch;
+	/**
+	 * Start cell of each query.
+	 */
+	private int[] starts;
+	/**
+	 * Goal cell of each query.
+	 */
+	private int[] goals;
+
+	/**
+	 * Generate the map and the queries.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 512, 512, 0.2, 42).snapshot();
+		Random random = new Random(7);
+		starts = new int[QUERIES];
+		goals = new int[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			do {
+				starts[i] = random.nextInt(map.size());
+			} while (map.isWall(starts[i]));
+			do {
+				goals[i] = random.nextInt(map.size());
+			} while (map.isWall(goals[i]));
+		}
+		pool = new ForkJoinPool(threads);
+		if (engine.equals("JPS")) {
+			batch = new BatchSearch(() -> new JumpPointSearch(map), pool);
+		} else {
+			batch = new BatchSearch(() -> new AStar(map, true), pool);
+		}
+	}
+
+	/**
+	 * Shut the pool down.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Run one batch.
+	 * @return the paths, consumed by JMH
+	 */
+	@Benchmark
+	public PathResult[] batch() {
+		return batch.findPaths(starts, goals);
+	}
+}
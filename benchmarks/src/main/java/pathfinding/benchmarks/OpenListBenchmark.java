@@ -0,0 +1,225 @@
+package pathfinding.benchmarks;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pathfinding.IndexedHeap;
+
+/**
+ * Open list variants on the same Dijkstra-like trace: pop the best id, then offer a few random ids a key a
+ * little above the popped one, keeping it only if it is lower than what they have. Compares the indexed heap of
+ * the engine with {@link PriorityQueue}, either removing and re-adding updated entries or leaving stale ones
+ * behind and skipping them when popped.
+ * @author ducda
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenListBenchmark {
+	/**
+	 * Number of ids offered after each pop.
+	 */
+	private static final int UPDATES = 3;
+
+	/**
+	 * Number of ids.
+	 */
+	@Param({ "1024", "16384" })
+	public int ids;
+
+	/**
+	 * Id offered by each update.
+	 */
+	private int[] targets;
+	/**
+	 * Key added to the popped key by each update.
+	 */
+	private double[] deltas;
+	/**
+	 * Best key of each id in the current run.
+	 */
+	private double[] best;
+	/**
+	 * Whether each id has been popped in the current run.
+	 */
+	private boolean[] closed;
+	/**
+	 * Indexed heap reused between runs.
+	 */
+	private IndexedHeap heap;
+
+	/**
+	 * Entry of a {@link PriorityQueue}.
+	 */
+	private static final class Entry implements Comparable<Entry> {
+		/**
+		 * Id.
+		 */
+		final int id;
+		/**
+		 * Key.
+		 */
+		double key;
+
+		/**
+		 * Constructor.
+		 * @param id id
+		 * @param key key
+		 */
+		Entry(int id, double key) {
+			this.id = id;
+			this.key = key;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			return Double.compare(key, other.key);
+		}
+	}
+
+	/**
+	 * Generate the trace.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		targets = new int[ids * UPDATES];
+		deltas = new double[ids * UPDATES];
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = random.nextInt(ids);
+			deltas[i] = 1 + random.nextDouble() * 9;
+		}
+		best = new double[ids];
+		closed = new boolean[ids];
+		heap = new IndexedHeap(ids);
+	}
+
+	/**
+	 * Clear the per-run state.
+	 */
+	private void reset() {
+		Arrays.fill(best, Double.POSITIVE_INFINITY);
+		Arrays.fill(closed, false);
+	}
+
+	/**
+	 * Indexed heap with decrease-key.
+	 * @return sum of the popped keys
+	 */
+	@Benchmark
+	public double indexedHeap() {
+		reset();
+		heap.clear();
+		heap.push(0, 0);
+		best[0] = 0;
+		double sum = 0;
+		int t = 0;
+		while (!heap.isEmpty() && t < targets.length) {
+			int current = heap.pop();
+			closed[current] = true;
+			double key = best[current];
+			sum += key;
+			for (int k = 0; k < UPDATES; k++, t++) {
+				int id = targets[t];
+				double newKey = key + deltas[t];
+				if (!closed[id] && newKey < best[id]) {
+					best[id] = newKey;
+					if (heap.contains(id)) {
+						heap.decreaseKey(id, newKey);
+					} else {
+						heap.push(id, newKey);
+					}
+				}
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Priority queue, removing and re-adding an entry when its key drops.
+	 * @return sum of the popped keys
+	 */
+	@Benchmark
+	public double priorityQueueRemove() {
+		reset();
+		Entry[] entries = new Entry[ids];
+		PriorityQueue<Entry> queue = new PriorityQueue<>();
+		entries[0] = new Entry(0, 0);
+		queue.add(entries[0]);
+		best[0] = 0;
+		double sum = 0;
+		int t = 0;
+		while (!queue.isEmpty() && t < targets.length) {
+			Entry current = queue.poll();
+			closed[current.id] = true;
+			double key = current.key;
+			sum += key;
+			for (int k = 0; k < UPDATES; k++, t++) {
+				int id = targets[t];
+				double newKey = key + deltas[t];
+				if (!closed[id] && newKey < best[id]) {
+					best[id] = newKey;
+					if (entries[id] != null) {
+						queue.remove(entries[id]);
+						entries[id].key = newKey;
+					} else {
+						entries[id] = new Entry(id, newKey);
+					}
+					queue.add(entries[id]);
+				}
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Priority queue with a new entry for every key drop, stale entries are skipped when popped.
+	 * @return sum of the popped keys
+	 */
+	@Benchmark
+	public double priorityQueueLazy() {
+		reset();
+		PriorityQueue<Entry> queue = new PriorityQueue<>();
+		queue.add(new Entry(0, 0));
+		best[0] = 0;
+		double sum = 0;
+		int t = 0;
+		while (!queue.isEmpty() && t < targets.length) {
+			Entry current = queue.poll();
+			if (closed[current.id]) {
+				continue;
+			}
+			closed[current.id] = true;
+			double key = current.key;
+			sum += key;
+			for (int k = 0; k < UPDATES; k++, t++) {
+				int id = targets[t];
+				double newKey = key + deltas[t];
+				if (!closed[id] && newKey < best[id]) {
+					best[id] = newKey;
+					queue.add(new Entry(id, newKey));
+				}
+			}
+		}
+		return sum;
+	}
+}
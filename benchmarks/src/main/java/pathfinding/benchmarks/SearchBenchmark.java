@@ -0,0 +1,167 @@
+package pathfinding.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pathfinding.AStar;
+import pathfinding.BidirectionalSearch;
+import pathfinding.ClusterGraph;
+import pathfinding.GridMap;
+import pathfinding.HierarchicalSearch;
+import pathfinding.JumpPointPlus;
+import pathfinding.JumpPointSearch;
+import pathfinding.JumpTable;
+import pathfinding.MapGenerator;
+import pathfinding.PathFinder;
+import pathfinding.PathResult;
+
+/**
+ * Path queries on generated maps. Each invocation runs one query, cycling through a fixed set of start and goal
+ * pairs that are known to be connected. Throughput mode gives queries per second and expansions per second,
+ * average time mode gives time per query and time per expansion. Run with -prof gc for bytes per query.
+ * @author ducda
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+	/**
+	 * Number of queries in a set.
+	 */
+	private static final int QUERIES = 64;
+
+	/**
+	 * Engine to run.
+	 */
+	@Param({ "ASTAR", "ASTAR_4", "JPS", "JPS_PLUS", "BI_ASTAR", "BI_JPS", "HPA" })
+	public String engine;
+	/**
+	 * Map size, rows x columns.
+	 */
+	@Param({ "30x40", "256x256", "1024x1024", "2048x2048" })
+	public String size;
+	/**
+	 * Map layout.
+	 */
+	@Param({ "OPEN", "MAZE", "ROOMS" })
+	public MapGenerator.Style style;
+	/**
+	 * Chance of a random obstacle in each cell.
+	 */
+	@Param({ "0.1", "0.3" })
+	public double density;
+
+	/**
+	 * Engine under test.
+	 */
+	private PathFinder finder;
+	/**
+	 * Start cell of each query.
+	 */
+	private int[] starts;
+	/**
+	 * Goal cell of each query.
+	 */
+	private int[] goals;
+	/**
+	 * Index of the next query.
+	 */
+	private int next;
+
+	/**
+	 * Expansions counted alongside the queries.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Counters {
+		/**
+		 * Number of nodes expanded.
+		 */
+		public long expansions;
+	}
+
+	/**
+	 * Generate the map and the queries, and build the engine.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		String[] dims = size.split("x");
+		int rows = Integer.parseInt(dims[0]);
+		int cols = Integer.parseInt(dims[1]);
+		GridMap map = MapGenerator.generate(style, rows, cols, density, 42);
+
+		// queries are checked with a plain A* so every engine gets the same connected pairs
+		AStar check = new AStar(map, true);
+		Random random = new Random(7);
+		starts = new int[QUERIES];
+		goals = new int[QUERIES];
+		int count = 0;
+		while (count < QUERIES) {
+			int s = random.nextInt(map.size());
+			int g = random.nextInt(map.size());
+			if (s == g || map.isWall(s) || map.isWall(g)) {
+				continue;
+			}
+			if (check.findPath(s, g).isFound()) {
+				starts[count] = s;
+				goals[count] = g;
+				count++;
+			}
+		}
+
+		switch (engine) {
+		case "ASTAR_4":
+			finder = new AStar(map, false);
+			break;
+		case "JPS":
+			finder = new JumpPointSearch(map);
+			break;
+		case "JPS_PLUS":
+			finder = new JumpPointPlus(new JumpTable(map));
+			break;
+		case "BI_ASTAR":
+			finder = new BidirectionalSearch(new AStar(map, true), new AStar(map, true), true);
+			break;
+		case "BI_JPS":
+			finder = new BidirectionalSearch(new JumpPointSearch(map), new JumpPointSearch(map), false);
+			break;
+		case "HPA":
+			finder = new HierarchicalSearch(new ClusterGraph(map, ClusterGraph.DEFAULT_CLUSTER_SIZE, true));
+			break;
+		default:
+			finder = new AStar(map, true);
+		}
+	}
+
+	/**
+	 * Run the next query.
+	 * @param counters expansion counter
+	 * @return the path, consumed by JMH
+	 */
+	@Benchmark
+	public PathResult query(Counters counters) {
+		int i = next;
+		next = (next + 1) % QUERIES;
+		PathResult result = finder.findPath(starts[i], goals[i]);
+		counters.expansions += finder.getExpansions();
+		return result;
+	}
+}
@@ -0,0 +1,75 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that every round of ARA* ends with a path within the bound it reports.
+ * @author ducda
+ *
+ */
+class AnytimeAStarTest {
+	/**
+	 * Random queries on seeded maps of every style, with the default inflation schedule and a slower one.
+	 */
+	@Test
+	void roundsStayWithinBound() {
+		for (long seed = 1; seed <= 4; seed++) {
+			GridMap[] maps = { MapGenerator.generate(MapGenerator.Style.OPEN, 70, 130, 0.3, seed),
+					MapGenerator.generate(MapGenerator.Style.MAZE, 41, 67, 0.1, seed),
+					MapGenerator.generate(MapGenerator.Style.ROOMS, 64, 64, 0.15, seed) };
+			for (GridMap map : maps) {
+				for (boolean diagonal : new boolean[] { true, false }) {
+					AnytimeAStar arastar = new AnytimeAStar(map, diagonal);
+					assertRoundsWithinBound(map, arastar, diagonal, seed);
+					arastar.setEpsilon(4, 0.25);
+					assertRoundsWithinBound(map, arastar, diagonal, seed);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Run random queries one step at a time and check the path of every round against the shortest one.
+	 * @param map map to search
+	 * @param arastar engine to check
+	 * @param diagonal whether diagonal movement is allowed
+	 * @param seed seed of the queries
+	 */
+	private static void assertRoundsWithinBound(GridMap map, AnytimeAStar arastar, boolean diagonal, long seed) {
+		AStar astar = new AStar(map, diagonal);
+		Random random = new Random(seed);
+		for (int i = 0; i < 15; i++) {
+			int start = JumpPointSearchTest.openCell(map, random);
+			int goal = JumpPointSearchTest.openCell(map, random);
+			double optimal = astar.findPath(start, goal).getCost();
+			arastar.begin(start, goal);
+			int rounds = 0;
+			double previous = Double.POSITIVE_INFINITY;
+			boolean running = true;
+			while (running) {
+				running = arastar.step();
+				if (arastar.getRounds() == rounds) {
+					continue;
+				}
+				rounds = arastar.getRounds();
+				double cost = arastar.result().getCost();
+				assertTrue(cost >= optimal - JumpPointSearchTest.EPSILON);
+				assertTrue(cost <= arastar.getBound() * optimal + JumpPointSearchTest.EPSILON);
+				assertTrue(cost <= previous + JumpPointSearchTest.EPSILON);
+				previous = cost;
+			}
+			if (optimal == Double.POSITIVE_INFINITY) {
+				assertEquals(0, rounds);
+				continue;
+			}
+			assertTrue(rounds > 0);
+			assertEquals(1, arastar.getBound());
+			assertEquals(optimal, arastar.result().getCost(), JumpPointSearchTest.EPSILON);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that batches run in parallel give the paths of sequential searches, in order, on reused engines.
+ * @author ducda
+ *
+ */
+class BatchSearchTest {
+	/**
+	 * Number of worker threads of the pool the batches run on.
+	 */
+	private static final int THREADS = 4;
+
+	/**
+	 * Two batches of A* queries on a snapshot match the same queries run one by one, and share a few engines.
+	 */
+	@Test
+	void matchesSequentialSearches() {
+		GridMap snapshot = MapGenerator.generate(MapGenerator.Style.ROOMS, 120, 150, 0.2, 8).snapshot();
+		int[][] queries = queries(snapshot, 500, 8);
+		AtomicInteger created = new AtomicInteger();
+		ForkJoinPool pool = new ForkJoinPool(THREADS);
+		try {
+			BatchSearch batch = new BatchSearch(() -> {
+				created.incrementAndGet();
+				return new AStar(snapshot, true);
+			}, pool);
+			AStar sequential = new AStar(snapshot, true);
+			for (int run = 0; run < 2; run++) {
+				PathResult[] results = batch.findPaths(queries[0], queries[1]);
+				assertEquals(queries[0].length, results.length);
+				for (int i = 0; i < results.length; i++) {
+					PathResult expected = sequential.findPath(queries[0][i], queries[1][i]);
+					assertEquals(expected.getStatus(), results[i].getStatus(), "query " + i);
+					assertEquals(expected.getCost(), results[i].getCost(), "query " + i);
+					assertArrayEquals(expected.getPath(), results[i].getPath(), "query " + i);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		// dozens of chunks over two batches, but no more engines than threads searching at once
+		assertTrue(created.get() >= 1 && created.get() <= THREADS, "engines created: " + created.get());
+	}
+
+	/**
+	 * JPS+ engines sharing one jump table built on the snapshot match a sequential JPS+ engine.
+	 */
+	@Test
+	void sharesJumpTable() {
+		GridMap snapshot = MapGenerator.generate(MapGenerator.Style.OPEN, 100, 130, 0.25, 4).snapshot();
+		JumpTable table = new JumpTable(snapshot);
+		int[][] queries = queries(snapshot, 300, 4);
+		ForkJoinPool pool = new ForkJoinPool(THREADS);
+		try {
+			PathResult[] results = new BatchSearch(() -> new JumpPointPlus(table), pool).findPaths(queries[0],
+					queries[1]);
+			JumpPointPlus sequential = new JumpPointPlus(table);
+			for (int i = 0; i < results.length; i++) {
+				PathResult expected = sequential.findPath(queries[0][i], queries[1][i]);
+				assertEquals(expected.getCost(), results[i].getCost(), "query " + i);
+				assertArrayEquals(expected.getPath(), results[i].getPath(), "query " + i);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Pick random queries between open cells.
+	 * @param map map to pick from
+	 * @param count number of queries
+	 * @param seed random seed
+	 * @return start cells, then goal cells
+	 */
+	private static int[][] queries(GridMap map, int count, long seed) {
+		Random random = new Random(seed);
+		int[][] queries = new int[2][count];
+		for (int i = 0; i < count; i++) {
+			queries[0][i] = JumpPointSearchTest.openCell(map, random);
+			queries[1][i] = JumpPointSearchTest.openCell(map, random);
+		}
+		return queries;
+	}
+}
@@ -0,0 +1,104 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that bidirectional searches find paths as short as A* does. Either stopping rule ends the search too
+ * early if it is wrong, which shows up as a longer path.
+ * @author ducda
+ *
+ */
+class BidirectionalSearchTest {
+	/**
+	 * Balanced bidirectional A* in both movement models and bidirectional JPS on seeded maps of every style.
+	 */
+	@Test
+	void matchesAStarOnGeneratedMaps() {
+		for (long seed = 1; seed <= 4; seed++) {
+			assertSameCosts(MapGenerator.generate(MapGenerator.Style.OPEN, 70, 130, 0.3, seed), seed, 40);
+			assertSameCosts(MapGenerator.generate(MapGenerator.Style.MAZE, 41, 67, 0, seed), seed, 20);
+			assertSameCosts(MapGenerator.generate(MapGenerator.Style.ROOMS, 64, 64, 0.15, seed), seed, 20);
+		}
+	}
+
+	/**
+	 * The same queries on maps with walls touching at their corners and on maps that forbid cutting corners.
+	 */
+	@Test
+	void matchesAStarOnCornerMaps() {
+		for (long seed = 1; seed <= 4; seed++) {
+			assertSameCosts(JumpPointSearchTest.cornerMap(33, 75, seed), seed, 40);
+			assertSameCosts(JumpPointSearchTest.withoutCornerCutting(
+					MapGenerator.generate(MapGenerator.Style.ROOMS, 64, 64, 0.15, seed)), seed, 20);
+		}
+	}
+
+	/**
+	 * A query from or to a wall has no path, as with one-way A*, rather than a path out of the wall the backward
+	 * half was seeded on.
+	 */
+	@Test
+	void wallEndpointIsUnreachable() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.ROOMS, 64, 64, 0.15, 3);
+		PathFinder[] finders = { new AStar(map, true),
+				new BidirectionalSearch(new AStar(map, true), new AStar(map, true), true),
+				new BidirectionalSearch(new AStar(map, false), new AStar(map, false), true),
+				new BidirectionalSearch(new JumpPointSearch(map), new JumpPointSearch(map), false) };
+		Random random = new Random(3);
+		for (int i = 0; i < 20; i++) {
+			int open = JumpPointSearchTest.openCell(map, random);
+			int wall = wallCell(map, random);
+			int[][] queries = { { open, wall }, { wall, open }, { wall, wall } };
+			for (PathFinder finder : finders) {
+				for (int[] query : queries) {
+					PathResult result = finder.findPath(query[0], query[1]);
+					assertEquals(SearchStatus.UNREACHABLE, result.getStatus());
+					assertEquals(0, result.getPath().length);
+					assertEquals(0, finder.getExpansions());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Pick a random wall.
+	 * @param map map to pick from, with at least one wall
+	 * @param random source of randomness
+	 * @return cell id
+	 */
+	static int wallCell(GridMap map, Random random) {
+		while (true) {
+			int vertex = random.nextInt(map.size());
+			if (map.isWall(vertex)) {
+				return vertex;
+			}
+		}
+	}
+
+	/**
+	 * Run random queries with every bidirectional engine and compare each cost with the one A* finds.
+	 * @param map map to search
+	 * @param seed seed of the queries
+	 * @param queries number of queries
+	 */
+	private static void assertSameCosts(GridMap map, long seed, int queries) {
+		AStar astar = new AStar(map, true);
+		AStar astar4 = new AStar(map, false);
+		BidirectionalSearch biAStar = new BidirectionalSearch(new AStar(map, true), new AStar(map, true), true);
+		BidirectionalSearch biAStar4 = new BidirectionalSearch(new AStar(map, false), new AStar(map, false), true);
+		BidirectionalSearch biJps = new BidirectionalSearch(new JumpPointSearch(map), new JumpPointSearch(map),
+				false);
+		Random random = new Random(seed);
+		for (int i = 0; i < queries; i++) {
+			int start = JumpPointSearchTest.openCell(map, random);
+			int goal = JumpPointSearchTest.openCell(map, random);
+			JumpPointSearchTest.assertSameCost(map, astar, biAStar, start, goal);
+			JumpPointSearchTest.assertSameCost(map, astar4, biAStar4, start, goal);
+			JumpPointSearchTest.assertSameCost(map, astar, biJps, start, goal);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that D* Lite replans match fresh searches while walls change.
+ * @author ducda
+ *
+ */
+class DStarLiteTest {
+	/**
+	 * After random wall edits and moves of the start, every replan costs what a fresh A* search does.
+	 */
+	@Test
+	void replansMatchAStar() {
+		for (boolean diagonal : new boolean[] { true, false }) {
+			for (long seed = 1; seed <= 3; seed++) {
+				GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 30, 40, 0.25, seed);
+				DStarLite dStarLite = new DStarLite(map, diagonal).attach();
+				assertReplansMatch(map, dStarLite, diagonal, new Random(seed));
+				dStarLite.close();
+			}
+		}
+	}
+
+	/**
+	 * A closed engine no longer sees walls change, and starts over rather than reuse a stale tree.
+	 */
+	@Test
+	void closedEngineStartsOver() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.MAZE, 31, 41, 0.3, 5);
+		DStarLite dStarLite = new DStarLite(map, true).attach();
+		dStarLite.close();
+		assertReplansMatch(map, dStarLite, true, new Random(5));
+	}
+
+	/**
+	 * Query an engine towards a fixed goal while toggling random walls and moving the start.
+	 * @param map map searched
+	 * @param dStarLite engine to check
+	 * @param diagonal whether diagonal movement is allowed
+	 * @param random source of the edits
+	 */
+	private static void assertReplansMatch(GridMap map, DStarLite dStarLite, boolean diagonal, Random random) {
+		AStar astar = new AStar(map, diagonal);
+		int start = JumpPointSearchTest.openCell(map, random);
+		int goal = JumpPointSearchTest.openCell(map, random);
+		for (int i = 0; i < 60; i++) {
+			int edits = 1 + random.nextInt(8);
+			for (int e = 0; e < edits; e++) {
+				int row = random.nextInt(map.getRows());
+				int col = random.nextInt(map.getCols());
+				int cell = map.index(row, col);
+				if (cell != start && cell != goal) {
+					map.setWall(row, col, !map.isWall(cell));
+				}
+			}
+			if (i % 5 == 4) {
+				start = JumpPointSearchTest.openCell(map, random);
+			}
+			assertEquals(astar.findPath(start, goal).getCost(), dStarLite.findPath(start, goal).getCost(),
+					JumpPointSearchTest.EPSILON);
+		}
+	}
+}
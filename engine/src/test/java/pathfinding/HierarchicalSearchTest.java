@@ -0,0 +1,201 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the paths of hierarchical searches and how their work is counted.
+ * @author ducda
+ *
+ */
+class HierarchicalSearchTest {
+	/**
+	 * The path is refined once per search: asking for it again returns the same path and counts no more work.
+	 */
+	@Test
+	void refinesOnce() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.ROOMS, 100, 140, 0.2, 4);
+		HierarchicalSearch finder = new HierarchicalSearch(new ClusterGraph(map, 16, true));
+		AStar astar = new AStar(map, true);
+		Random random = new Random(4);
+		for (int i = 0; i < 30; i++) {
+			int start = JumpPointSearchTest.openCell(map, random);
+			int goal = JumpPointSearchTest.openCell(map, random);
+			PathResult result = finder.findPath(start, goal);
+			int expansions = finder.getExpansions();
+			int refineExpansions = finder.getRefineExpansions();
+			assertEquals(expansions + refineExpansions, finder.getLastMetrics().getExpanded());
+			for (int k = 0; k < 3; k++) {
+				PathResult again = finder.result();
+				assertArrayEquals(result.getPath(), again.getPath());
+				assertEquals(result.getCost(), again.getCost());
+			}
+			assertEquals(expansions, finder.getExpansions());
+			assertEquals(refineExpansions, finder.getRefineExpansions());
+
+			double optimal = astar.findPath(start, goal).getCost();
+			if (optimal == Double.POSITIVE_INFINITY) {
+				assertEquals(0, result.getPath().length);
+				continue;
+			}
+			assertTrue(result.getCost() >= optimal - JumpPointSearchTest.EPSILON);
+			assertEquals(result.getCost(), pathCost(map, result.getPath()), JumpPointSearchTest.EPSILON);
+		}
+	}
+
+	/**
+	 * A search run step by step gives the path and counts of the same search run at once.
+	 */
+	@Test
+	void stepsMatchFindPath() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 80, 80, 0.25, 9);
+		HierarchicalSearch finder = new HierarchicalSearch(new ClusterGraph(map, 16, true));
+		Random random = new Random(9);
+		for (int i = 0; i < 20; i++) {
+			int start = JumpPointSearchTest.openCell(map, random);
+			int goal = JumpPointSearchTest.openCell(map, random);
+			PathResult expected = finder.findPath(start, goal);
+			SearchMetrics metrics = finder.getLastMetrics();
+			finder.begin(start, goal);
+			while (finder.step()) {
+				// keep expanding
+			}
+			PathResult first = finder.result();
+			PathResult second = finder.result();
+			assertArrayEquals(expected.getPath(), first.getPath());
+			assertArrayEquals(first.getPath(), second.getPath());
+			assertEquals(metrics.getExpanded(), finder.report(second).getExpanded());
+		}
+	}
+
+	/**
+	 * A query from or to a wall has no path, as with A*, and runs no search inside a cluster.
+	 */
+	@Test
+	void wallEndpointIsUnreachable() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.ROOMS, 200, 200, 0.2, 2);
+		HierarchicalSearch finder = new HierarchicalSearch(new ClusterGraph(map, 16, true));
+		AStar astar = new AStar(map, true);
+		Random random = new Random(2);
+		for (int i = 0; i < 20; i++) {
+			int open = JumpPointSearchTest.openCell(map, random);
+			int wall = BidirectionalSearchTest.wallCell(map, random);
+			for (int[] query : new int[][] { { open, wall }, { wall, open } }) {
+				PathResult result = finder.findPath(query[0], query[1]);
+				assertEquals(astar.findPath(query[0], query[1]).getStatus(), result.getStatus());
+				assertEquals(SearchStatus.UNREACHABLE, result.getStatus());
+				assertEquals(0, result.getPath().length);
+				assertEquals(0, finder.getLastMetrics().getExpanded());
+			}
+		}
+	}
+
+	/**
+	 * Refining towards a cell the search inside the cluster did not reach gives no cells, rather than a path
+	 * through parents left over from an older search.
+	 */
+	@Test
+	void refineToUnreachedCellIsEmpty() {
+		GridMap map = new GridMap(32, 32);
+		HierarchicalSearch finder = new HierarchicalSearch(new ClusterGraph(map, 16, true));
+		int from = map.index(1, 1);
+		int to = map.index(5, 5);
+		assertEquals(5, finder.refine(from, to).length);
+		map.setWall(5, 5, true);
+		assertEquals(0, finder.refine(from, to).length);
+	}
+
+	/**
+	 * Refinement runs within the limits of the search: a cap the abstract search fits in stops refinement part of
+	 * the way, and a token cancelled once the abstract search is done stops it before it starts.
+	 */
+	@Test
+	void refinementStaysWithinLimits() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 120, 120, 0.2, 6);
+		map.setWall(2, 2, false);
+		map.setWall(117, 117, false);
+		int start = map.index(2, 2);
+		int goal = map.index(117, 117);
+		HierarchicalSearch finder = new HierarchicalSearch(new ClusterGraph(map, 16, true));
+		int[] full = finder.findPath(start, goal).getPath();
+		int expansions = finder.getExpansions();
+		int refineExpansions = finder.getRefineExpansions();
+		assertTrue(refineExpansions > 0);
+
+		finder.setLimits(new SearchLimits(expansions + 1, Long.MAX_VALUE, Integer.MAX_VALUE));
+		PathResult result = finder.findPath(start, goal);
+		assertEquals(SearchStatus.BUDGET_EXCEEDED, result.getStatus());
+		assertEquals(expansions, finder.getExpansions());
+		assertTrue(finder.getRefineExpansions() < refineExpansions);
+		int[] path = result.getPath();
+		assertTrue(path.length > 1 && path.length < full.length);
+		assertArrayEquals(Arrays.copyOf(full, path.length), path);
+		assertEquals(pathCost(map, path), result.getCost(), JumpPointSearchTest.EPSILON);
+
+		finder.setLimits(SearchLimits.UNLIMITED);
+		CancelToken token = new CancelToken();
+		finder.setCancelToken(token);
+		finder.begin(start, goal);
+		while (finder.step()) {
+			// keep expanding
+		}
+		token.cancel();
+		result = finder.result();
+		assertEquals(SearchStatus.CANCELLED, result.getStatus());
+		assertArrayEquals(new int[] { start }, result.getPath());
+		assertEquals(0, finder.getRefineExpansions());
+	}
+
+	/**
+	 * Attached or closed, a graph follows wall edits: searches on it cost what they cost on a graph built anew.
+	 */
+	@Test
+	void graphFollowsWallEdits() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.ROOMS, 80, 80, 0.2, 7);
+		ClusterGraph attached = new ClusterGraph(map, 16, true).attach();
+		ClusterGraph closed = new ClusterGraph(map, 16, true).attach();
+		closed.close();
+		HierarchicalSearch[] finders = { new HierarchicalSearch(attached), new HierarchicalSearch(closed),
+				new HierarchicalSearch(new ClusterGraph(map, 16, true)) };
+		Random random = new Random(7);
+		for (int i = 0; i < 30; i++) {
+			for (int e = 0; e < 10; e++) {
+				int row = random.nextInt(map.getRows());
+				int col = random.nextInt(map.getCols());
+				map.setWall(row, col, !map.isWall(row, col));
+			}
+			int start = JumpPointSearchTest.openCell(map, random);
+			int goal = JumpPointSearchTest.openCell(map, random);
+			HierarchicalSearch fresh = new HierarchicalSearch(new ClusterGraph(map, 16, true));
+			double expected = fresh.findPath(start, goal).getCost();
+			for (HierarchicalSearch finder : finders) {
+				assertEquals(expected, finder.findPath(start, goal).getCost(), JumpPointSearchTest.EPSILON);
+			}
+		}
+	}
+
+	/**
+	 * Add up the moves of a path.
+	 * @param map map the path is on
+	 * @param path cells of the path
+	 * @return cost of the path, infinity if a move is not allowed
+	 */
+	private static double pathCost(GridMap map, int[] path) {
+		double cost = 0;
+		for (int i = 1; i < path.length; i++) {
+			int dRow = map.row(path[i]) - map.row(path[i - 1]);
+			int dCol = map.col(path[i]) - map.col(path[i - 1]);
+			if (Math.abs(dRow) > 1 || Math.abs(dCol) > 1 || !map.isWalkable(path[i - 1], dCol, dRow)) {
+				return Double.POSITIVE_INFINITY;
+			}
+			cost += map.getMoveCost(path[i - 1], GridMap.direction(dRow, dCol));
+		}
+		return cost;
+	}
+}
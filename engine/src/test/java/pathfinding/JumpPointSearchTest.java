@@ -0,0 +1,204 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that JPS finds paths as short as A* does. JPS only opens jump points, so any mistake in the scans or the
+ * pruning shows up as a longer path or a missed one.
+ * @author ducda
+ *
+ */
+class JumpPointSearchTest {
+	/**
+	 * Difference allowed between two path costs.
+	 */
+	static final double EPSILON = 1e-9;
+
+	/**
+	 * Random queries on seeded maps of every style, with sizes that are not multiples of 64 so scans cross the
+	 * ends of the bitboard words.
+	 */
+	@Test
+	void matchesAStarOnGeneratedMaps() {
+		for (long seed = 1; seed <= 6; seed++) {
+			assertSameCosts(MapGenerator.generate(MapGenerator.Style.OPEN, 70, 130, 0.3, seed), seed, 60);
+			assertSameCosts(MapGenerator.generate(MapGenerator.Style.MAZE, 41, 67, 0, seed), seed, 30);
+			assertSameCosts(MapGenerator.generate(MapGenerator.Style.ROOMS, 64, 64, 0.15, seed), seed, 30);
+		}
+	}
+
+	/**
+	 * Queries on maps made of walls that only touch at their corners, where diagonal moves squeeze between two
+	 * walls and forced neighbors show up on every line.
+	 */
+	@Test
+	void matchesAStarWithCornerAdjacentWalls() {
+		for (long seed = 1; seed <= 10; seed++) {
+			assertSameCosts(cornerMap(33, 75, seed), seed, 60);
+		}
+	}
+
+	/**
+	 * The same queries on maps that forbid cutting corners, where forced neighbors follow other rules.
+	 */
+	@Test
+	void matchesAStarWithoutCornerCutting() {
+		for (long seed = 1; seed <= 6; seed++) {
+			assertSameCosts(withoutCornerCutting(MapGenerator.generate(MapGenerator.Style.OPEN, 70, 130, 0.3, seed)),
+					seed, 60);
+			assertSameCosts(withoutCornerCutting(MapGenerator.generate(MapGenerator.Style.ROOMS, 64, 64, 0.15, seed)),
+					seed, 30);
+			assertSameCosts(withoutCornerCutting(cornerMap(33, 75, seed)), seed, 60);
+		}
+	}
+
+	/**
+	 * JPS+ finds the same costs as A*, with and without corner cutting.
+	 */
+	@Test
+	void jumpPointPlusMatchesAStar() {
+		for (long seed = 1; seed <= 4; seed++) {
+			for (GridMap map : new GridMap[] { cornerMap(33, 75, seed), withoutCornerCutting(cornerMap(33, 75, seed)),
+					MapGenerator.generate(MapGenerator.Style.OPEN, 65, 70, 0.3, seed) }) {
+				Random random = new Random(seed);
+				AStar astar = new AStar(map, true);
+				JumpPointPlus jpsPlus = new JumpPointPlus(new JumpTable(map));
+				for (int i = 0; i < 60; i++) {
+					assertSameCost(map, astar, jpsPlus, openCell(map, random), openCell(map, random));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Queries whose start and goal are both on the border of the map, where scans run along the padding.
+	 */
+	@Test
+	void matchesAStarBetweenBorderCells() {
+		for (long seed = 1; seed <= 6; seed++) {
+			GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 65, 129, 0.25, seed);
+			Random random = new Random(seed);
+			AStar astar = new AStar(map, true);
+			JumpPointSearch jps = new JumpPointSearch(map);
+			for (int i = 0; i < 80; i++) {
+				int start = borderCell(map, random);
+				int goal = borderCell(map, random);
+				assertSameCost(map, astar, jps, start, goal);
+			}
+		}
+	}
+
+	/**
+	 * Run random queries between open cells and compare JPS with A*.
+	 * @param map map to search on
+	 * @param seed random seed of the queries
+	 * @param queries number of queries
+	 */
+	static void assertSameCosts(GridMap map, long seed, int queries) {
+		Random random = new Random(seed);
+		AStar astar = new AStar(map, true);
+		JumpPointSearch jps = new JumpPointSearch(map);
+		for (int i = 0; i < queries; i++) {
+			assertSameCost(map, astar, jps, openCell(map, random), openCell(map, random));
+		}
+	}
+
+	/**
+	 * Compare the path cost of an engine with the one of A* on a query.
+	 * @param map map searched
+	 * @param astar reference engine
+	 * @param finder engine under test
+	 * @param start start cell
+	 * @param goal end cell
+	 */
+	static void assertSameCost(GridMap map, PathFinder astar, PathFinder finder, int start, int goal) {
+		PathResult expected = astar.findPath(start, goal);
+		PathResult actual = finder.findPath(start, goal);
+		String query = "from (" + map.row(start) + ", " + map.col(start) + ") to (" + map.row(goal) + ", "
+				+ map.col(goal) + ")";
+		assertEquals(expected.getStatus(), actual.getStatus(), query);
+		assertEquals(expected.getCost(), actual.getCost(), EPSILON, query);
+	}
+
+	/**
+	 * Build a map whose walls are single cells scattered so that many of them touch diagonally.
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @param seed random seed
+	 * @return the map
+	 */
+	static GridMap cornerMap(int rows, int cols, long seed) {
+		GridMap map = new GridMap(rows, cols);
+		Random random = new Random(seed);
+		for (int i = 0; i < rows * cols / 6; i++) {
+			int row = random.nextInt(rows - 1);
+			int col = random.nextInt(cols - 1);
+			// a diagonal pair leaves the two other cells of the square open
+			if (random.nextBoolean()) {
+				map.setWall(row, col, true);
+				map.setWall(row + 1, col + 1, true);
+			} else {
+				map.setWall(row, col + 1, true);
+				map.setWall(row + 1, col, true);
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Copy the walls of a map onto one that forbids cutting corners.
+	 * @param map map to copy
+	 * @return the copy
+	 */
+	static GridMap withoutCornerCutting(GridMap map) {
+		GridMap copy = new GridMap(map.getRows(), map.getCols(), false);
+		for (int vertex = 0; vertex < map.size(); vertex++) {
+			if (map.isWall(vertex)) {
+				copy.setWall(map.row(vertex), map.col(vertex), true);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Pick a random open cell.
+	 * @param map map to pick from, with at least one open cell
+	 * @param random source of randomness
+	 * @return cell id
+	 */
+	static int openCell(GridMap map, Random random) {
+		while (true) {
+			int vertex = random.nextInt(map.size());
+			if (!map.isWall(vertex)) {
+				return vertex;
+			}
+		}
+	}
+
+	/**
+	 * Pick a random open cell on the border of the map.
+	 * @param map map to pick from, with at least one open cell on its border
+	 * @param random source of randomness
+	 * @return cell id
+	 */
+	static int borderCell(GridMap map, Random random) {
+		while (true) {
+			int row;
+			int col;
+			if (random.nextBoolean()) {
+				row = random.nextBoolean() ? 0 : map.getRows() - 1;
+				col = random.nextInt(map.getCols());
+			} else {
+				row = random.nextInt(map.getRows());
+				col = random.nextBoolean() ? 0 : map.getCols() - 1;
+			}
+			if (!map.isWall(row, col)) {
+				return map.index(row, col);
+			}
+		}
+	}
+}
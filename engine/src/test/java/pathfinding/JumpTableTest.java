@@ -0,0 +1,91 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the entries a {@link JumpTable} repairs after a wall change are those a full build computes.
+ * @author ducda
+ *
+ */
+class JumpTableTest {
+	/**
+	 * Random wall toggles on generated maps, with and without corner cutting, comparing the whole table after each
+	 * one.
+	 */
+	@Test
+	void repairMatchesRebuild() {
+		for (long seed = 1; seed <= 4; seed++) {
+			assertRepairs(MapGenerator.generate(MapGenerator.Style.OPEN, 37, 70, 0.2, seed), seed, 150);
+			assertRepairs(MapGenerator.generate(MapGenerator.Style.ROOMS, 33, 33, 0.1, seed), seed, 150);
+			assertRepairs(JumpPointSearchTest.cornerMap(20, 66, seed), seed, 150);
+			assertRepairs(JumpPointSearchTest.withoutCornerCutting(JumpPointSearchTest.cornerMap(20, 66, seed)), seed,
+					150);
+		}
+	}
+
+	/**
+	 * A closed table no longer follows the walls, and is rebuilt by the next JPS+ search once they changed.
+	 */
+	@Test
+	void closedTableIsRebuilt() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 40, 50, 0.2, 3);
+		JumpTable table = new JumpTable(map).attach();
+		table.close();
+		int[] before = entries(table);
+		Random random = new Random(3);
+		for (int t = 0; t < 20; t++) {
+			int row = random.nextInt(map.getRows());
+			int col = random.nextInt(map.getCols());
+			map.setWall(row, col, !map.isWall(row, col));
+		}
+		assertArrayEquals(before, entries(table));
+
+		JumpPointSearchTest.assertSameCost(map, new AStar(map, true), new JumpPointPlus(table),
+				JumpPointSearchTest.openCell(map, random), JumpPointSearchTest.openCell(map, random));
+		assertArrayEquals(entries(new JumpTable(map)), entries(table));
+	}
+
+	/**
+	 * Read every entry of a table.
+	 * @param table table to read
+	 * @return entries at index cell * 8 + direction
+	 */
+	private static int[] entries(JumpTable table) {
+		int[] entries = new int[table.getMap().size() * 8];
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = table.distance(i / 8, i % 8);
+		}
+		return entries;
+	}
+
+	/**
+	 * Toggle random walls and compare the repaired table with a new one after every toggle.
+	 * @param map map to edit
+	 * @param seed random seed of the toggles
+	 * @param toggles number of toggles
+	 */
+	private static void assertRepairs(GridMap map, long seed, int toggles) {
+		Random random = new Random(seed);
+		JumpTable table = new JumpTable(map).attach();
+		for (int t = 0; t < toggles; t++) {
+			int row = random.nextInt(map.getRows());
+			int col = random.nextInt(map.getCols());
+			map.setWall(row, col, !map.isWall(row, col));
+			JumpTable fresh = new JumpTable(map);
+			for (int vertex = 0; vertex < map.size(); vertex++) {
+				for (int dir = 0; dir < 8; dir++) {
+					if (table.distance(vertex, dir) != fresh.distance(vertex, dir)) {
+						assertEquals(fresh.distance(vertex, dir), table.distance(vertex, dir), "toggle " + t + " at ("
+								+ row + ", " + col + "), cell (" + map.row(vertex) + ", " + map.col(vertex)
+								+ ") direction " + dir);
+					}
+				}
+			}
+		}
+	}
+}
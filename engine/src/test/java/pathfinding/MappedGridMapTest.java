@@ -0,0 +1,101 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks map files and how the engines treat their cost layer.
+ * @author ducda
+ *
+ */
+class MappedGridMapTest {
+	/**
+	 * Directory the map files are written to.
+	 */
+	@TempDir
+	Path dir;
+
+	/**
+	 * The walls read back are the ones written.
+	 * @throws IOException if a map file cannot be written or read
+	 */
+	@Test
+	void readsBackWalls() throws IOException {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.ROOMS, 50, 70, 0.2, 3);
+		Path file = dir.resolve("rooms.grid");
+		MappedGridMap.write(map, null, file);
+		MappedGridMap mapped = MappedGridMap.open(file);
+		for (int vertex = 0; vertex < map.size(); vertex++) {
+			assertEquals(map.isWall(vertex), mapped.isWall(vertex));
+		}
+		assertTrue(mapped.hasUnitCosts());
+		assertTrue(mapped.allowsCornerCutting());
+	}
+
+	/**
+	 * A map that forbids cutting corners still does once written and read back.
+	 * @throws IOException if a map file cannot be written or read
+	 */
+	@Test
+	void keepsCornerCuttingRule() throws IOException {
+		GridMap map = JumpPointSearchTest.withoutCornerCutting(JumpPointSearchTest.cornerMap(20, 30, 2));
+		Path file = dir.resolve("corners.grid");
+		MappedGridMap.write(map, null, file);
+		MappedGridMap mapped = MappedGridMap.open(file);
+		assertFalse(mapped.allowsCornerCutting());
+		JumpPointSearchTest.assertSameCosts(mapped, 2, 30);
+	}
+
+	/**
+	 * JPS, JPS+ and bidirectional searches refuse a map with cells costing more than 1, A* takes those costs.
+	 * @throws IOException if a map file cannot be written or read
+	 */
+	@Test
+	void jumpPointSearchRefusesCostLayer() throws IOException {
+		GridMap map = new GridMap(5, 8);
+		byte[] costs = new byte[map.size()];
+		Arrays.fill(costs, (byte) 1);
+		costs[map.index(2, 4)] = 9;
+		Path file = dir.resolve("costs.grid");
+		MappedGridMap.write(map, costs, file);
+		MappedGridMap mapped = MappedGridMap.open(file);
+
+		assertFalse(mapped.hasUnitCosts());
+		assertThrows(IllegalArgumentException.class, () -> new JumpPointSearch(mapped));
+		assertThrows(IllegalArgumentException.class, () -> new JumpTable(mapped));
+		assertThrows(IllegalArgumentException.class,
+				() -> new BidirectionalSearch(new JumpPointSearch(mapped), new JumpPointSearch(mapped), false));
+		assertThrows(IllegalArgumentException.class,
+				() -> new BidirectionalSearch(new AStar(mapped, true), new AStar(mapped, true), true));
+		// the straight line crosses the expensive cell, going around it costs 4 + 2 sqrt(2)
+		PathResult result = new AStar(mapped, true).findPath(map.index(2, 1), map.index(2, 7));
+		assertEquals(4 + 2 * GridMap.SQRT2, result.getCost(), 1e-9);
+	}
+
+	/**
+	 * A cost layer where every cell costs 1 changes nothing, so JPS accepts it.
+	 * @throws IOException if a map file cannot be written or read
+	 */
+	@Test
+	void jumpPointSearchAcceptsUnitCostLayer() throws IOException {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 30, 40, 0.2, 5);
+		byte[] costs = new byte[map.size()];
+		Arrays.fill(costs, (byte) 1);
+		Path file = dir.resolve("unit.grid");
+		MappedGridMap.write(map, costs, file);
+		MappedGridMap mapped = MappedGridMap.open(file);
+
+		assertTrue(mapped.hasCosts());
+		assertTrue(mapped.hasUnitCosts());
+		JumpPointSearchTest.assertSameCosts(mapped, 5, 30);
+	}
+}
@@ -0,0 +1,85 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the engines find the published optimal lengths of a small Moving AI map and scenario file. Every
+ * query of the fixture is shorter if corners can be cut, so the costs only match under the benchmark's rule.
+ * @author ducda
+ *
+ */
+class MovingAiLoaderTest {
+	/**
+	 * Difference allowed with a published length, which has 8 decimals.
+	 */
+	private static final double TOLERANCE = 1e-4;
+
+	/**
+	 * Maps read from .map files forbid cutting corners.
+	 * @throws Exception if the fixture cannot be read
+	 */
+	@Test
+	void readsMapWithoutCornerCutting() throws Exception {
+		GridMap map = MovingAiLoader.readMap(fixture("corners.map"));
+		assertEquals(8, map.getRows());
+		assertEquals(10, map.getCols());
+		assertTrue(map.isWall(1, 1));
+		assertTrue(map.isWall(2, 5));
+		assertFalse(map.isWall(4, 1));
+		assertFalse(map.allowsCornerCutting());
+	}
+
+	/**
+	 * A*, JPS, JPS+ and the bidirectional searches all find the published lengths.
+	 * @throws Exception if the fixture cannot be read
+	 */
+	@Test
+	void costsMatchPublishedLengths() throws Exception {
+		assertCosts(map -> new AStar(map, true));
+		assertCosts(JumpPointSearch::new);
+		assertCosts(map -> new JumpPointPlus(new JumpTable(map)));
+		assertCosts(map -> new BidirectionalSearch(new AStar(map, true), new AStar(map, true), true));
+		assertCosts(map -> new BidirectionalSearch(new JumpPointSearch(map), new JumpPointSearch(map), false));
+	}
+
+	/**
+	 * Run every query of the fixture and compare the costs with the published lengths.
+	 * @param factory creates the engine on the map
+	 * @throws IOException if the fixture cannot be read
+	 * @throws URISyntaxException if the fixture cannot be located
+	 */
+	private static void assertCosts(Function<GridMap, PathFinder> factory) throws IOException, URISyntaxException {
+		List<Scenario> scenarios = MovingAiLoader.readScenarios(fixture("corners.map.scen"));
+		assertEquals(10, scenarios.size());
+		for (Scenario scenario : scenarios) {
+			GridMap map = MovingAiLoader.readMap(fixture(Paths.get(scenario.getMapName()).getFileName().toString()));
+			PathFinder finder = factory.apply(map);
+			PathResult result = finder.findPath(map.index(scenario.getStartRow(), scenario.getStartCol()),
+					map.index(scenario.getGoalRow(), scenario.getGoalCol()));
+			assertEquals(scenario.getOptimal(), result.getCost(), TOLERANCE, finder.searchKey() + " from ("
+					+ scenario.getStartRow() + ", " + scenario.getStartCol() + ") to (" + scenario.getGoalRow() + ", "
+					+ scenario.getGoalCol() + ")");
+		}
+	}
+
+	/**
+	 * Get the path of a fixture file.
+	 * @param name file name
+	 * @return path of the file
+	 * @throws URISyntaxException if the file cannot be located
+	 */
+	private static Path fixture(String name) throws URISyntaxException {
+		return Paths.get(MovingAiLoaderTest.class.getResource(name).toURI());
+	}
+}
@@ -0,0 +1,110 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that cached paths are dropped when a wall blocks them and cannot be changed by callers.
+ * @author ducda
+ *
+ */
+class PathCacheTest {
+	/**
+	 * A wall put on a cached path makes the next query miss and find a path around it.
+	 */
+	@Test
+	void wallOnPathMisses() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 40, 60, 0.2, 6);
+		map.setWall(2, 2, false);
+		map.setWall(37, 57, false);
+		int start = map.index(2, 2);
+		int goal = map.index(37, 57);
+		PathCache cache = new PathCache(map, 16).attach();
+		AStar astar = new AStar(map, true);
+		PathResult first = cache.findPath(astar, start, goal);
+		assertTrue(first.isFound());
+		PathResult second = cache.findPath(astar, start, goal);
+		assertEquals(1, cache.getHits());
+		assertArrayEquals(first.getPath(), second.getPath());
+
+		int[] path = first.getPath();
+		int blocked = path[path.length / 2];
+		map.setWall(map.row(blocked), map.col(blocked), true);
+		assertEquals(1, cache.getInvalidations());
+		PathResult third = cache.findPath(astar, start, goal);
+		assertEquals(2, cache.getMisses());
+		assertFalse(Arrays.stream(third.getPath()).anyMatch(vertex -> vertex == blocked));
+		assertEquals(new AStar(map, true).findPath(start, goal).getCost(), third.getCost(),
+				JumpPointSearchTest.EPSILON);
+	}
+
+	/**
+	 * On a map where corners cannot be cut, a wall next to a diagonal move of a cached path blocks it.
+	 */
+	@Test
+	void wallBesideDiagonalMisses() {
+		GridMap map = new GridMap(6, 6, false);
+		int start = map.index(0, 0);
+		int goal = map.index(5, 5);
+		PathCache cache = new PathCache(map, 16).attach();
+		JumpPointSearch jps = new JumpPointSearch(map);
+		assertEquals(5 * Math.sqrt(2), cache.findPath(jps, start, goal).getCost(), JumpPointSearchTest.EPSILON);
+		// the path only holds its ends, the wall is beside the move from (2, 2) to (3, 3)
+		map.setWall(2, 3, true);
+		PathResult result = cache.findPath(jps, start, goal);
+		assertEquals(2, cache.getMisses());
+		assertEquals(new AStar(map, true).findPath(start, goal).getCost(), result.getCost(),
+				JumpPointSearchTest.EPSILON);
+	}
+
+	/**
+	 * A closed cache no longer listens to the map, and drops every entry once a wall changes, even one no path goes
+	 * near.
+	 */
+	@Test
+	void closedCacheDropsEverything() {
+		GridMap map = new GridMap(10, 10);
+		PathCache cache = new PathCache(map, 16).attach();
+		AStar astar = new AStar(map, true);
+		int start = map.index(0, 0);
+		int goal = map.index(0, 9);
+		cache.findPath(astar, start, goal);
+		cache.close();
+		cache.findPath(astar, start, goal);
+		assertEquals(1, cache.getHits());
+
+		map.setWall(9, 0, true);
+		cache.findPath(astar, start, goal);
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getInvalidations());
+		map.setWall(0, 5, true);
+		cache.attach();
+		assertEquals(0, cache.size());
+		assertEquals(new AStar(map, true).findPath(start, goal).getCost(), cache.findPath(astar, start, goal).getCost(),
+				JumpPointSearchTest.EPSILON);
+		assertEquals(2, cache.getInvalidations());
+	}
+
+	/**
+	 * Changing a path handed out by the cache leaves the cached one as it was.
+	 */
+	@Test
+	void handsOutCopies() {
+		GridMap map = new GridMap(10, 10);
+		PathCache cache = new PathCache(map, 16).attach();
+		AStar astar = new AStar(map, true);
+		int start = map.index(0, 0);
+		int goal = map.index(9, 4);
+		int[] expected = cache.findPath(astar, start, goal).getPath().clone();
+		cache.findPath(astar, start, goal).getPath()[1] = goal;
+		Arrays.fill(cache.findPath(astar, start, goal).getPath(), start);
+		assertArrayEquals(expected, cache.findPath(astar, start, goal).getPath());
+		assertEquals(3, cache.getHits());
+	}
+}
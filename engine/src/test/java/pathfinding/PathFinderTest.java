@@ -0,0 +1,222 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks engines sharing a search context, and how searches stop within their limits.
+ * @author ducda
+ *
+ */
+class PathFinderTest {
+	/**
+	 * Start of the queries run under limits.
+	 */
+	private static final int START = 2 * 100 + 2;
+	/**
+	 * Goal of the queries run under limits, across the map from the start.
+	 */
+	private static final int GOAL = 97 * 100 + 97;
+	/**
+	 * Open cell walled in on every side.
+	 */
+	private static final int ENCLOSED = 50 * 100 + 50;
+
+	/**
+	 * Engines taking turns on one context find the same paths, with the same counts, as engines with their own.
+	 */
+	@Test
+	void sharedContextMatchesOwnContexts() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 60, 90, 0.25, 7);
+		AStar owner = new AStar(map, true);
+		AStar backward = new AStar(map, true);
+		PathFinder[] shared = { owner, shared(new JumpPointSearch(map), owner),
+				new BidirectionalSearch(shared(new AStar(map, true), owner), backward, true),
+				new BidirectionalSearch(shared(new JumpPointSearch(map), owner),
+						shared(new JumpPointSearch(map), backward), false) };
+		PathFinder[] own = { new AStar(map, true), new JumpPointSearch(map),
+				new BidirectionalSearch(new AStar(map, true), new AStar(map, true), true),
+				new BidirectionalSearch(new JumpPointSearch(map), new JumpPointSearch(map), false) };
+		Random random = new Random(7);
+		for (int i = 0; i < 40; i++) {
+			int start = JumpPointSearchTest.openCell(map, random);
+			int goal = JumpPointSearchTest.openCell(map, random);
+			for (int e = 0; e < shared.length; e++) {
+				PathResult expected = own[e].findPath(start, goal);
+				PathResult actual = shared[e].findPath(start, goal);
+				assertEquals(expected.getCost(), actual.getCost(), JumpPointSearchTest.EPSILON);
+				SearchMetrics a = own[e].getLastMetrics();
+				SearchMetrics b = shared[e].getLastMetrics();
+				assertEquals(a.getExpanded(), b.getExpanded());
+				assertEquals(a.getHeapPushes(), b.getHeapPushes());
+				assertEquals(a.getHeapPops(), b.getHeapPops());
+				assertEquals(a.getHeapDecreaseKeys(), b.getHeapDecreaseKeys());
+			}
+		}
+	}
+
+	/**
+	 * A context cannot be shared with an engine on a map of another size.
+	 */
+	@Test
+	void refusesContextOfOtherSize() {
+		AStar owner = new AStar(new GridMap(10, 10), true);
+		AStar other = new AStar(new GridMap(10, 11), true);
+		assertThrows(IllegalArgumentException.class, () -> other.shareContext(owner));
+	}
+
+	/**
+	 * An expansion cap stops every engine once it expanded that many nodes, with the best partial path from the
+	 * start.
+	 */
+	@Test
+	void expansionCapStopsSearch() {
+		GridMap map = limitsMap();
+		for (PathFinder finder : limitedEngines(map)) {
+			int before = expansionsBeforeFirstStep(finder);
+			assertEquals(SearchStatus.FOUND, finder.findPath(START, GOAL).getStatus(), finder.searchKey());
+			int full = finder.getExpansions();
+			long cap = before + (full - before) / 2;
+			finder.setLimits(new SearchLimits(cap, Long.MAX_VALUE, Integer.MAX_VALUE));
+			PathResult result = finder.findPath(START, GOAL);
+			assertPartial(finder, SearchStatus.BUDGET_EXCEEDED, result);
+			assertTrue(finder.getExpansions() <= cap, finder.searchKey());
+		}
+	}
+
+	/**
+	 * A timeout that has passed by the first check stops every engine before it expands anything.
+	 */
+	@Test
+	void timeoutStopsSearch() {
+		GridMap map = limitsMap();
+		for (PathFinder finder : limitedEngines(map)) {
+			int before = expansionsBeforeFirstStep(finder);
+			finder.setLimits(new SearchLimits(Long.MAX_VALUE, 1, Integer.MAX_VALUE));
+			PathResult result = finder.findPath(START, GOAL);
+			assertPartial(finder, SearchStatus.BUDGET_EXCEEDED, result);
+			assertEquals(before, finder.getExpansions(), finder.searchKey());
+		}
+	}
+
+	/**
+	 * An open list cap stops every engine before it reaches the goal.
+	 */
+	@Test
+	void openSizeCapStopsSearch() {
+		GridMap map = limitsMap();
+		for (PathFinder finder : limitedEngines(map)) {
+			assertEquals(SearchStatus.FOUND, finder.findPath(START, GOAL).getStatus(), finder.searchKey());
+			int full = finder.getExpansions();
+			finder.setLimits(new SearchLimits(Long.MAX_VALUE, Long.MAX_VALUE, 8));
+			PathResult result = finder.findPath(START, GOAL);
+			assertPartial(finder, SearchStatus.BUDGET_EXCEEDED, result);
+			assertTrue(finder.getExpansions() < full, finder.searchKey());
+		}
+	}
+
+	/**
+	 * A token cancelled before the search begins stops every engine before it expands anything, and the next
+	 * search with a fresh token runs to the end.
+	 */
+	@Test
+	void cancelledTokenStopsSearch() {
+		GridMap map = limitsMap();
+		for (PathFinder finder : limitedEngines(map)) {
+			int before = expansionsBeforeFirstStep(finder);
+			CancelToken token = new CancelToken();
+			token.cancel();
+			finder.setCancelToken(token);
+			PathResult result = finder.findPath(START, GOAL);
+			assertPartial(finder, SearchStatus.CANCELLED, result);
+			assertEquals(before, finder.getExpansions(), finder.searchKey());
+			finder.setCancelToken(new CancelToken());
+			assertEquals(SearchStatus.FOUND, finder.findPath(START, GOAL).getStatus(), finder.searchKey());
+		}
+	}
+
+	/**
+	 * A goal walled in on every side is unreachable, within limits or without.
+	 */
+	@Test
+	void enclosedGoalIsUnreachable() {
+		GridMap map = limitsMap();
+		for (PathFinder finder : limitedEngines(map)) {
+			PathResult result = finder.findPath(START, ENCLOSED);
+			assertEquals(SearchStatus.UNREACHABLE, result.getStatus(), finder.searchKey());
+			assertEquals(0, result.getPath().length, finder.searchKey());
+			assertEquals(Double.POSITIVE_INFINITY, result.getCost(), finder.searchKey());
+			finder.setLimits(new SearchLimits(1_000_000, Long.MAX_VALUE, Integer.MAX_VALUE));
+			assertEquals(SearchStatus.UNREACHABLE, finder.findPath(START, ENCLOSED).getStatus(), finder.searchKey());
+		}
+	}
+
+	/**
+	 * Build the 100 by 100 map the queries under limits run on.
+	 * @return the map, with {@link #START} and {@link #GOAL} open and {@link #ENCLOSED} walled in
+	 */
+	private static GridMap limitsMap() {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 100, 100, 0.2, 11);
+		map.setWall(map.row(START), map.col(START), false);
+		map.setWall(map.row(GOAL), map.col(GOAL), false);
+		for (int row = 49; row <= 51; row++) {
+			for (int col = 49; col <= 51; col++) {
+				map.setWall(row, col, row != 50 || col != 50);
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Get the engines whose limits are checked.
+	 * @param map map to search
+	 * @return A*, JPS, bidirectional A* and JPS, and HPA*
+	 */
+	private static PathFinder[] limitedEngines(GridMap map) {
+		return new PathFinder[] { new AStar(map, true), new JumpPointSearch(map),
+				new BidirectionalSearch(new AStar(map, true), new AStar(map, true), true),
+				new BidirectionalSearch(new JumpPointSearch(map), new JumpPointSearch(map), false),
+				new HierarchicalSearch(new ClusterGraph(map, 16, true)) };
+	}
+
+	/**
+	 * Get the number of nodes an engine expands before its first step, linking the start and goal for HPA*.
+	 * @param finder engine to check
+	 * @return number of expansions
+	 */
+	private static int expansionsBeforeFirstStep(PathFinder finder) {
+		finder.begin(START, GOAL);
+		return finder.getExpansions();
+	}
+
+	/**
+	 * Check the result of a search that was stopped: its status, and a partial path that starts at the start.
+	 * @param finder engine that ran the search
+	 * @param status expected status
+	 * @param result result of the search
+	 */
+	private static void assertPartial(PathFinder finder, SearchStatus status, PathResult result) {
+		assertEquals(status, result.getStatus(), finder.searchKey());
+		assertEquals(status, finder.getLastMetrics().getStatus(), finder.searchKey());
+		assertFalse(result.isComplete(), finder.searchKey());
+		assertTrue(result.getPath().length > 0, finder.searchKey());
+		assertEquals(START, result.getPath()[0], finder.searchKey());
+	}
+
+	/**
+	 * Make an engine search with the context of another.
+	 * @param engine engine to set up
+	 * @param owner engine whose context it uses
+	 * @return the engine
+	 */
+	private static PathFinder shared(PathFinder engine, PathFinder owner) {
+		engine.shareContext(owner);
+		return engine;
+	}
+}
@@ -0,0 +1,173 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the counters, latency histogram and JMX registration of search stats fed known metrics.
+ * @author ducda
+ *
+ */
+class SearchStatsTest {
+	/**
+	 * Tolerance of latencies compared in microseconds.
+	 */
+	private static final double EPSILON = 1e-9;
+
+	/**
+	 * Counters add up the metrics of every search, split by status.
+	 */
+	@Test
+	void countsSearches() {
+		SearchStats stats = new SearchStats();
+		stats.searchFinished(metrics(SearchStatus.FOUND, 1000, 10));
+		stats.searchFinished(metrics(SearchStatus.FOUND, 1000, 20));
+		stats.searchFinished(metrics(SearchStatus.UNREACHABLE, 1000, 30));
+		stats.searchFinished(metrics(SearchStatus.BUDGET_EXCEEDED, 1000, 40));
+		stats.searchFinished(metrics(SearchStatus.CANCELLED, 1000, 50));
+		assertEquals(5, stats.getSearches());
+		assertEquals(2, stats.getFound());
+		assertEquals(1, stats.getUnreachable());
+		assertEquals(1, stats.getBudgetExceeded());
+		assertEquals(1, stats.getCancelled());
+		assertEquals(150, stats.getExpanded());
+		assertEquals(300, stats.getGenerated());
+		assertEquals(450, stats.getHeapPushes());
+		assertEquals(600, stats.getHeapPops());
+		assertEquals(750, stats.getHeapDecreaseKeys());
+		assertEquals(900, stats.getJumpCalls());
+		assertEquals(1050, stats.getCellsScanned());
+		assertEquals(1.0, stats.getMeanLatencyMicros(), EPSILON);
+	}
+
+	/**
+	 * Each latency goes in the bucket of its bit length, negative ones in the first.
+	 */
+	@Test
+	void bucketsByBitLength() {
+		SearchStats stats = new SearchStats();
+		long[] nanos = { -5, 0, 1, 2, 3, 1023, 1024, Long.MAX_VALUE };
+		for (long n : nanos) {
+			stats.searchFinished(metrics(SearchStatus.FOUND, n, 0));
+		}
+		long[] expected = new long[64];
+		expected[0] = 2;
+		expected[1] = 1;
+		expected[2] = 2;
+		expected[10] = 1;
+		expected[11] = 1;
+		expected[63] = 1;
+		assertArrayEquals(expected, stats.getLatencyHistogram());
+	}
+
+	/**
+	 * Percentiles are the upper bound of the bucket holding their rank, capped by the max.
+	 */
+	@Test
+	void percentilesAreUpperBounds() {
+		SearchStats stats = new SearchStats();
+		assertEquals(0, stats.getP50LatencyMicros());
+		assertEquals(0, stats.getMeanLatencyMicros());
+		for (int i = 0; i < 98; i++) {
+			stats.searchFinished(metrics(SearchStatus.FOUND, 1000, 0));
+		}
+		stats.searchFinished(metrics(SearchStatus.FOUND, 5000, 0));
+		stats.searchFinished(metrics(SearchStatus.FOUND, 1_000_000, 0));
+		// 1000 ns falls in [512, 1023], 5000 ns in [4096, 8191]
+		assertEquals(1.023, stats.getP50LatencyMicros(), EPSILON);
+		assertEquals(1.023, stats.getP90LatencyMicros(), EPSILON);
+		assertEquals(8.191, stats.getP99LatencyMicros(), EPSILON);
+		assertEquals(1000.0, stats.getMaxLatencyMicros(), EPSILON);
+		assertEquals(11.03, stats.getMeanLatencyMicros(), EPSILON);
+
+		SearchStats single = new SearchStats();
+		single.searchFinished(metrics(SearchStatus.FOUND, 1000, 0));
+		assertEquals(1.0, single.getP99LatencyMicros(), EPSILON);
+		SearchStats instant = new SearchStats();
+		instant.searchFinished(metrics(SearchStatus.FOUND, 0, 0));
+		assertEquals(0, instant.getP50LatencyMicros());
+	}
+
+	/**
+	 * Reset sets every counter, bucket and the max back to 0.
+	 */
+	@Test
+	void resetClearsEverything() {
+		SearchStats stats = new SearchStats();
+		stats.searchFinished(metrics(SearchStatus.FOUND, 5000, 7));
+		stats.searchFinished(metrics(SearchStatus.CANCELLED, 9000, 7));
+		stats.reset();
+		assertEquals(0, stats.getSearches());
+		assertEquals(0, stats.getFound());
+		assertEquals(0, stats.getCancelled());
+		assertEquals(0, stats.getExpanded());
+		assertEquals(0, stats.getGenerated());
+		assertEquals(0, stats.getHeapPushes());
+		assertEquals(0, stats.getHeapPops());
+		assertEquals(0, stats.getHeapDecreaseKeys());
+		assertEquals(0, stats.getJumpCalls());
+		assertEquals(0, stats.getCellsScanned());
+		assertEquals(0, stats.getMeanLatencyMicros());
+		assertEquals(0, stats.getP99LatencyMicros());
+		assertEquals(0, stats.getMaxLatencyMicros());
+		assertArrayEquals(new long[64], stats.getLatencyHistogram());
+
+		stats.searchFinished(metrics(SearchStatus.FOUND, 1000, 1));
+		assertEquals(1, stats.getSearches());
+		assertEquals(1.0, stats.getMaxLatencyMicros(), EPSILON);
+	}
+
+	/**
+	 * Names with characters reserved by object names are quoted, and a name cannot be registered twice.
+	 * @throws JMException if the test cannot unregister the stats
+	 */
+	@Test
+	void registerQuotesName() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		SearchStats stats = new SearchStats();
+		String name = "test,app=1:\"x\"*";
+		ObjectName objectName = stats.register(name);
+		try {
+			assertEquals("pathfinding", objectName.getDomain());
+			assertEquals("SearchStats", objectName.getKeyProperty("type"));
+			assertEquals(name, ObjectName.unquote(objectName.getKeyProperty("name")));
+			assertTrue(server.isRegistered(objectName));
+			stats.searchFinished(metrics(SearchStatus.FOUND, 1000, 3));
+			assertEquals(3L, server.getAttribute(objectName, "Expanded"));
+			assertThrows(IllegalStateException.class, () -> new SearchStats().register(name));
+		} finally {
+			server.unregisterMBean(objectName);
+		}
+	}
+
+	/**
+	 * Make the metrics of a search.
+	 * @param status how the search ended
+	 * @param nanos time of the search
+	 * @param expanded number of nodes expanded, the other counters are multiples of it
+	 * @return metrics of the search
+	 */
+	private static SearchMetrics metrics(SearchStatus status, long nanos, long expanded) {
+		SearchMetrics metrics = new SearchMetrics("test");
+		metrics.status = status;
+		metrics.wallNanos = nanos;
+		metrics.expanded = expanded;
+		metrics.generated = 2 * expanded;
+		metrics.heapPushes = 3 * expanded;
+		metrics.heapPops = 4 * expanded;
+		metrics.heapDecreaseKeys = 5 * expanded;
+		metrics.jumpCalls = 6 * expanded;
+		metrics.cellsScanned = 7 * expanded;
+		return metrics;
+	}
+}
@@ -0,0 +1,82 @@
+package pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that traces read back are the ones saved.
+ * @author ducda
+ *
+ */
+class SearchTraceTest {
+	/**
+	 * Directory the trace files are written to.
+	 */
+	@TempDir
+	Path dir;
+
+	/**
+	 * A trace larger than the buffer it goes through reads back event by event.
+	 * @throws IOException if a trace file cannot be written or read
+	 */
+	@Test
+	void readsBackTrace() throws IOException {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.OPEN, 200, 300, 0.3, 5);
+		map.setWall(1, 1, false);
+		map.setWall(198, 298, false);
+		SearchTrace trace = SearchTrace.record(new AStar(map, true), map.index(1, 1), map.index(198, 298));
+		// more than a buffer of events, so saving and loading both refill it
+		assertTrue(trace.size() > 1 << 14);
+		Path file = dir.resolve("rooms.trace");
+		trace.save(file);
+		SearchTrace loaded = SearchTrace.load(file);
+
+		assertEquals(trace.getRows(), loaded.getRows());
+		assertEquals(trace.getCols(), loaded.getCols());
+		assertEquals(trace.getSearchKey(), loaded.getSearchKey());
+		assertEquals(trace.getStart(), loaded.getStart());
+		assertEquals(trace.getGoal(), loaded.getGoal());
+		assertEquals(trace.getWallNanos(), loaded.getWallNanos());
+		assertEquals(trace.opensJumpPoints(), loaded.opensJumpPoints());
+		for (int vertex = 0; vertex < map.size(); vertex++) {
+			assertEquals(trace.isWall(vertex), loaded.isWall(vertex));
+		}
+		assertEquals(trace.size(), loaded.size());
+		for (int i = 0; i < trace.size(); i++) {
+			assertEquals(trace.event(i), loaded.event(i));
+			assertEquals(trace.vertex(i), loaded.vertex(i));
+			assertEquals(trace.parent(i), loaded.parent(i));
+		}
+		PathResult result = trace.result();
+		PathResult loadedResult = loaded.result();
+		assertEquals(result.getStatus(), loadedResult.getStatus());
+		assertEquals(result.getCost(), loadedResult.getCost());
+		assertArrayEquals(result.getPath(), loadedResult.getPath());
+	}
+
+	/**
+	 * A trace file cut short is refused rather than read past its end.
+	 * @throws IOException if a trace file cannot be written or cut
+	 */
+	@Test
+	void refusesTruncatedTrace() throws IOException {
+		GridMap map = MapGenerator.generate(MapGenerator.Style.MAZE, 40, 60, 0.3, 8);
+		SearchTrace trace = SearchTrace.record(new JumpPointSearch(map), map.index(1, 1), map.index(38, 58));
+		Path file = dir.resolve("maze.trace");
+		trace.save(file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 8);
+		}
+		assertThrows(IOException.class, () -> SearchTrace.load(file));
+	}
+}
@@ -0,0 +1,324 @@
+package application;
+
+import java.util.Arrays;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Arrows from jump points to their successors, drawn on one canvas over a {@link GridRenderer}. Edges are looked up
+ * by (parent, child) in an open addressing table keyed by a long, so highlighting the edges of a path costs O(1)
+ * each. Slots are stamped with a generation, like {@link pathfinding.SearchContext}, so clearing every edge only
+ * bumps the generation.
+ * <p>
+ * New and newly highlighted edges are drawn once per pulse, all the plain ones as a single path and all the
+ * highlighted ones as another. A pan or zoom draws every edge again, except those out of view. The arrow heads
+ * follow the Arrow gist by kn0412.
+ * @author ducda
+ *
+ */
+public class ArrowLayer extends Canvas {
+	/**
+	 * Size of an arrow head in pixels at the largest zoom.
+	 */
+	private static final double HEAD_SIZE = 16;
+	/**
+	 * Color of an edge.
+	 */
+	private static final Color EDGE = Color.GRAY;
+	/**
+	 * Color of a highlighted edge.
+	 */
+	private static final Color HIGHLIGHT = Color.GOLDENROD;
+	/**
+	 * Grid the arrows are drawn over.
+	 */
+	private final GridRenderer grid;
+	/**
+	 * Key of the edge in each slot.
+	 */
+	private long[] keys = new long[64];
+	/**
+	 * Index of the edge in each slot.
+	 */
+	private int[] slots = new int[64];
+	/**
+	 * Generation in which each slot was written.
+	 */
+	private int[] stamps = new int[64];
+	/**
+	 * Generation of the current edges.
+	 */
+	private int generation = 1;
+	/**
+	 * Parent cell of each edge.
+	 */
+	private int[] from = new int[32];
+	/**
+	 * Child cell of each edge.
+	 */
+	private int[] to = new int[32];
+	/**
+	 * Whether each edge is highlighted.
+	 */
+	private boolean[] highlighted = new boolean[32];
+	/**
+	 * Number of edges.
+	 */
+	private int size;
+	/**
+	 * Edges to draw on the next pulse.
+	 */
+	private int[] pending = new int[32];
+	/**
+	 * Number of edges to draw.
+	 */
+	private int pendingCount;
+	/**
+	 * Whether the canvas has to be cleared and every edge drawn again.
+	 */
+	private boolean redraw;
+
+	/**
+	 * Constructor.
+	 * @param grid grid the arrows are drawn over
+	 */
+	public ArrowLayer(GridRenderer grid) {
+		super(grid.getWidth(), grid.getHeight());
+		this.grid = grid;
+		setMouseTransparent(true);
+		new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				paint();
+			}
+		}.start();
+	}
+
+	/**
+	 * Add an edge, if it is not there yet.
+	 * @param parent cell the arrow starts from
+	 * @param child cell the arrow points to
+	 */
+	public void add(int parent, int child) {
+		index(parent, child);
+	}
+
+	/**
+	 * Highlight an edge, adding it if it is not there yet.
+	 * @param parent cell the arrow starts from
+	 * @param child cell the arrow points to
+	 */
+	public void highlight(int parent, int child) {
+		int oldSize = size;
+		int edge = index(parent, child);
+		if (!highlighted[edge]) {
+			highlighted[edge] = true;
+			if (size == oldSize) {
+				// a new edge is already queued, and gets drawn highlighted
+				queue(edge);
+			}
+		}
+	}
+
+	/**
+	 * Draw every edge again on the next pulse, after a pan or zoom.
+	 */
+	public void viewChanged() {
+		pendingCount = 0;
+		redraw = true;
+	}
+
+	/**
+	 * Remove every edge.
+	 */
+	public void clear() {
+		size = 0;
+		pendingCount = 0;
+		redraw = true;
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			// stamps would wrap around, clear them once
+			Arrays.fill(stamps, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Get the index of an edge, adding it if it is not there yet.
+	 * @param parent cell the arrow starts from
+	 * @param child cell the arrow points to
+	 * @return edge index
+	 */
+	private int index(int parent, int child) {
+		long key = (long) parent << 32 | child;
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (stamps[slot] == generation) {
+			if (keys[slot] == key) {
+				return slots[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (size == from.length) {
+			from = Arrays.copyOf(from, size * 2);
+			to = Arrays.copyOf(to, size * 2);
+			highlighted = Arrays.copyOf(highlighted, size * 2);
+		}
+		int edge = size++;
+		from[edge] = parent;
+		to[edge] = child;
+		highlighted[edge] = false;
+		keys[slot] = key;
+		slots[slot] = edge;
+		stamps[slot] = generation;
+		if (size * 2 > keys.length) {
+			// keep the table at most half full
+			rehash(keys.length * 2);
+		}
+		queue(edge);
+		return edge;
+	}
+
+	/**
+	 * Move every edge to a larger table.
+	 * @param capacity number of slots, a power of two
+	 */
+	private void rehash(int capacity) {
+		keys = new long[capacity];
+		slots = new int[capacity];
+		stamps = new int[capacity];
+		generation = 1;
+		int mask = capacity - 1;
+		for (int edge = 0; edge < size; edge++) {
+			long key = (long) from[edge] << 32 | to[edge];
+			int slot = hash(key) & mask;
+			while (stamps[slot] == generation) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			slots[slot] = edge;
+			stamps[slot] = generation;
+		}
+	}
+
+	/**
+	 * Spread the bits of a key.
+	 * @param key edge key
+	 * @return hash
+	 */
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Draw an edge on the next pulse.
+	 * @param edge edge index
+	 */
+	private void queue(int edge) {
+		if (redraw) {
+			return;
+		}
+		if (pendingCount == pending.length) {
+			pending = Arrays.copyOf(pending, pendingCount * 2);
+		}
+		pending[pendingCount++] = edge;
+	}
+
+	/**
+	 * Draw the pending edges, or every edge after a clear.
+	 */
+	private void paint() {
+		if (!redraw && pendingCount == 0) {
+			return;
+		}
+		GraphicsContext gc = getGraphicsContext2D();
+		if (redraw) {
+			gc.clearRect(0, 0, getWidth(), getHeight());
+			if (pending.length < size) {
+				pending = new int[size];
+			}
+			for (int edge = 0; edge < size; edge++) {
+				pending[edge] = edge;
+			}
+			pendingCount = size;
+			redraw = false;
+		}
+		// highlighted edges go last, over the plain ones
+		double head = HEAD_SIZE * grid.getCellSize() / GridRenderer.MAX_CELL_SIZE;
+		draw(gc, false, EDGE, 1, head);
+		draw(gc, true, HIGHLIGHT, 2, head);
+		pendingCount = 0;
+	}
+
+	/**
+	 * Draw the pending edges of one kind as a single path.
+	 * @param gc graphics context of the canvas
+	 * @param isHighlighted kind of edges to draw
+	 * @param color color of the edges
+	 * @param width width of the lines
+	 * @param head size of the arrow heads
+	 */
+	private void draw(GraphicsContext gc, boolean isHighlighted, Color color, double width, double head) {
+		gc.beginPath();
+		boolean any = false;
+		for (int i = 0; i < pendingCount; i++) {
+			int edge = pending[i];
+			if (highlighted[edge] == isHighlighted && isVisible(edge)) {
+				appendArrow(gc, edge, head);
+				any = true;
+			}
+		}
+		if (any) {
+			gc.setFill(color);
+			gc.setStroke(color);
+			gc.setLineWidth(width);
+			gc.fill();
+			gc.stroke();
+		}
+	}
+
+	/**
+	 * Whether some of an edge may be in view.
+	 * @param edge edge index
+	 * @return false if the box around its ends is out of the viewport, true otherwise
+	 */
+	private boolean isVisible(int edge) {
+		double x1 = grid.centerX(from[edge]);
+		double y1 = grid.centerY(from[edge]);
+		double x2 = grid.centerX(to[edge]);
+		double y2 = grid.centerY(to[edge]);
+		double margin = grid.getCellSize();
+		return Math.max(x1, x2) >= -margin && Math.min(x1, x2) <= getWidth() + margin
+				&& Math.max(y1, y2) >= -margin && Math.min(y1, y2) <= getHeight() + margin;
+	}
+
+	/**
+	 * Add the line and head of an arrow to the current path.
+	 * @param gc graphics context of the canvas
+	 * @param edge edge index
+	 * @param head size of the arrow head
+	 */
+	private void appendArrow(GraphicsContext gc, int edge, double head) {
+		double startX = grid.centerX(from[edge]);
+		double startY = grid.centerY(from[edge]);
+		double endX = grid.centerX(to[edge]);
+		double endY = grid.centerY(to[edge]);
+		gc.moveTo(startX, startY);
+		gc.lineTo(endX, endY);
+		double angle = Math.atan2((endY - startY), (endX - startX)) - Math.PI / 2.0;
+		double sin = Math.sin(angle);
+		double cos = Math.cos(angle);
+		double x1 = (-1.0 / 2.0 * cos + Math.sqrt(3) / 2 * sin) * head + endX;
+		double y1 = (-1.0 / 2.0 * sin - Math.sqrt(3) / 2 * cos) * head + endY;
+		double x2 = (1.0 / 2.0 * cos + Math.sqrt(3) / 2 * sin) * head + endX;
+		double y2 = (1.0 / 2.0 * sin - Math.sqrt(3) / 2 * cos) * head + endY;
+		gc.moveTo(endX, endY);
+		gc.lineTo(x1, y1);
+		gc.lineTo(x2, y2);
+		gc.closePath();
+	}
+}
@@ -0,0 +1,208 @@
+package application;
+
+import java.util.Arrays;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.effect.Glow;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.shape.Shape;
+import javafx.util.Duration;
+import pathfinding.GridMap;
+
+/**
+ * Direction glyphs of a path, drawn on one canvas over a {@link GridRenderer}. The 8 glyphs of {@link SVGGenerator}
+ * are rasterized once and then only copied, and the whole layer glows with a single effect and a single animation,
+ * however long the path is. Glyphs are scaled with the zoom and left out once cells get too small to hold them.
+ * @author ducda
+ *
+ */
+public class GlyphLayer extends Canvas {
+	/**
+	 * Fill of a glyph.
+	 */
+	private static final String FILL = "linear-gradient(from 0% 0% to 100% 100%, repeat, #fffff0, #ffff00)";
+	/**
+	 * Outline of a glyph.
+	 */
+	private static final Color STROKE = Color.web("#ffff00");
+	/**
+	 * Side of a cell in pixels from which glyphs are drawn.
+	 */
+	private static final double MIN_CELL_SIZE = 8;
+	/**
+	 * Glyph of each direction, by {@link GridMap} direction index, rasterized on first use.
+	 */
+	private static Image[] images;
+	/**
+	 * Grid the glyphs are drawn over.
+	 */
+	private final GridRenderer grid;
+	/**
+	 * Direction index + 1 of the glyph on each cell, 0 for none.
+	 */
+	private byte[] dirs = new byte[0];
+	/**
+	 * Cells a glyph was set on since the last clear.
+	 */
+	private int[] cells = new int[64];
+	/**
+	 * Number of cells a glyph was set on.
+	 */
+	private int count;
+	/**
+	 * Glow of every glyph.
+	 */
+	private final Glow glow = new Glow(0.0);
+	/**
+	 * Animation of the glow.
+	 */
+	private final Timeline pulse;
+
+	/**
+	 * Constructor.
+	 * @param grid grid the glyphs are drawn over
+	 */
+	public GlyphLayer(GridRenderer grid) {
+		super(grid.getWidth(), grid.getHeight());
+		this.grid = grid;
+		setMouseTransparent(true);
+		setEffect(glow);
+		pulse = new Timeline(new KeyFrame(Duration.ZERO, new KeyValue(glow.levelProperty(), 0.0)),
+				new KeyFrame(Duration.millis(1000), new KeyValue(glow.levelProperty(), 0.9)));
+		pulse.setAutoReverse(true);
+		pulse.setCycleCount(Timeline.INDEFINITE);
+	}
+
+	/**
+	 * Remove every glyph and hold the glyphs of a grid with another number of cells.
+	 * @param size number of cells of the grid
+	 */
+	public void setGrid(int size) {
+		dirs = new byte[size];
+		count = 0;
+		redraw();
+		stopGlow();
+	}
+
+	/**
+	 * Draw the glyph of a move on the cell it starts from.
+	 * @param cell cell the move starts from
+	 * @param dir direction index of the move
+	 */
+	public void set(int cell, int dir) {
+		remove(cell);
+		dirs[cell] = (byte) (dir + 1);
+		if (count == cells.length) {
+			cells = Arrays.copyOf(cells, count * 2);
+		}
+		cells[count++] = cell;
+		draw(cell);
+	}
+
+	/**
+	 * Remove the glyph on a cell, if there is one.
+	 * @param cell cell id
+	 */
+	public void remove(int cell) {
+		if (dirs[cell] != 0) {
+			dirs[cell] = 0;
+			double size = grid.getCellSize();
+			getGraphicsContext2D().clearRect(grid.centerX(cell) - size / 2, grid.centerY(cell) - size / 2, size,
+					size);
+		}
+	}
+
+	/**
+	 * Remove every glyph and stop the glow.
+	 */
+	public void clear() {
+		for (int i = 0; i < count; i++) {
+			dirs[cells[i]] = 0;
+		}
+		count = 0;
+		getGraphicsContext2D().clearRect(0, 0, getWidth(), getHeight());
+		stopGlow();
+	}
+
+	/**
+	 * Draw every glyph in view again, after a pan or zoom.
+	 */
+	public void redraw() {
+		getGraphicsContext2D().clearRect(0, 0, getWidth(), getHeight());
+		for (int i = 0; i < count; i++) {
+			draw(cells[i]);
+		}
+	}
+
+	/**
+	 * Draw the glyph on a cell, if it has one, it is in view and cells are large enough.
+	 * @param cell cell id
+	 */
+	private void draw(int cell) {
+		double size = grid.getCellSize();
+		if (dirs[cell] == 0 || size < MIN_CELL_SIZE || !grid.isVisible(cell)) {
+			return;
+		}
+		Image image = image(dirs[cell] - 1);
+		// drawn at the size it had on a 25 pixel tile
+		double scale = size / 25;
+		double width = Math.min(image.getWidth() * scale, size);
+		double height = Math.min(image.getHeight() * scale, size);
+		// centered on the cell, the way a tile centered it
+		getGraphicsContext2D().drawImage(image, grid.centerX(cell) - width / 2, grid.centerY(cell) - height / 2,
+				width, height);
+	}
+
+	/**
+	 * Start the glow.
+	 */
+	public void playGlow() {
+		pulse.play();
+	}
+
+	/**
+	 * Stop the glow and turn it off.
+	 */
+	public void stopGlow() {
+		pulse.stop();
+		glow.setLevel(0.0);
+	}
+
+	/**
+	 * Get the glyph of a direction, rasterizing all 8 the first time.
+	 * @param dir direction index
+	 * @return the glyph
+	 */
+	private static Image image(int dir) {
+		if (images == null) {
+			Shape[] shapes = new Shape[8];
+			shapes[GridMap.N] = SVGGenerator.upArrow();
+			shapes[GridMap.NE] = SVGGenerator.upRightArrow();
+			shapes[GridMap.E] = SVGGenerator.rightArrow();
+			shapes[GridMap.SE] = SVGGenerator.downRightArrow();
+			shapes[GridMap.S] = SVGGenerator.downArrow();
+			shapes[GridMap.SW] = SVGGenerator.downLeftArrow();
+			shapes[GridMap.W] = SVGGenerator.leftArrow();
+			shapes[GridMap.NW] = SVGGenerator.upLeftArrow();
+			SnapshotParameters params = new SnapshotParameters();
+			params.setFill(Color.TRANSPARENT);
+			Image[] rasterized = new Image[8];
+			for (int i = 0; i < 8; i++) {
+				// the layer glows as a whole
+				shapes[i].setEffect(null);
+				// the style sheet is not applied to a shape outside a scene
+				shapes[i].setFill(LinearGradient.valueOf(FILL));
+				shapes[i].setStroke(STROKE);
+				rasterized[i] = shapes[i].snapshot(params, null);
+			}
+			images = rasterized;
+		}
+		return images[dir];
+	}
+}
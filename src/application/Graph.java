@@ -1,1021 +1,1005 @@
-package application;
-
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.PriorityQueue;
-import java.util.Stack;
-
-import javafx.animation.Animation.Status;
-import javafx.animation.KeyFrame;
-import javafx.animation.KeyValue;
-import javafx.animation.ParallelTransition;
-import javafx.animation.Timeline;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
-import javafx.event.EventHandler;
-import javafx.scene.effect.Glow;
-import javafx.scene.image.ImageView;
-import javafx.scene.input.MouseButton;
-import javafx.scene.input.MouseEvent;
-import javafx.scene.layout.Pane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.shape.Shape;
-import javafx.util.Duration;
-/**
- * Graph.
- * @author ducda
- *
- */
-public class Graph extends Pane {
-	/**
-	 * Number of vertices in the graph.
-	 */
-	protected int numVertices = Main.NUM_COLS * Main.NUM_ROWS;
-	/**
-	 * Adjacency matrix.
-	 */
-	protected double[][] adjList;
-	/**
-	 * Actual Representation of the Grid.
-	 */
-	protected Tile[][] grid;
-	/**
-	 * Timeline object used to animate.
-	 */
-	protected Timeline timeline;
-	/**
-	 * Start location.
-	 */
-	protected Tile start;
-	/**
-	 * End location.
-	 */
-	protected Tile end;
-	/**
-	 * Whether or not the animation is done.
-	 */
-	private boolean isDone = false;
-	/**
-	 * Mouse Dragged Event.
-	 */
-	private EventHandler<? super MouseEvent> mouseDragged;
-	/**
-	 * Comparator used in algorithms to sort tiles based on their F score.
-	 */
-	private Comparator<Tile> cmp;
-	/**
-	 * Distance from start to other nodes.
-	 */
-	protected double cost[];
-	/**
-	 * Priority Queue.
-	 */
-	private PriorityQueue<Tile> pq;
-	/**
-	 * Used to traverse from end to start.
-	 */
-	private ArrayList<Tile> path;
-	/**
-	 * Change listener for Timeline used in A*.
-	 */
-	private ChangeListener<Status> cl;
-	/**
-	 * Change listener for Timeline used in JPS.
-	 */
-	private ChangeListener<Status> clJPS;
-	/**
-	 * Frame used for searching.
-	 */
-	private KeyFrame search;
-	/**
-	 * Frame used for showing path.
-	 */
-	private KeyFrame showPath;
-	/**
-	 * Glow effect.
-	 */
-	private ParallelTransition glow;
-	/**
-	 * Arrows used in JPS to show path.
-	 */
-	private ArrayList<Arrow> arrows;
-	/**
-	 * Stack used to traverse from end to start.
-	 */
-	private Stack<Tile> stackJPS;
-	
-	/**
-	 * Constructor.
-	 */
-	public Graph() {
-		numVertices = Main.NUM_COLS * Main.NUM_ROWS;
-		grid = new Tile[Main.NUM_ROWS][Main.NUM_COLS];
-		adjList = new double[numVertices][numVertices];
-
-		cmp = new Comparator<Tile>() {
-			public int compare(Tile o1, Tile o2) {
-				if (o1.estimated > o2.estimated) {
-					return 1;
-				} else if (o1.estimated < o2.estimated) {
-					return -1;
-				} else {
-					return 0;
-				}
-			}
-		};
-
-		this.setOnMouseDragged(e -> {
-			if (e.getPickResult().getIntersectedNode() instanceof ImageView) {
-				moveImageView(e);
-			}
-			if (e.getPickResult().getIntersectedNode() instanceof Rectangle) {
-				Rectangle border = (Rectangle) e.getPickResult().getIntersectedNode();
-				changeTile(border, e.getButton());
-			}
-		});
-		mouseDragged = this.getOnMouseDragged();
-		cl = new ChangeListener<Status>() {
-			public void changed(ObservableValue<? extends Status> observable, Status oldValue, Status newValue) {
-				if (oldValue == Status.RUNNING && newValue == Status.STOPPED) {
-					timeline.getKeyFrames().clear();
-					if (end.parent != null) {
-						Tile current = end;
-						while (current != null) {
-							path.add(current);
-							current = current.parent;
-						}
-						timeline.getKeyFrames().add(showPath);
-						timeline.play();
-					} else {
-						finished();
-					}
-				}
-			}
-		};
-		clJPS = new ChangeListener<Status>() {
-			public void changed(ObservableValue<? extends Status> observable, Status oldValue, Status newValue) {
-				if (oldValue == Status.RUNNING && newValue == Status.STOPPED) {
-					timeline.getKeyFrames().clear();
-					if (end.parent != null) {
-						stackJPS = new Stack<>();
-						Tile current = end;
-						while (current != null) {
-							stackJPS.push(current);
-							current = current.parent;
-						}
-						timeline.getKeyFrames().add(showPath);
-						timeline.play();
-					} else {
-						finished();
-					}
-				}
-			}
-		};
-
-	}
-
-	// Graph Operations
-	/**
-	 * Create adjacency matrix.
-	 */
-	public void createAdjList() {
-		for (int i = 0; i < Main.NUM_ROWS; i++) {
-			for (int j = 0; j < Main.NUM_COLS; j++) {
-				ArrayList<Tile> neighbors = getNeighbors(grid[i][j], true);
-				int currentPos = grid[i][j].row * Main.NUM_COLS + grid[i][j].col;
-				adjList[currentPos][currentPos] = 0;
-				for (Tile neighbor : neighbors) {
-					// each tile is numbered from left to right, from row 0 to the end.
-					int neighborPos = neighbor.row * Main.NUM_COLS + neighbor.col;
-					// diagonal
-					int diffRow = Math.abs(neighbor.row - grid[i][j].row);
-					int diffCol = Math.abs(neighbor.col - grid[i][j].col);
-					if (diffRow != 0 && diffCol != 0) {
-						adjList[currentPos][neighborPos] = Math.sqrt(2);
-					} else {
-						adjList[currentPos][neighborPos] = 1;
-					}
-				}
-			}
-		}
-	}
-	
-	/**
-	 * Get cost moving from v1 to v2.
-	 * @param v1 tile 1
-	 * @param v2 tile 2
-	 * @return movement cost
-	 */
-	private double getCost(Tile v1, Tile v2) {
-		int pos1 = v1.row * Main.NUM_COLS + v1.col;
-		int pos2 = v2.row * Main.NUM_COLS + v2.col;
-		return adjList[pos1][pos2];
-	}
-	/**
-	 * Get neighbors of current tile.
-	 * @param vertex current tile
-	 * @param diagonal whether to account for diagonal neighbors
-	 * @return list of neighbors
-	 */
-	private ArrayList<Tile> getNeighbors(Tile vertex, boolean diagonal) {
-		ArrayList<Tile> neighbors = new ArrayList<>();
-		int nextRow;
-		int nextCol;
-		boolean n = true;
-		boolean s = true;
-		boolean e = true;
-		boolean w = true;
-		int[] points = new int[] { -1, 0, 1, 0, 0, 1, 0, -1 };
-		for (int i = 0; i < points.length; i++) {
-			int row = vertex.row + points[i];
-			int col = vertex.col + points[++i];
-			if (row < 0 || col < 0 || row >= Main.NUM_ROWS || col >= Main.NUM_COLS) {
-				continue;
-			}
-			if (!grid[row][col].isWall) {
-				neighbors.add(grid[row][col]);
-			} else {
-				if (i == 1) {
-					n = false;
-				} else if (i == 3) {
-					s = false;
-				} else if (i == 5) {
-					e = false;
-				} else {
-					w = false;
-				}
-			}
-		}
-		if (diagonal) {
-			if (n || e) {
-				nextRow = vertex.row - 1;
-				nextCol = vertex.col + 1;
-				if (nextRow >= 0 && nextCol >= 0 && nextRow < Main.NUM_ROWS
-						&& nextCol < Main.NUM_COLS) {
-					if (!grid[nextRow][nextCol].isWall) {
-						neighbors.add(grid[nextRow][nextCol]);
-					}
-				}
-			}
-			if (e || s) {
-				nextRow = vertex.row + 1;
-				nextCol = vertex.col + 1;
-				if (nextRow >= 0 && nextCol >= 0 && nextRow < Main.NUM_ROWS
-						&& nextCol < Main.NUM_COLS) {
-					if (!grid[nextRow][nextCol].isWall) {
-						neighbors.add(grid[nextRow][nextCol]);
-					}
-				}
-			}
-			if (s || w) {
-				nextRow = vertex.row + 1;
-				nextCol = vertex.col - 1;
-				if (nextRow >= 0 && nextCol >= 0 && nextRow < Main.NUM_ROWS
-						&& nextCol < Main.NUM_COLS) {
-					if (!grid[nextRow][nextCol].isWall) {
-						neighbors.add(grid[nextRow][nextCol]);
-					}
-				}
-			}
-			if (w || n) {
-				nextRow = vertex.row - 1;
-				nextCol = vertex.col - 1;
-				if (nextRow >= 0 && nextCol >= 0 && nextRow < Main.NUM_ROWS
-						&& nextCol < Main.NUM_COLS) {
-					if (!grid[nextRow][nextCol].isWall) {
-						neighbors.add(grid[nextRow][nextCol]);
-					}
-				}
-			}
-		}
-		return neighbors;
-	}
-	
-	// User Interaction With Graph
-	/**
-	 * Move end and start locations around the grind. If the algorithms are done, whenever end or start locations are moved, run the current algorithm again.
-	 * @param e mouse event
-	 */
-	private void moveImageView(MouseEvent e) {
-		ImageView iv = (ImageView) e.getPickResult().getIntersectedNode();
-		iv.setOnDragDetected(e1 -> {
-			iv.startFullDrag();
-		});
-		for (int i = 0; i < Main.NUM_ROWS; i++) {
-			for (int j = 0; j < Main.NUM_COLS; j++) {
-				Tile current = grid[i][j];
-				if (current.getChildren().contains(Main.startImage) || current.getChildren().contains(Main.endImage)) {
-					continue;
-				}
-				current.setOnMouseDragEntered(e1 -> {
-					Tile parent = (Tile) iv.getParent();
-					parent.getChildren().remove(iv);
-					current.getChildren().add(iv);
-					if (current.isWall) {
-						changeCostNeighbors(current);
-					}
-					if (iv.equals(Main.startImage)) {
-						this.start = current;
-					} else {
-						this.end = current;
-					}
-					if (isDone) {
-						if (!Main.jps.isSelected()) {
-							this.aStarNoSteps();
-						} else {
-							this.jpsNoSteps();
-						}
-					}
-				});
-			}
-		}
-
-	}
-	/**
-	 * Change current tile into wall left mouse is pressed, into normal tile if right mouse is pressed.
-	 * @param border current tile
-	 * @param mb mouse button
-	 */
-	private void changeTile(Rectangle border, MouseButton mb) {
-		Tile parent = (Tile) border.getParent();
-		if (!parent.equals(start) && !parent.equals(end)) {
-			if (mb.equals(MouseButton.PRIMARY) && !parent.isWall) {
-				if (parent.getChildren().size() > 1) {
-					parent.getChildren().remove(parent.getChildren().size() - 1);
-				}
-				changeCostNeighbors(parent);
-			} else if (mb.equals(MouseButton.SECONDARY) && parent.isWall) {
-				changeCostNeighbors(parent);
-			}
-		}
-	}
-	
-	/**
-	 * Change color.
-	 * @param vertex current tile
-	 */
-	public void changeCostNeighbors(Tile vertex) {
-		if (!vertex.isWall) {
-			vertex.border.setFill(Color.DARKBLUE);
-			vertex.isWall = true;
-		} else {
-			vertex.border.setFill(Color.WHITE);
-			vertex.isWall = false;
-		}
-	}
-	// calculate heuristic cost (no diagonal movement allowed)
-	/**
-	 * Manhattan distance from current tile to end location.
-	 * @param current current tile
-	 * @return Manhattan distance
-	 */
-	private double heuristicCost(Tile current) {
-		double dx = Math.abs(current.col - end.col);
-		double dy = Math.abs(current.row - end.row);
-		return (dx + dy);
-	}
-
-
-
-	// set up before running
-	/**
-	 * Initialize objects used by algorithms.
-	 */
-	private void setUp() {
-		path = new ArrayList<>();
-		timeline = new Timeline();
-		cost = new double[numVertices];
-		pq = new PriorityQueue<>(cmp);
-
-		setUpCost(cost);
-		glow = new ParallelTransition();
-		this.setOnMouseDragged(null);
-		Main.startImage.setOnDragDetected(null);
-		Main.endImage.setOnDragDetected(null);
-		arrows = new ArrayList<>();
-	}
-
-	// clean up before running again.
-	/**
-	 * Clean up before running again.
-	 */
-	public void cleanUp() {
-		for (int i = 0; i < Main.NUM_ROWS; i++) {
-			for (int j = 0; j < Main.NUM_COLS; j++) {
-				Tile current = grid[i][j];
-				if (!current.isWall) {
-					current.border.setFill(Color.WHITE);
-				}
-				current.estimated = 0.0;
-				current.isVisited = false;
-				current.parent = null;
-			}
-		}
-		if(isDone) {
-			for (Tile current : path) {
-				// if the current node is not start or end, and it has not been turned into a
-				// wall
-				if (!current.equals(start) && !current.equals(end) && current.getChildren().size() > 1) {
-					current.getChildren().remove(current.getChildren().size() - 1);
-				}
-			}
-		}
-		if(arrows != null) {
-			this.getChildren().removeAll(arrows);
-		}
-		isDone = false;
-		if(glow != null) {
-			glow.stop();
-		}
-	}
-	private void finished() {
-		Main.button.setText("Run");
-		isDone = true;
-		Main.speed.setDisable(false);
-		Main.clearButton.setDisable(false);
-		this.setOnMouseDragged(mouseDragged);
-		System.out.println(cost[end.row * Main.NUM_COLS + end.col]);
-	}
-	
-	/**
-	 * Set up cost array.
-	 * @param cost cost array
-	 */
-	private void setUpCost(double[] cost) {
-		for (int i = 0; i < Main.NUM_ROWS; i++) {
-			for (int j = 0; j < Main.NUM_COLS; j++) {
-				int pos = grid[i][j].row * Main.NUM_COLS + grid[i][j].col;
-				if (grid[i][j].equals(start)) {
-					cost[pos] = 0;
-				} else {
-					cost[pos] = Double.POSITIVE_INFINITY;
-				}
-			}
-		}
-	}
-	/**
-	 * Change color of current tile.
-	 * @param current current tile
-	 * @param isPath whether this tile is on the path or not
-	 */
-	private void changeColor(Tile current, boolean isPath) {
-		if (!isPath) {
-			if (current.isVisited) {
-				current.border.setFill(Color.DARKSEAGREEN);
-			} else {
-				current.border.setFill(Color.ORANGERED);
-			}
-		} else {
-			current.border.setFill(Color.BLACK);
-		}
-
-	}
-	/**
-	 * Direction of next tile from current tile
-	 * @param current current tile
-	 * @param next next tile
-	 */
-	private void direction(Tile current, Tile next) {
-		if (current.equals(start)) {
-			return;
-		}
-		Shape svg;
-		int diffRow = next.row - current.row;
-		int diffCol = next.col - current.col;
-		if (diffRow == -1 && diffCol == 1) {
-			// up right
-			svg = SVGGenerator.upRightArrow();
-			current.getChildren().add(svg);
-		} else if (diffRow == -1 && diffCol == -1) {
-			// up left
-			svg = SVGGenerator.upLeftArrow();
-			current.getChildren().add(svg);
-		} else if (diffRow == 1 && diffCol == 1) {
-			// down right
-			svg = SVGGenerator.downRightArrow();
-			current.getChildren().add(svg);
-		} else if (diffRow == 1 && diffCol == -1) {
-			// down left
-			svg = SVGGenerator.downLeftArrow();
-			current.getChildren().add(svg);
-		} else if (diffRow == -1 && diffCol == 0) {
-			// up
-			svg = SVGGenerator.upArrow();
-			current.getChildren().add(svg);
-		} else if (diffRow == 1 && diffCol == 0) {
-			// down
-			svg = SVGGenerator.downArrow();
-			current.getChildren().add(svg);
-		} else if (diffRow == 0 && diffCol == 1) {
-			// right
-			svg = SVGGenerator.rightArrow();
-			current.getChildren().add(svg);
-		} else {
-			// left
-			svg = SVGGenerator.leftArrow();
-			current.getChildren().add(svg);
-		}
-		
-	}
-	/**
-	 * Create glow effect for SVG arrows.
-	 * @param current current tile
-	 */
-	private void glowEffect(Tile current) {
-		Glow g = (Glow) current.getChildren().get(current.getChildren().size() - 1).getEffect();
-		if (g != null) {
-			KeyFrame init = new KeyFrame(Duration.ZERO, new KeyValue(g.levelProperty(), g.getLevel()));
-			KeyFrame end = new KeyFrame(Duration.millis(1000), new KeyValue(g.levelProperty(), 0.9));
-			Timeline tl = new Timeline(init, end);
-			tl.setAutoReverse(true);
-			tl.setCycleCount(Timeline.INDEFINITE);
-			glow.getChildren().add(tl);
-		}
-	}
-	// a* with showing steps
-	/**
-	 * A* pathfinding with animation.
-	 * @param speed animation speed
-	 */
-	public void AStarSearch(double speed) {
-		if (isDone) {
-			cleanUp();
-		}
-		setUp();
-		pq.add(start);
-
-		start.isVisited = true;
-		search = new KeyFrame(Duration.millis(speed), t -> {
-			if (!pq.isEmpty()) {
-				Tile current = pq.poll();
-				changeColor(current, false);
-				if (current.equals(end)) {
-
-					timeline.stop();
-					return;
-				}
-				ArrayList<Tile> neighbors = getNeighbors(current, Main.diagonal.isSelected());
-				int currentPos = current.row * Main.NUM_COLS + current.col;
-				for (Tile neighbor : neighbors) {
-					double newCost = cost[currentPos] + getCost(current, neighbor);
-					int neighborPos = neighbor.row * Main.NUM_COLS + neighbor.col;
-					if (pq.contains(neighbor) && newCost < cost[neighborPos]) {
-						neighbor.isVisited = false;
-						pq.remove(neighbor);
-					}
-					if (!neighbor.isVisited && newCost < cost[neighborPos]) {
-						changeColor(neighbor, false);
-
-						cost[neighborPos] = newCost;
-						neighbor.estimated = newCost + heuristicCost(neighbor);
-						pq.add(neighbor);
-						neighbor.isVisited = true;
-						neighbor.parent = current;
-					}
-				}
-			} else {
-				timeline.stop();
-			}
-		});
-		showPath = new KeyFrame(Duration.millis(10), t -> {
-			if (!path.isEmpty()) {
-				Tile current = path.remove(path.size() - 1);
-				if (!current.equals(start)) {
-					direction(current.parent, current);
-					glowEffect(current.parent);
-				}
-
-				changeColor(current, true);
-				if (current.equals(end)) {
-					timeline.stop();
-					timeline.getKeyFrames().clear();
-					finished();
-					glow.play();
-				}
-			}
-
-		});
-		timeline.setCycleCount(Timeline.INDEFINITE);
-		timeline.getKeyFrames().addAll(search);
-		timeline.statusProperty().addListener(cl);
-	}
-	/**
-	 * A* no steps.
-	 */
-	public void aStarNoSteps() {
-		if (isDone) {
-			cleanUp();
-		}
-		setUp();
-		pq.add(start);
-
-		start.isVisited = true;
-		while (!pq.isEmpty()) {
-			Tile current = pq.poll();
-
-			changeColor(current, false);
-			if (current.equals(end)) {
-				break;
-			}
-			ArrayList<Tile> neighbors = getNeighbors(current, Main.diagonal.isSelected());
-			int currentPos = current.row * Main.NUM_COLS + current.col;
-			for (Tile neighbor : neighbors) {
-				double newCost = cost[currentPos] + getCost(current, neighbor);
-				int neighborPos = neighbor.row * Main.NUM_COLS + neighbor.col;
-				if (pq.contains(neighbor) && newCost < cost[neighborPos]) {
-					neighbor.isVisited = false;
-					pq.remove(neighbor);
-				}
-				if (!neighbor.isVisited && newCost < cost[neighborPos]) {
-					changeColor(neighbor, false);
-
-					cost[neighborPos] = newCost;
-					neighbor.estimated = newCost + heuristicCost(neighbor);
-					pq.add(neighbor);
-					neighbor.isVisited = true;
-					neighbor.parent = current;
-				}
-			}
-		}
-
-		if (end.parent != null) {
-			Tile current = end;
-			while (current != null) {
-				path.add(current);
-				current = current.parent;
-			}
-			for (int i = path.size() - 1; i >= 0; i--) {
-				current = path.get(i);
-				if (!current.equals(start)) {
-					direction(current.parent, current);
-					glowEffect(current.parent);
-				}
-				changeColor(current, true);
-			}
-			glow.play();
-		}
-		finished();
-	}
-
-
-
-
-
-	// Jump Point Search Section
-	/**
-	 * Check if moving from the current tile in a direction is possible
-	 * @param current current tile
-	 * @param dCol x-direction
-	 * @param dRow y-direction
-	 * @return true if it is possible, false otherwise
-	 */
-	private boolean isWalkable(Tile current, int dCol, int dRow) {
-		int col = current.col;
-		int row = current.row;
-
-		int nextCol = col + dCol;
-		int nextRow = row + dRow;
-
-		if (nextCol < 0 || nextCol >= Main.NUM_COLS) {
-			return false;
-		}
-
-		if (nextRow < 0 || nextRow >= Main.NUM_ROWS) {
-			return false;
-		}
-
-		if (dCol != 0 && dRow != 0) {
-			if (grid[nextRow][col].isWall && grid[row][nextCol].isWall) {
-				return false;
-			}
-			if (grid[nextRow][nextCol].isWall) {
-				return false;
-			}
-		} else if (dCol != 0) {
-			if (grid[row][nextCol].isWall) {
-				return false;
-			}
-		} else {
-			if (grid[nextRow][col].isWall) {
-				return false;
-			}
-		}
-		return true;
-	}
-	
-	/**
-	 * Get neighbors of current tile based on the direction from its parent to it.
-	 * @param current current tile
-	 * @return list of neighbors
-	 */
-	private ArrayList<Tile> prunedNeighbors(Tile current) {
-		if (current.equals(start)) {
-			return getNeighbors(current, true);
-		}
-		ArrayList<Tile> prunedNeighbors = new ArrayList<>();
-		int dCol = current.col - current.parent.col;
-		int dRow = current.row - current.parent.row;
-
-		if (dCol != 0 && dRow != 0) {
-			dCol = (int) (dCol * (Math.abs(1 / (double) dCol)));
-			dRow = (int) (dRow * (Math.abs(1 / (double) dRow)));
-			if (isWalkable(current, dCol, 0)) {
-				prunedNeighbors.add(grid[current.row][current.col + dCol]);
-			}
-			if (isWalkable(current, 0, dRow)) {
-				prunedNeighbors.add(grid[current.row + dRow][current.col]);
-			}
-			if (isWalkable(current, dCol, dRow)) {
-				prunedNeighbors.add(grid[current.row + dRow][current.col + dCol]);
-			}
-			if (!isWalkable(current, -dCol, 0) && isWalkable(current, 0, dRow)) {
-				prunedNeighbors.add(grid[current.row + dRow][current.col - dCol]);
-			}
-			if (!isWalkable(current, 0, -dRow) && isWalkable(current, dCol, 0)) {
-				prunedNeighbors.add(grid[current.row - dRow][current.col + dCol]);
-			}
-		} else {
-			if (dCol != 0) {
-				dCol = (int) (dCol * (Math.abs(1 / (double) dCol)));
-				if (isWalkable(current, dCol, 0)) {
-					if (isWalkable(current, dCol, 0)) {
-						prunedNeighbors.add(grid[current.row][current.col + dCol]);
-					}
-					if (!isWalkable(current, 0, 1) && isWalkable(current, dCol, 1)) {
-						prunedNeighbors.add(grid[current.row + 1][current.col + dCol]);
-					}
-					if (!isWalkable(current, 0, -1) && isWalkable(current, dCol, -1)) {
-						prunedNeighbors.add(grid[current.row - 1][current.col + dCol]);
-					}
-				}
-			} else {
-				dRow = (int) (dRow * (Math.abs(1 / (double) dRow)));
-				if (isWalkable(current, 0, dRow)) {
-					if (isWalkable(current, 0, dRow)) {
-						prunedNeighbors.add(grid[current.row + dRow][current.col]);
-					}
-					if (!isWalkable(current, 1, 0) && isWalkable(current, 1, dRow)) {
-						prunedNeighbors.add(grid[current.row + dRow][current.col + 1]);
-					}
-					if (!isWalkable(current, -1, 0) && isWalkable(current, -1, dRow)) {
-						prunedNeighbors.add(grid[current.row + dRow][current.col - 1]);
-					}
-				}
-			}
-
-		}
-		return prunedNeighbors;
-	}
-	/**
-	 * Jump to a next tile in a direction from current tile.
-	 * @param current current tile
-	 * @param dCol x-direction
-	 * @param dRow y-direction
-	 * @return
-	 */
-	private Tile jump(Tile current, int dCol, int dRow) {
-		int nextCol = current.col + dCol;
-		int nextRow = current.row + dRow;
-
-		if (!isWalkable(current, dCol, dRow)) {
-			return null;
-		}
-
-		if (grid[nextRow][nextCol].equals(end)) {
-			return grid[nextRow][nextCol];
-		}
-		// jump diagonally
-		if (dCol != 0 && dRow != 0) {
-			/*
-			 * o      
-			 * x c or   c 
-			 * p      p x o
-			 */
-			if ((!isWalkable(grid[nextRow][nextCol], -dCol, 0) && isWalkable(grid[nextRow][nextCol], -dCol, dRow))
-					|| (!isWalkable(grid[nextRow][nextCol], 0, -dRow)
-							&& isWalkable(grid[nextRow][nextCol], dCol, -dRow))) {
-				return grid[nextRow][nextCol];
-			}
-			Tile horSearch = jump(grid[nextRow][nextCol], dCol, 0);
-			Tile verSearch = jump(grid[nextRow][nextCol], 0, dRow);
-			if (horSearch != null || verSearch != null) {
-				return grid[nextRow][nextCol];
-			}
-		} else {
-			if (dCol != 0) {
-				/*
-				 * o x o
-				 * p c 
-				 * o x o
-				 */
-				if ((!isWalkable(grid[nextRow][nextCol], 0, 1) && isWalkable(grid[nextRow][nextCol], dCol, 1))
-						|| (!isWalkable(grid[nextRow][nextCol], 0, -1)
-								&& isWalkable(grid[nextRow][nextCol], dCol, -1))) {
-					return grid[nextRow][nextCol];
-				}
-
-			} else {
-				/*
-				 * o   o
-				 * x c x
-				 * o p o
-				 * 
-				 */
-				if ((!isWalkable(grid[nextRow][nextCol], 1, 0) && isWalkable(grid[nextRow][nextCol], 1, dRow))
-						|| (!isWalkable(grid[nextRow][nextCol], -1, 0)
-								&& isWalkable(grid[nextRow][nextCol], -1, dRow))) {
-					return grid[nextRow][nextCol];
-				}
-			}
-		}
-		return jump(grid[nextRow][nextCol], dCol, dRow);
-	}
-	/**
-	 * Indentify jump point successors of current tile.
-	 * @param current current tile
-	 * @return list of successors
-	 */
-	private ArrayList<Tile> identifySuccessors(Tile current) {
-		ArrayList<Tile> successors = new ArrayList<>();
-		ArrayList<Tile> prunedNeighbors = this.prunedNeighbors(current);
-		for (Tile pruned : prunedNeighbors) {
-			int dCol = pruned.col - current.col;
-			int dRow = pruned.row - current.row;
-			Tile successor = jump(current, dCol, dRow);
-			if (successor != null) {
-				successors.add(successor);
-			}
-		}
-		return successors;
-	}
-	/**
-	 * Get distance from current tile to its successor.
-	 * @param current current tile
-	 * @param successor successor of current tile
-	 * @return distance between current tile and its successor
-	 */
-	private double getDistance(Tile current, Tile successor) {
-		int dCol = current.col - successor.col;
-		int dRow = current.row - successor.row;
-
-		if (dCol != 0 && dRow != 0) {
-			return Math.abs(dCol) * Math.sqrt(2);
-		} else {
-			if (dCol != 0) {
-				return Math.abs(dCol);
-			} else {
-				return Math.abs(dRow);
-			}
-		}
-	}
-
-	// showing steps
-	/**
-	 * Jump point search with no steps.
-	 */
-	public void jpsNoSteps() {
-		if (isDone) {
-			cleanUp();
-		}
-		setUp();
-		start.estimated = 0 + heuristicCost(start);
-		pq.add(start);
-		while (!pq.isEmpty()) {
-			Tile current = pq.poll();
-
-			if (current.equals(end)) {
-				break;
-			}
-
-			current.isVisited = true;
-			changeColor(current, false);
-			for (Tile successor : this.identifySuccessors(current)) {
-				if (successor.isVisited) {
-					continue;
-				}
-				double newCost = cost[current.row * Main.NUM_COLS + current.col]
-						+ getDistance(current, successor);
-				if (newCost < cost[successor.row * Main.NUM_COLS + successor.col] || !pq.contains(successor)) {
-					successor.parent = current;
-					cost[successor.row * Main.NUM_COLS + successor.col] = newCost;
-					successor.estimated = newCost + heuristicCost(successor);
-					pq.add(successor);
-					drawPath(current, successor);
-					changeColor(successor, false);
-				}
-			}
-		}
-		if (end.parent != null) {
-			stackJPS = new Stack<>();
-			Tile current = end;
-			while (current != null) {
-				stackJPS.push(current);
-				current = current.parent;
-			}
-			while (!stackJPS.isEmpty()) {
-				current = stackJPS.pop();
-				if (current.parent != null) {
-					Arrow arrow = getArrow(current);
-					arrow.getStyleClass().remove(0);
-					arrow.setStrokeWidth(2);
-					arrow.setFill(Color.GOLDENROD);
-				}
-				changeColor(current, true);
-			}
-		}
-		finished();
-	}
-	/**
-	 * Jump point search with steps.
-	 * @param speed
-	 */
-	public void jps(double speed) {
-		if (isDone) {
-			cleanUp();
-		}
-		setUp();
-		start.estimated = 0 + heuristicCost(start);
-		pq.add(start);
-		search = new KeyFrame(Duration.millis(speed), t -> {
-			if (!pq.isEmpty()) {
-				Tile current = pq.poll();
-				if (current.equals(end)) {
-					timeline.stop();
-				}
-				current.isVisited = true;
-				changeColor(current, false);
-				for (Tile successor : this.identifySuccessors(current)) {
-					if (successor.isVisited) {
-						continue;
-					}
-					double newCost = cost[current.row * Main.NUM_COLS + current.col]
-							+ getDistance(current, successor);
-					if (newCost < cost[successor.row * Main.NUM_COLS + successor.col]
-							|| !pq.contains(successor)) {
-						successor.parent = current;
-						cost[successor.row * Main.NUM_COLS + successor.col] = newCost;
-						successor.estimated = newCost + heuristicCost(successor);
-						pq.add(successor);
-						drawPath(current, successor);
-						changeColor(successor, false);
-					}
-				}
-			} else {
-				timeline.stop();
-			}
-		});
-		showPath = new KeyFrame(Duration.millis(500), t -> {
-			if (!stackJPS.isEmpty()) {
-				Tile current = stackJPS.pop();
-				if (current.parent != null) {
-					Arrow arrow = getArrow(current);
-					arrow.setStrokeWidth(2.0);
-					arrow.setFill(Color.DARKGOLDENROD);
-				}
-				changeColor(current, true);
-				if (current.equals(end)) {
-					timeline.stop();
-					timeline.getKeyFrames().clear();
-					finished();
-				}
-			}
-		});
-		timeline.setCycleCount(Timeline.INDEFINITE);
-		timeline.getKeyFrames().addAll(search);
-		timeline.statusProperty().addListener(clJPS);
-	}
-	/**
-	 * Get arrow between this tile and its parent.
-	 * @param current current tile
-	 * @return arrow object
-	 */
-	private Arrow getArrow(Tile current) {
-		double x1 = current.parent.col * 25 + 12.5;
-		double y1 = current.parent.row * 25 + 12.5;
-
-		double x2 = current.col * 25 + 12.5;
-		double y2 = current.row * 25 + 12.5;
-		for (Arrow arrow : arrows) {
-			if (arrow.startX == x1 && arrow.startY == y1 && arrow.endX == x2 && arrow.endY == y2) {
-				return arrow;
-			}
-		}
-		return null;
-	}
-	/**
-	 * Set an arrow between current tile and next tile.
-	 * @param current current tile 
-	 * @param next tile
-	 */
-	private void drawPath(Tile current, Tile next) {
-		double x1 = current.col * 25 + 12.5;
-		double y1 = current.row * 25 + 12.5;
-		double x2 = next.col * 25 + 12.5;
-		double y2 = next.row * 25 + 12.5;
-		Arrow arrow = new Arrow(x1, y1, x2, y2, 10);
-		arrows.add(arrow);
-		arrow.getStyleClass().add("successor");
-		this.getChildren().add(arrow);
-	}
-}
+package application;
+
+import javafx.animation.AnimationTimer;
+import javafx.concurrent.Task;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+import pathfinding.AStar;
+import pathfinding.AnytimeAStar;
+import pathfinding.BidirectionalSearch;
+import pathfinding.DStarLite;
+import pathfinding.GridMap;
+import pathfinding.JumpPointPlus;
+import pathfinding.JumpPointSearch;
+import pathfinding.JumpTable;
+import pathfinding.PathCache;
+import pathfinding.PathFinder;
+import pathfinding.PathResult;
+import pathfinding.SearchLimits;
+import pathfinding.SearchListener;
+import pathfinding.SearchMetrics;
+import pathfinding.SearchStats;
+import pathfinding.SearchTrace;
+import pathfinding.SearchTrace.Event;
+/**
+ * Graph. View over a {@link GridMap} of any size, the searching itself is done by the pathfinding engines. Cells are
+ * drawn by a {@link GridRenderer}, a viewport panned by dragging with the middle button and zoomed with the wheel.
+ * @author ducda
+ *
+ */
+public class Graph extends Pane {
+	/**
+	 * Longest time a run without steps may search, in nanoseconds, so a query with no path cannot freeze the window.
+	 */
+	private static final long SEARCH_TIMEOUT = 250_000_000L;
+	/**
+	 * Nodes of the path shown per second when A* replays it.
+	 */
+	private static final double PATH_RATE = 100;
+	/**
+	 * Jump points of the path shown per second when JPS replays it.
+	 */
+	private static final double JUMP_PATH_RATE = 2;
+	/**
+	 * Longest time a frame of the replay may spend showing events, in nanoseconds, so a fast replay on a large map
+	 * keeps the window responsive. Whatever did not fit is dropped rather than carried to the next frame.
+	 */
+	private static final long FRAME_BUDGET = 8_000_000L;
+	/**
+	 * How much one notch of the wheel zooms.
+	 */
+	private static final double ZOOM_FACTOR = 1.25;
+	/**
+	 * Limits of every engine.
+	 */
+	private static final SearchLimits LIMITS = new SearchLimits(Long.MAX_VALUE, SEARCH_TIMEOUT, Integer.MAX_VALUE);
+	/**
+	 * Map the algorithms run on.
+	 */
+	protected GridMap map;
+	/**
+	 * Canvas the cells are drawn on.
+	 */
+	private GridRenderer renderer;
+	/**
+	 * Drives the replay, showing as many events each frame as the elapsed time pays for.
+	 */
+	private AnimationTimer driver;
+	/**
+	 * Whether the replay is playing.
+	 */
+	private boolean playing;
+	/**
+	 * Time of the last frame of the replay, 0 before the first one.
+	 */
+	private long lastFrame;
+	/**
+	 * Steps the elapsed time has paid for but that were not shown yet, a fraction at slow speeds.
+	 */
+	private double credit;
+	/**
+	 * Start location.
+	 */
+	private int start;
+	/**
+	 * End location.
+	 */
+	private int end;
+	/**
+	 * Whether or not the animation is done.
+	 */
+	private boolean isDone = false;
+	/**
+	 * Whether the grid ignores the mouse, while a run is going.
+	 */
+	private boolean locked;
+	/**
+	 * Start or end image being dragged, null while walls are being drawn.
+	 */
+	private ImageView dragged;
+	/**
+	 * Last x coordinate of the mouse while panning.
+	 */
+	private double panX;
+	/**
+	 * Last y coordinate of the mouse while panning.
+	 */
+	private double panY;
+	/**
+	 * A* engine.
+	 */
+	private AStar aStar;
+	/**
+	 * Jump Point Search engine.
+	 */
+	private JumpPointSearch jumpPointSearch;
+	/**
+	 * JPS+ engine, its jump table is repaired whenever a wall changes. Built in the background once JPS+ is
+	 * selected on a map, the table takes 32 bytes per cell.
+	 */
+	private JumpPointPlus jumpPointPlus;
+	/**
+	 * Jump table of the JPS+ engines, attached to the map once built, null until then.
+	 */
+	private JumpTable jumpTable;
+	/**
+	 * Whether a jump table is being built in the background.
+	 */
+	private boolean buildingTable;
+	/**
+	 * Anytime A* (ARA*) engine.
+	 */
+	private AnytimeAStar anytimeAStar;
+	/**
+	 * D* Lite engine, keeps its search tree between runs.
+	 */
+	private DStarLite dStarLite;
+	/**
+	 * Forward half of the bidirectional A* engine.
+	 */
+	private AStar biForward;
+	/**
+	 * Backward half of the bidirectional A* engine.
+	 */
+	private AStar biBackward;
+	/**
+	 * Bidirectional A* engine.
+	 */
+	private BidirectionalSearch biAStar;
+	/**
+	 * Bidirectional Jump Point Search engine.
+	 */
+	private BidirectionalSearch biJps;
+	/**
+	 * Bidirectional JPS+ engine, built along with the JPS+ one.
+	 */
+	private BidirectionalSearch biJpsPlus;
+	/**
+	 * Whether the current run draws an arrow to every opened jump point.
+	 */
+	private boolean drawJumps;
+	/**
+	 * Engine used by the current run.
+	 */
+	private PathFinder finder;
+	/**
+	 * Paths found by the no steps runs, so moving start or end back to a solved pair does not search again.
+	 */
+	private PathCache pathCache;
+	/**
+	 * Metrics of every search run by the visualizer, readable over JMX.
+	 */
+	private SearchStats searchStats;
+	/**
+	 * Whether the path of the current run came from the cache.
+	 */
+	private boolean cacheHit;
+	/**
+	 * Paints the search events of the engines.
+	 */
+	private SearchListener searchListener;
+	/**
+	 * Direction glyphs of the path.
+	 */
+	private GlyphLayer glyphs;
+	/**
+	 * Recording of the search of the current run with steps, null for a run without steps.
+	 */
+	private SearchTrace trace;
+	/**
+	 * Number of events of the trace shown so far.
+	 */
+	private int position;
+	/**
+	 * Index of the first path event of the trace.
+	 */
+	private int pathStart;
+	/**
+	 * Expansions shown per second by the replay, infinity for as many as a frame has time for.
+	 */
+	private double stepRate;
+	/**
+	 * Nodes of the path shown per second by the replay.
+	 */
+	private double pathRate;
+	/**
+	 * Metrics of the search of the current run with steps, null if its trace was loaded from a file.
+	 */
+	private SearchMetrics traceMetrics;
+	/**
+	 * Whether the scrubber is being moved by the replay rather than by the user.
+	 */
+	private boolean movingScrubber;
+	/**
+	 * Arrows used in JPS to show path.
+	 */
+	private ArrowLayer arrows;
+
+	/**
+	 * Constructor. The graph shows nothing until a map is set.
+	 * @param width width of the viewport in pixels
+	 * @param height height of the viewport in pixels
+	 */
+	public Graph(int width, int height) {
+		renderer = new GridRenderer(width, height);
+		glyphs = new GlyphLayer(renderer);
+		arrows = new ArrowLayer(renderer);
+		this.getChildren().addAll(renderer, glyphs, arrows, Main.startImage, Main.endImage);
+		this.setPrefSize(width, height);
+		this.setMinSize(width, height);
+		this.setClip(new Rectangle(width, height));
+		renderer.setOnViewChanged(() -> viewChanged());
+		searchStats = new SearchStats();
+		searchStats.register("visualizer");
+
+		searchListener = new SearchListener() {
+			public void nodeOpened(int vertex, int parent) {
+				renderer.setState(vertex, GridRenderer.OPENED);
+				if (drawJumps) {
+					arrows.add(parent, vertex);
+				}
+			}
+
+			public void nodeClosed(int vertex) {
+				renderer.setState(vertex, GridRenderer.CLOSED);
+			}
+		};
+
+		this.setOnMousePressed(e -> press(e));
+		this.setOnMouseDragged(e -> drag(e));
+		this.setOnScroll(e -> scroll(e));
+		driver = new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				frame(now);
+			}
+		};
+	}
+
+	/**
+	 * Show another map, with new engines for it, and put start and end on its middle row. Runs never overlap, so
+	 * the engines searching from the start all search with the context of the A* engine, and the backward halves
+	 * of the bidirectional engines with the context of the backward A* one. A context takes about 52 bytes per
+	 * cell and is only allocated by the first search using it.
+	 * @param newMap map to show
+	 */
+	public void setMap(GridMap newMap) {
+		map = newMap;
+		if (dStarLite != null) {
+			// what listened to the previous map stops
+			dStarLite.close();
+			pathCache.close();
+		}
+		if (jumpTable != null) {
+			jumpTable.close();
+			jumpTable = null;
+		}
+		aStar = configure(new AStar(map, false));
+		anytimeAStar = configure(share(new AnytimeAStar(map, false), aStar));
+		dStarLite = configure(new DStarLite(map, false).attach());
+		jumpPointSearch = configure(share(new JumpPointSearch(map), aStar));
+		jumpPointPlus = null;
+		biJpsPlus = null;
+		biForward = share(new AStar(map, false), aStar);
+		biBackward = new AStar(map, false);
+		biAStar = configure(new BidirectionalSearch(biForward, biBackward, true));
+		biJps = configure(new BidirectionalSearch(share(new JumpPointSearch(map), aStar),
+				share(new JumpPointSearch(map), biBackward), false));
+		pathCache = new PathCache(map, 256).attach();
+
+		pause();
+		isDone = false;
+		trace = null;
+		Main.scrubber.setDisable(true);
+		Main.step.setDisable(true);
+		Main.saveTrace.setDisable(true);
+		arrows.clear();
+		glyphs.setGrid(map.size());
+		renderer.setGrid(map.getRows(), map.getCols());
+		for (int id = 0; id < map.size(); id++) {
+			if (map.isWall(id)) {
+				renderer.setState(id, GridRenderer.WALL);
+			}
+		}
+		int middle = map.index(map.getRows() / 2, 0);
+		start = placeImage(Main.startImage, openCell(middle, 1));
+		end = placeImage(Main.endImage, openCell(middle + map.getCols() - 1, -1));
+		prepareJumpPointPlus();
+	}
+
+	/**
+	 * Make an engine search with the context of another.
+	 * @param engine engine to set up
+	 * @param owner engine whose context it uses
+	 * @param <T> type of engine
+	 * @return the engine
+	 */
+	private static <T extends PathFinder> T share(T engine, PathFinder owner) {
+		engine.shareContext(owner);
+		return engine;
+	}
+
+	/**
+	 * Give an engine the listener, limits and metrics listener of the visualizer.
+	 * @param engine engine to set up
+	 * @param <T> type of engine
+	 * @return the engine
+	 */
+	private <T extends PathFinder> T configure(T engine) {
+		engine.setListener(searchListener);
+		engine.setLimits(LIMITS);
+		engine.setMetricsListener(searchStats);
+		return engine;
+	}
+
+	/**
+	 * Find the first cell that is not a wall, going through every cell from a given one.
+	 * @param from cell to start from
+	 * @param step 1 to go forward, -1 to go backward
+	 * @return the cell found, the given one if every cell is a wall
+	 */
+	private int openCell(int from, int step) {
+		int size = map.size();
+		for (int i = 0, id = from; i < size; i++, id = Math.floorMod(id + step, size)) {
+			if (!map.isWall(id)) {
+				return id;
+			}
+		}
+		return from;
+	}
+
+	/**
+	 * Get the map shown.
+	 * @return the map
+	 */
+	public GridMap getMap() {
+		return map;
+	}
+
+	// Viewport
+	/**
+	 * Zoom in or out around the mouse.
+	 * @param e scroll event
+	 */
+	private void scroll(ScrollEvent e) {
+		if (e.getDeltaY() != 0) {
+			renderer.zoom(e.getDeltaY() > 0 ? ZOOM_FACTOR : 1 / ZOOM_FACTOR, e.getX(), e.getY());
+		}
+	}
+	/**
+	 * Move the layers and images over the grid after a pan or zoom.
+	 */
+	private void viewChanged() {
+		arrows.viewChanged();
+		glyphs.redraw();
+		if (map != null) {
+			placeImage(Main.startImage, start);
+			placeImage(Main.endImage, end);
+		}
+	}
+
+	// User Interaction With Graph
+	/**
+	 * Pick up the start or end image if it is under the mouse, draw or erase a wall otherwise.
+	 * @param e mouse event
+	 */
+	private void press(MouseEvent e) {
+		if (e.getButton() == MouseButton.MIDDLE) {
+			panX = e.getX();
+			panY = e.getY();
+			return;
+		}
+		if (locked) {
+			return;
+		}
+		int cell = renderer.cellAt(e.getX(), e.getY());
+		if (cell == -1) {
+			return;
+		}
+		if (cell == start) {
+			dragged = Main.startImage;
+		} else if (cell == end) {
+			dragged = Main.endImage;
+		} else {
+			dragged = null;
+			changeTile(cell, e.getButton());
+		}
+	}
+	/**
+	 * Move the image picked up, or keep drawing or erasing walls.
+	 * @param e mouse event
+	 */
+	private void drag(MouseEvent e) {
+		if (e.isMiddleButtonDown()) {
+			renderer.pan(e.getX() - panX, e.getY() - panY);
+			panX = e.getX();
+			panY = e.getY();
+			return;
+		}
+		if (locked) {
+			return;
+		}
+		int cell = renderer.cellAt(e.getX(), e.getY());
+		if (cell == -1) {
+			return;
+		}
+		if (dragged != null) {
+			moveImageView(cell);
+		} else {
+			changeTile(cell, e.getButton());
+		}
+	}
+	/**
+	 * Move end and start locations around the grind. If the algorithms are done, whenever end or start locations are moved, run the current algorithm again.
+	 * @param cell cell under the mouse
+	 */
+	private void moveImageView(int cell) {
+		if (cell == start || cell == end) {
+			return;
+		}
+		if (map.isWall(cell)) {
+			setWall(cell, false);
+		}
+		if (dragged == Main.startImage) {
+			start = placeImage(dragged, cell);
+		} else {
+			end = placeImage(dragged, cell);
+		}
+		if (isDone) {
+			if (!Main.jps.isSelected()) {
+				this.aStarNoSteps();
+			} else {
+				this.jpsNoSteps();
+			}
+		}
+	}
+	/**
+	 * Change current tile into wall left mouse is pressed, into normal tile if right mouse is pressed.
+	 * @param cell current cell
+	 * @param mb mouse button
+	 */
+	private void changeTile(int cell, MouseButton mb) {
+		if (cell != start && cell != end) {
+			if (mb.equals(MouseButton.PRIMARY) && !map.isWall(cell)) {
+				setWall(cell, true);
+			} else if (mb.equals(MouseButton.SECONDARY) && map.isWall(cell)) {
+				setWall(cell, false);
+			} else {
+				return;
+			}
+			// D* Lite only repairs what the wall changed, so the path can follow every edit
+			if (isDone && Main.incremental.isSelected()) {
+				this.aStarNoSteps();
+			}
+		}
+	}
+
+	/**
+	 * Turn a cell into a wall or back, removing the glyph on it.
+	 * @param cell cell id
+	 * @param wall whether it becomes a wall
+	 */
+	private void setWall(int cell, boolean wall) {
+		map.setWall(map.row(cell), map.col(cell), wall);
+		renderer.setState(cell, wall ? GridRenderer.WALL : GridRenderer.EMPTY);
+		if (wall) {
+			glyphs.remove(cell);
+		}
+	}
+
+	/**
+	 * Remove every wall.
+	 */
+	public void clearWalls() {
+		for (int id = 0; id < map.size(); id++) {
+			if (map.isWall(id)) {
+				setWall(id, false);
+			}
+		}
+	}
+
+	// set up before running
+	/**
+	 * Initialize objects used by algorithms.
+	 * @param engine engine used by this run
+	 */
+	private void setUp(PathFinder engine) {
+		finder = engine;
+		cacheHit = false;
+		trace = null;
+		Main.scrubber.setDisable(true);
+		Main.step.setDisable(true);
+		Main.saveTrace.setDisable(true);
+		drawJumps = Main.jps.isSelected();
+		locked = true;
+	}
+
+	// clean up before running again.
+	/**
+	 * Clean up before running again.
+	 */
+	public void cleanUp() {
+		clearSearch();
+		isDone = false;
+	}
+	/**
+	 * Paint every tile that is not a wall white and remove the glyphs and arrows of the last run.
+	 */
+	private void clearSearch() {
+		renderer.clearSearch();
+		glyphs.clear();
+		arrows.clear();
+	}
+	/**
+	 * Give the controls back once a run is done and show how it went.
+	 * @param result path found by the run
+	 * @param metrics metrics of its search, null if the path came from the cache or from a saved trace
+	 */
+	private void finished(PathResult result, SearchMetrics metrics) {
+		Main.button.setText("Run");
+		isDone = true;
+		Main.speed.setDisable(false);
+		Main.clearButton.setDisable(false);
+		Main.mapSize.setDisable(false);
+		Main.loadMap.setDisable(false);
+		locked = false;
+		String text;
+		if (!result.isComplete()) {
+			text = String.format("%s, partial path cost %.2f", result.getStatus(), result.getCost());
+		} else if (!result.isFound()) {
+			text = "No path";
+		} else if (finder == anytimeAStar) {
+			text = String.format("Cost %.2f, at most %.2f times the shortest", result.getCost(),
+					anytimeAStar.getBound());
+		} else {
+			text = String.format("Cost %.2f", result.getCost());
+		}
+		if (metrics == null && cacheHit) {
+			text += ", cached";
+		} else if (metrics == null) {
+			text += String.format(", recorded with %s in %.2f ms", trace.getSearchKey(), trace.getWallNanos() / 1e6);
+		} else {
+			text += String.format(", %d nodes, %d expanded, %d generated, %.2f ms", metrics.getPathLength(),
+					metrics.getExpanded(), metrics.getGenerated(), metrics.getWallNanos() / 1e6);
+		}
+		Main.status.setText(text);
+		// JPS+ may have been selected during the run
+		prepareJumpPointPlus();
+	}
+
+	/**
+	 * Direction of next tile from current tile
+	 * @param current current cell
+	 * @param next next cell
+	 */
+	private void direction(int current, int next) {
+		if (current == start) {
+			return;
+		}
+		int diffRow = map.row(next) - map.row(current);
+		int diffCol = map.col(next) - map.col(current);
+		glyphs.set(current, GridMap.direction(Integer.signum(diffRow), Integer.signum(diffCol)));
+	}
+	/**
+	 * Get the A* engine selected on the control board, set to the selected movement and inflation factor.
+	 * @param incremental whether D* Lite may be used, it has no parents to animate the path with
+	 * @return the engine
+	 */
+	private PathFinder aStarEngine(boolean incremental) {
+		boolean diagonal = Main.diagonal.isSelected();
+		double epsilon = Double.parseDouble(Main.epsilon.getValue());
+		aStar.setDiagonal(diagonal);
+		aStar.setWeight(Main.weighted.isSelected() ? epsilon : 1);
+		anytimeAStar.setDiagonal(diagonal);
+		anytimeAStar.setEpsilon(epsilon, (epsilon - 1) / 4);
+		dStarLite.setDiagonal(diagonal);
+		biForward.setDiagonal(diagonal);
+		biBackward.setDiagonal(diagonal);
+		if (incremental && Main.incremental.isSelected()) {
+			return dStarLite;
+		}
+		if (Main.anytime.isSelected()) {
+			return anytimeAStar;
+		}
+		return Main.bidirectional.isSelected() ? biAStar : aStar;
+	}
+	// a* with showing steps
+	/**
+	 * A* pathfinding with animation.
+	 * @param speed expansions shown per second
+	 */
+	public void AStarSearch(double speed) {
+		if (isDone) {
+			cleanUp();
+		}
+		setUp(aStarEngine(false));
+		record(speed, PATH_RATE);
+	}
+	/**
+	 * A* no steps.
+	 */
+	public void aStarNoSteps() {
+		if (isDone) {
+			cleanUp();
+		}
+		setUp(aStarEngine(true));
+		PathResult result;
+		if (finder == anytimeAStar) {
+			// the path depends on the time left, it is not worth caching
+			long budget = Long.parseLong(Main.deadline.getValue().split(" ")[0]) * 1000000;
+			result = anytimeAStar.findPath(start, end, System.nanoTime() + budget);
+		} else {
+			result = cachedPath();
+		}
+
+		showPath(result);
+		finished(result, cacheHit ? null : finder.getLastMetrics());
+	}
+
+	/**
+	 * Find the path of a no steps run, from the cache if this pair was solved before.
+	 * @return the path
+	 */
+	private PathResult cachedPath() {
+		long hits = pathCache.getHits();
+		PathResult result = pathCache.findPath(finder, start, end);
+		cacheHit = pathCache.getHits() != hits;
+		return result;
+	}
+
+	// Jump Point Search Section
+	/**
+	 * Build the JPS+ engines of the map shown if JPS+ is selected and they are not built yet. The jump table takes
+	 * seconds on a large map, so it is computed on a background thread. Its walls must not change meanwhile, so
+	 * editing, running and switching maps are held off until it is done. Nothing is built during a run, the run
+	 * builds it once it is over.
+	 */
+	public void prepareJumpPointPlus() {
+		if (!Main.jpsPlus.isSelected() || jumpPointPlus != null || buildingTable || locked) {
+			return;
+		}
+		GridMap target = map;
+		Task<JumpTable> task = new Task<JumpTable>() {
+			@Override
+			protected JumpTable call() {
+				return new JumpTable(target);
+			}
+		};
+		task.setOnSucceeded(e -> {
+			// built on the background thread, registered on this one
+			jumpTable = task.getValue().attach();
+			jumpPointPlus = configure(share(new JumpPointPlus(jumpTable), aStar));
+			biJpsPlus = configure(new BidirectionalSearch(share(new JumpPointPlus(jumpTable), aStar),
+					share(new JumpPointPlus(jumpTable), biBackward), false));
+			holdControls(false);
+			Main.status.setText("JPS+ jump table built");
+		});
+		task.setOnFailed(e -> {
+			holdControls(false);
+			Main.jpsPlus.setSelected(false);
+			Main.status.setText("Cannot build the JPS+ jump table: " + task.getException());
+		});
+		holdControls(true);
+		Main.status.setText("Building the JPS+ jump table");
+		Thread thread = new Thread(task, "jump-table");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Hold off or give back the controls that edit the map or run a search, while a jump table is built.
+	 * @param hold true to hold them off, false to give them back
+	 */
+	private void holdControls(boolean hold) {
+		buildingTable = hold;
+		locked = hold;
+		Main.button.setDisable(hold);
+		Main.clearButton.setDisable(hold);
+		Main.mapSize.setDisable(hold);
+		Main.loadMap.setDisable(hold);
+		Main.loadTrace.setDisable(hold);
+	}
+
+	/**
+	 * Get the Jump Point Search engine selected on the control board.
+	 * @return JPS+ if it is selected and built, plain JPS otherwise
+	 */
+	private PathFinder jpsEngine() {
+		boolean plus = Main.jpsPlus.isSelected() && jumpPointPlus != null;
+		if (Main.bidirectional.isSelected()) {
+			return plus ? biJpsPlus : biJps;
+		}
+		return plus ? jumpPointPlus : jumpPointSearch;
+	}
+	/**
+	 * Jump point search with no steps.
+	 */
+	public void jpsNoSteps() {
+		if (isDone) {
+			cleanUp();
+		}
+		setUp(jpsEngine());
+		PathResult result = cachedPath();
+		showPath(result);
+		finished(result, cacheHit ? null : finder.getLastMetrics());
+	}
+	/**
+	 * Jump point search with steps.
+	 * @param speed expansions shown per second
+	 */
+	public void jps(double speed) {
+		if (isDone) {
+			cleanUp();
+		}
+		setUp(jpsEngine());
+		record(speed, JUMP_PATH_RATE);
+	}
+
+	// Replay Section
+	/**
+	 * Run the search of a run with steps at full speed, recording it, then replay the recording.
+	 * @param speed expansions shown per second
+	 * @param pathSpeed nodes of the path shown per second
+	 */
+	private void record(double speed, double pathSpeed) {
+		trace = SearchTrace.record(finder, start, end);
+		traceMetrics = finder.getLastMetrics();
+		startReplay(speed, pathSpeed);
+	}
+	/**
+	 * Replay a trace saved earlier, on the walls, start and end it was recorded with. A trace recorded on a map of
+	 * another size gets a new map.
+	 * @param loaded trace to replay
+	 * @param speed expansions shown per second
+	 */
+	public void replay(SearchTrace loaded, double speed) {
+		if (loaded.getRows() != map.getRows() || loaded.getCols() != map.getCols()) {
+			setMap(new GridMap(loaded.getRows(), loaded.getCols()));
+		}
+		if (isDone) {
+			cleanUp();
+		}
+		for (int id = 0; id < map.size(); id++) {
+			if (loaded.isWall(id) != map.isWall(id)) {
+				setWall(id, loaded.isWall(id));
+			}
+		}
+		start = placeImage(Main.startImage, loaded.getStart());
+		end = placeImage(Main.endImage, loaded.getGoal());
+		setUp(null);
+		trace = loaded;
+		traceMetrics = null;
+		startReplay(speed, loaded.opensJumpPoints() ? JUMP_PATH_RATE : PATH_RATE);
+	}
+	/**
+	 * Move the start or end image onto a cell.
+	 * @param image start or end image
+	 * @param cell cell to move it to
+	 * @return the cell
+	 */
+	private int placeImage(ImageView image, int cell) {
+		// 20 pixels on a 25 pixel tile, never too small to grab
+		double size = Math.max(12, renderer.getCellSize() * 0.8);
+		image.setFitWidth(size);
+		image.setFitHeight(size);
+		image.relocate(renderer.centerX(cell) - image.getFitWidth() / 2,
+				renderer.centerY(cell) - image.getFitHeight() / 2);
+		return cell;
+	}
+	/**
+	 * Set up the replay of the trace of the current run, from its first event. It starts paused.
+	 * @param speed expansions shown per second
+	 * @param pathSpeed nodes of the path shown per second
+	 */
+	private void startReplay(double speed, double pathSpeed) {
+		stepRate = speed;
+		pathRate = pathSpeed;
+		drawJumps = trace.opensJumpPoints();
+		position = 0;
+		pathStart = trace.pathStart();
+		Main.scrubber.setDisable(false);
+		Main.step.setDisable(false);
+		Main.saveTrace.setDisable(false);
+		showPosition();
+	}
+	/**
+	 * Play the replay.
+	 */
+	public void resume() {
+		if (trace != null && !playing) {
+			playing = true;
+			lastFrame = 0;
+			credit = 0;
+			driver.start();
+		}
+	}
+	/**
+	 * Pause the replay.
+	 */
+	public void pause() {
+		playing = false;
+		driver.stop();
+	}
+	/**
+	 * Show the events the time since the last frame paid for, and give the controls back after the last one.
+	 * The search phase is paid for by expansion: a closed event costs a step and the events opened by that expansion
+	 * come with it. The path phase costs a step per node.
+	 * @param now time of this frame, in nanoseconds
+	 */
+	private void frame(long now) {
+		double rate = position < pathStart ? stepRate : pathRate;
+		if (lastFrame == 0) {
+			// the first frame shows one step, so a slow replay does not start with a pause
+			credit = 1;
+		} else if (rate == Double.POSITIVE_INFINITY) {
+			credit = rate;
+		} else {
+			credit += (now - lastFrame) / 1e9 * rate;
+		}
+		lastFrame = now;
+		long deadline = System.nanoTime() + FRAME_BUDGET;
+		int shown = 0;
+		while (position < trace.size()) {
+			if (costsStep(position)) {
+				if (credit < 1) {
+					break;
+				}
+				credit--;
+			}
+			apply(position++);
+			if (position == pathStart) {
+				// the search phase paid for none of the path
+				credit = 0;
+			}
+			if (++shown % 256 == 0 && System.nanoTime() - deadline >= 0) {
+				credit = 0;
+				break;
+			}
+		}
+		showPosition();
+		if (position == trace.size()) {
+			finishReplay();
+		}
+	}
+	/**
+	 * Show the next step of the trace: the next expansion with the nodes it opened, or the next node of the path.
+	 * Pauses the replay if it is playing.
+	 */
+	public void step() {
+		if (trace == null || position == trace.size()) {
+			return;
+		}
+		if (playing) {
+			pause();
+			Main.button.setText("Resume");
+		}
+		apply(position++);
+		while (position < trace.size() && !costsStep(position)) {
+			apply(position++);
+		}
+		showPosition();
+		if (position == trace.size()) {
+			finishReplay();
+		}
+	}
+	/**
+	 * Whether an event starts a step of the replay.
+	 * @param i event index
+	 * @return true for a closed or path event, false for an opened one
+	 */
+	private boolean costsStep(int i) {
+		Event event = trace.event(i);
+		return event == Event.CLOSED || event == Event.PATH;
+	}
+	/**
+	 * Stop the replay once its last event is shown and give the controls back.
+	 */
+	private void finishReplay() {
+		pause();
+		finished(trace.result(), traceMetrics);
+		glyphs.playGlow();
+	}
+	/**
+	 * Show the trace of the current run up to an event, pausing the replay if it is playing.
+	 * @param target number of events to show
+	 */
+	public void seek(int target) {
+		if (trace == null || movingScrubber) {
+			return;
+		}
+		if (playing) {
+			pause();
+			Main.button.setText("Resume");
+		}
+		target = Math.max(0, Math.min(trace.size(), target));
+		if (target < position) {
+			// events cannot be undone one by one, replay from the first one
+			clearSearch();
+			position = 0;
+		}
+		while (position < target) {
+			apply(position++);
+		}
+		if (isDone && position == trace.size()) {
+			glyphs.playGlow();
+		}
+	}
+	/**
+	 * Set the speed of the replay.
+	 * @param speed expansions shown per second, infinity for as many as a frame has time for
+	 */
+	public void setReplaySpeed(double speed) {
+		stepRate = speed;
+	}
+	/**
+	 * Get the trace of the current run.
+	 * @return the trace, null if the run had no steps
+	 */
+	public SearchTrace getTrace() {
+		return trace;
+	}
+	/**
+	 * Move the scrubber to the current event.
+	 */
+	private void showPosition() {
+		movingScrubber = true;
+		Main.scrubber.setMax(trace.size());
+		Main.scrubber.setValue(position);
+		movingScrubber = false;
+	}
+	/**
+	 * Paint one event of the trace.
+	 * @param i event index
+	 */
+	private void apply(int i) {
+		int current = trace.vertex(i);
+		int parent = trace.parent(i);
+		switch (trace.event(i)) {
+		case OPENED:
+			renderer.setState(current, GridRenderer.OPENED);
+			break;
+		case JUMPED:
+			renderer.setState(current, GridRenderer.OPENED);
+			arrows.add(parent, current);
+			break;
+		case CLOSED:
+			renderer.setState(current, GridRenderer.CLOSED);
+			break;
+		default:
+			showPathNode(parent, current);
+		}
+	}
+	/**
+	 * Show the path of a run without steps.
+	 * @param result path found by the run
+	 */
+	private void showPath(PathResult result) {
+		// a stopped search still shows how far it got
+		if (result.getPath().length > 1) {
+			int[] cells = result.getPath();
+			for (int i = 0; i < cells.length; i++) {
+				showPathNode(i == 0 ? -1 : cells[i - 1], cells[i]);
+			}
+			glyphs.playGlow();
+		}
+	}
+	/**
+	 * Show one node of a path, with a glyph pointing to it, or an arrow from the jump point before it.
+	 * @param previous node before it, -1 for the first node
+	 * @param current node of the path
+	 */
+	private void showPathNode(int previous, int current) {
+		if (previous != -1 && drawJumps) {
+			// adds the arrow for a cached path, or when the backward side of a bidirectional search drew it the other
+			// way round
+			arrows.highlight(previous, current);
+		} else if (previous != -1) {
+			direction(previous, current);
+		}
+		renderer.setState(current, GridRenderer.PATH);
+	}
+}
\ No newline at end of file
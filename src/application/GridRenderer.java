@@ -0,0 +1,474 @@
+package application;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * Grid drawn on a single canvas. Each cell keeps a state, a wall or how far the search got with it, and setting
+ * a state only marks the cell dirty. Dirty cells are repainted once per pulse, so a search can change thousands
+ * of cells between two frames and only pay for drawing each of them once.
+ * <p>
+ * The canvas is a viewport of fixed size over a grid of any size, panned and zoomed by the user. Only the cells in
+ * view are ever drawn: cells out of view are not marked dirty, and a pan or zoom redraws the viewport pixel by
+ * pixel, so its cost does not depend on the size of the grid. Zoomed out below a pixel per cell, each pixel shows
+ * one of the cells under it, and a cell whose state changes is always drawn.
+ * @author ducda
+ *
+ */
+public class GridRenderer extends Canvas {
+	/**
+	 * Side of a cell in pixels at the largest zoom.
+	 */
+	public static final double MAX_CELL_SIZE = 40;
+	/**
+	 * Side of a cell in pixels from which the lines between cells are drawn.
+	 */
+	private static final double LINES_CELL_SIZE = 4;
+	/**
+	 * State of a cell nothing happened to.
+	 */
+	public static final byte EMPTY = 0;
+	/**
+	 * State of a wall.
+	 */
+	public static final byte WALL = 1;
+	/**
+	 * State of a cell on the open list.
+	 */
+	public static final byte OPENED = 2;
+	/**
+	 * State of an expanded cell.
+	 */
+	public static final byte CLOSED = 3;
+	/**
+	 * State of a cell on the path.
+	 */
+	public static final byte PATH = 4;
+	/**
+	 * Fill of each state, white, dark blue, orange red, dark sea green and black.
+	 */
+	private static final int[] FILLS = { 0xFFFFFFFF, 0xFF00008B, 0xFFFF4500, 0xFF8FBC8F, 0xFF000000 };
+	/**
+	 * Color of the lines between cells, dark blue.
+	 */
+	private static final int LINES = 0xFF00008B;
+	/**
+	 * Color of the viewport outside the grid, the background of the window.
+	 */
+	private static final int BACKGROUND = 0xFFF5F5F5;
+	/**
+	 * Format of the pixels written to the canvas.
+	 */
+	private static final WritablePixelFormat<IntBuffer> FORMAT = PixelFormat.getIntArgbPreInstance();
+	/**
+	 * Width of the viewport in pixels.
+	 */
+	private final int width;
+	/**
+	 * Height of the viewport in pixels.
+	 */
+	private final int height;
+	/**
+	 * Pixels of the viewport, row by row.
+	 */
+	private final int[] pixels;
+	/**
+	 * Column of the grid under each pixel column of the viewport, out of the grid included.
+	 */
+	private final int[] colOf;
+	/**
+	 * Row of the grid under each pixel row of the viewport, out of the grid included.
+	 */
+	private final int[] rowOf;
+	/**
+	 * Whether each pixel column of the viewport is the first one of its column of the grid.
+	 */
+	private final boolean[] colEdge;
+	/**
+	 * Whether each pixel row of the viewport is the first one of its row of the grid.
+	 */
+	private final boolean[] rowEdge;
+	/**
+	 * Number of rows.
+	 */
+	private int rows;
+	/**
+	 * Number of columns.
+	 */
+	private int cols;
+	/**
+	 * State of each cell.
+	 */
+	private byte[] states = new byte[0];
+	/**
+	 * Cells to repaint.
+	 */
+	private int[] dirty = new int[1024];
+	/**
+	 * Whether each cell is in the dirty list, one bit per cell.
+	 */
+	private long[] isDirty = new long[0];
+	/**
+	 * Number of cells to repaint.
+	 */
+	private int dirtyCount;
+	/**
+	 * Whether every pixel has to be repainted.
+	 */
+	private boolean allDirty = true;
+	/**
+	 * Side of a cell in pixels.
+	 */
+	private double cellSize = MAX_CELL_SIZE;
+	/**
+	 * Side of a cell in pixels when the whole grid is in view, the smallest zoom.
+	 */
+	private double minCellSize = MAX_CELL_SIZE;
+	/**
+	 * Distance from the left of the grid to the left of the viewport, in pixels.
+	 */
+	private double originX;
+	/**
+	 * Distance from the top of the grid to the top of the viewport, in pixels.
+	 */
+	private double originY;
+	/**
+	 * First column in view.
+	 */
+	private int firstCol;
+	/**
+	 * Last column in view.
+	 */
+	private int lastCol;
+	/**
+	 * First row in view.
+	 */
+	private int firstRow;
+	/**
+	 * Last row in view.
+	 */
+	private int lastRow;
+	/**
+	 * Called after every pan or zoom.
+	 */
+	private Runnable onViewChanged;
+
+	/**
+	 * Constructor.
+	 * @param width width of the viewport in pixels
+	 * @param height height of the viewport in pixels
+	 */
+	public GridRenderer(int width, int height) {
+		super(width, height);
+		this.width = width;
+		this.height = height;
+		pixels = new int[width * height];
+		colOf = new int[width];
+		rowOf = new int[height];
+		colEdge = new boolean[width];
+		rowEdge = new boolean[height];
+		new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				paint();
+			}
+		}.start();
+	}
+
+	/**
+	 * Draw a new grid with every cell empty, zoomed out to show all of it.
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 */
+	public void setGrid(int rows, int cols) {
+		this.rows = rows;
+		this.cols = cols;
+		states = new byte[rows * cols];
+		isDirty = new long[(rows * cols + 63) >>> 6];
+		dirtyCount = 0;
+		minCellSize = Math.min(MAX_CELL_SIZE, Math.min((double) width / cols, (double) height / rows));
+		setView(minCellSize, 0, 0);
+	}
+
+	/**
+	 * Set the function called after every pan or zoom.
+	 * @param onViewChanged function to call
+	 */
+	public void setOnViewChanged(Runnable onViewChanged) {
+		this.onViewChanged = onViewChanged;
+	}
+
+	/**
+	 * Get the state of a cell.
+	 * @param id cell id
+	 * @return its state
+	 */
+	public byte getState(int id) {
+		return states[id];
+	}
+
+	/**
+	 * Set the state of a cell, it is repainted on the next pulse if it is in view.
+	 * @param id cell id
+	 * @param state its new state
+	 */
+	public void setState(int id, byte state) {
+		if (states[id] == state) {
+			return;
+		}
+		states[id] = state;
+		if (allDirty || (isDirty[id >>> 6] & (1L << id)) != 0 || !isVisible(id)) {
+			return;
+		}
+		isDirty[id >>> 6] |= 1L << id;
+		if (dirtyCount == dirty.length) {
+			dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+		}
+		dirty[dirtyCount++] = id;
+	}
+
+	/**
+	 * Set every cell the search painted back to empty, walls stay.
+	 */
+	public void clearSearch() {
+		for (int id = 0; id < states.length; id++) {
+			if (states[id] != WALL && states[id] != EMPTY) {
+				setState(id, EMPTY);
+			}
+		}
+	}
+
+	/**
+	 * Whether a cell is in view.
+	 * @param id cell id
+	 * @return true if some of it is in the viewport, false otherwise
+	 */
+	public boolean isVisible(int id) {
+		int row = id / cols;
+		int col = id - row * cols;
+		return row >= firstRow && row <= lastRow && col >= firstCol && col <= lastCol;
+	}
+
+	/**
+	 * Get the cell under a point.
+	 * @param x x coordinate in the viewport
+	 * @param y y coordinate in the viewport
+	 * @return cell id, -1 if the point is outside the grid
+	 */
+	public int cellAt(double x, double y) {
+		int row = (int) Math.floor((y + originY) / cellSize);
+		int col = (int) Math.floor((x + originX) / cellSize);
+		if (row < 0 || row >= rows || col < 0 || col >= cols) {
+			return -1;
+		}
+		return row * cols + col;
+	}
+
+	/**
+	 * Get the x coordinate of the center of a cell.
+	 * @param id cell id
+	 * @return x coordinate in the viewport
+	 */
+	public double centerX(int id) {
+		return (id % cols + 0.5) * cellSize - originX;
+	}
+
+	/**
+	 * Get the y coordinate of the center of a cell.
+	 * @param id cell id
+	 * @return y coordinate in the viewport
+	 */
+	public double centerY(int id) {
+		return (id / cols + 0.5) * cellSize - originY;
+	}
+
+	/**
+	 * Get the side of a cell at the current zoom.
+	 * @return side in pixels
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Zoom in or out, keeping the point under the mouse in place.
+	 * @param factor how much larger cells get, less than 1 to zoom out
+	 * @param x x coordinate of the mouse in the viewport
+	 * @param y y coordinate of the mouse in the viewport
+	 */
+	public void zoom(double factor, double x, double y) {
+		double size = Math.max(minCellSize, Math.min(MAX_CELL_SIZE, cellSize * factor));
+		double scale = size / cellSize;
+		setView(size, (x + originX) * scale - x, (y + originY) * scale - y);
+	}
+
+	/**
+	 * Move the grid.
+	 * @param dx distance to move it right, in pixels
+	 * @param dy distance to move it down, in pixels
+	 */
+	public void pan(double dx, double dy) {
+		setView(cellSize, originX - dx, originY - dy);
+	}
+
+	/**
+	 * Set the zoom and position of the viewport, keeping as much of the grid in view as possible, then redraw it.
+	 * @param size side of a cell in pixels
+	 * @param x distance from the left of the grid to the left of the viewport
+	 * @param y distance from the top of the grid to the top of the viewport
+	 */
+	private void setView(double size, double x, double y) {
+		cellSize = size;
+		originX = clamp(x, cols * size, width);
+		originY = clamp(y, rows * size, height);
+		firstCol = Math.max(0, (int) Math.floor(originX / size));
+		lastCol = Math.min(cols - 1, (int) Math.floor((originX + width) / size));
+		firstRow = Math.max(0, (int) Math.floor(originY / size));
+		lastRow = Math.min(rows - 1, (int) Math.floor((originY + height) / size));
+		allDirty = true;
+		if (onViewChanged != null) {
+			onViewChanged.run();
+		}
+	}
+
+	/**
+	 * Clamp the position of the viewport along one axis.
+	 * @param origin wanted distance from the start of the grid to the start of the viewport
+	 * @param extent size of the grid in pixels
+	 * @param view size of the viewport in pixels
+	 * @return the distance, centering a grid smaller than the viewport
+	 */
+	private static double clamp(double origin, double extent, double view) {
+		if (extent <= view) {
+			return Math.floor((extent - view) / 2);
+		}
+		return Math.max(0, Math.min(extent - view, origin));
+	}
+
+	/**
+	 * Get the first pixel of a row or column of the grid.
+	 * @param index row or column
+	 * @param origin distance from the start of the grid to the start of the viewport
+	 * @return pixel in the viewport
+	 */
+	private int firstPixel(int index, double origin) {
+		return (int) Math.ceil(index * cellSize - origin);
+	}
+
+	/**
+	 * Repaint the dirty cells, or the whole viewport after a pan or zoom.
+	 */
+	private void paint() {
+		if (!allDirty && dirtyCount == 0) {
+			return;
+		}
+		PixelWriter writer = getGraphicsContext2D().getPixelWriter();
+		if (allDirty) {
+			paintAll();
+			writer.setPixels(0, 0, width, height, FORMAT, pixels, 0, width);
+			for (int i = 0; i < dirtyCount; i++) {
+				isDirty[dirty[i] >>> 6] = 0;
+			}
+			dirtyCount = 0;
+			allDirty = false;
+			return;
+		}
+		int minX = width;
+		int minY = height;
+		int maxX = 0;
+		int maxY = 0;
+		for (int i = 0; i < dirtyCount; i++) {
+			int id = dirty[i];
+			isDirty[id >>> 6] &= ~(1L << id);
+			int row = id / cols;
+			int col = id - row * cols;
+			int x0 = firstPixel(col, originX);
+			int y0 = firstPixel(row, originY);
+			// a cell smaller than a pixel still gets one
+			int x1 = Math.max(x0 + 1, firstPixel(col + 1, originX));
+			int y1 = Math.max(y0 + 1, firstPixel(row + 1, originY));
+			paintCell(id, x0, y0, x1, y1);
+			minX = Math.min(minX, Math.max(0, x0));
+			minY = Math.min(minY, Math.max(0, y0));
+			maxX = Math.max(maxX, Math.min(width, x1));
+			maxY = Math.max(maxY, Math.min(height, y1));
+		}
+		dirtyCount = 0;
+		if (minX < maxX && minY < maxY) {
+			writer.setPixels(minX, minY, maxX - minX, maxY - minY, FORMAT, pixels, minY * width + minX, width);
+		}
+	}
+
+	/**
+	 * Paint the pixels of a cell, with lines along its top and left sides if cells are large enough.
+	 * @param id cell id
+	 * @param x0 first pixel column of the cell
+	 * @param y0 first pixel row of the cell
+	 * @param x1 pixel column after the cell
+	 * @param y1 pixel row after the cell
+	 */
+	private void paintCell(int id, int x0, int y0, int x1, int y1) {
+		int fill = FILLS[states[id]];
+		boolean lines = cellSize >= LINES_CELL_SIZE;
+		for (int y = Math.max(0, y0); y < Math.min(height, y1); y++) {
+			int offset = y * width;
+			for (int x = Math.max(0, x0); x < Math.min(width, x1); x++) {
+				pixels[offset + x] = lines && (x == x0 || y == y0) ? LINES : fill;
+			}
+		}
+	}
+
+	/**
+	 * Paint every pixel of the viewport.
+	 */
+	private void paintAll() {
+		mapAxis(colOf, colEdge, originX, width);
+		mapAxis(rowOf, rowEdge, originY, height);
+		boolean lines = cellSize >= LINES_CELL_SIZE;
+		for (int y = 0; y < height; y++) {
+			int row = rowOf[y];
+			boolean inRow = row >= 0 && row < rows;
+			int offset = y * width;
+			for (int x = 0; x < width; x++) {
+				int col = colOf[x];
+				boolean inCol = col >= 0 && col < cols;
+				int color;
+				if (inRow && inCol) {
+					color = lines && (rowEdge[y] || colEdge[x]) ? LINES : FILLS[states[row * cols + col]];
+				} else if (lines && ((inRow && col == cols && colEdge[x]) || (inCol && row == rows && rowEdge[y]))) {
+					// right and bottom sides of the grid
+					color = LINES;
+				} else {
+					color = BACKGROUND;
+				}
+				pixels[offset + x] = color;
+			}
+		}
+	}
+
+	/**
+	 * Find the row or column of the grid under each pixel along one axis of the viewport.
+	 * @param index row or column of each pixel
+	 * @param edge whether each pixel is the first one of its row or column
+	 * @param origin distance from the start of the grid to the start of the viewport
+	 * @param length size of the viewport along the axis
+	 */
+	private void mapAxis(int[] index, boolean[] edge, double origin, int length) {
+		int i = (int) Math.floor(origin / cellSize) - 1;
+		int next = firstPixel(i + 1, origin);
+		for (int p = 0; p < length; p++) {
+			while (p >= next) {
+				i++;
+				next = firstPixel(i + 1, origin);
+			}
+			index[p] = i;
+			edge[p] = p == firstPixel(i, origin);
+		}
+	}
+}
@@ -1,265 +1,470 @@
-package application;
-
-import javafx.application.Application;
-import javafx.geometry.Insets;
-import javafx.scene.Scene;
-import javafx.scene.control.Button;
-import javafx.scene.control.CheckBox;
-import javafx.scene.control.ComboBox;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.layout.GridPane;
-import javafx.scene.paint.Color;
-import javafx.stage.Stage;
-
-/**
- * Main application for pathfinding app.
- * @author ducda
- *
- */
-public class Main extends Application {
-	/**
-	 * Number of rows.
-	 */
-	public static final int NUM_ROWS = 30;
-	/**
-	 * Number of columns.
-	 */
-	public static final int NUM_COLS = 40;
-	/**
-	 * Application Window.
-	 */
-	private Stage window;
-	/**
-	 * Application Scene.
-	 */
-	public static GridPane root;
-	/**
-	 * The grid.
-	 */
-	public static Graph graph;
-	/**
-	 * Diagonal check box to run A* with/without diagonal movement.
-	 */
-	public static CheckBox diagonal;
-	/**
-	 * Handle animation.
-	 */
-	public static Button button;
-	/**
-	 * Clear path and walls.
-	 */
-	public static Button clearButton;
-	/**
-	 * Whether to animate algorithms or not.
-	 */
-	public static CheckBox showSteps;
-	/**
-	 * Animation speed.
-	 */
-	public static ComboBox<String> speed;
-	/**
-	 * Run with Jump Point Search or not.
-	 */
-	public static CheckBox jps;
-	/**
-	 * Start image representing start location.
-	 */
-	public static ImageView startImage;
-	/**
-	 * End image representing end location.
-	 */
-	public static ImageView endImage;
-	
-	/**
-	 * Start the application.
-	 * @param primaryStage main window
-	 */
-	public void start(Stage primaryStage) {
-		window = primaryStage;
-		createContent();
-		Scene scene = new Scene(root);
-		scene.getStylesheets().add(getClass().getResource("application.css").toExternalForm());
-		window.setResizable(false);
-		window.sizeToScene();
-		window.setScene(scene);
-		window.show();
-
-	}
-	
-	/**
-	 * Put the grid and control board on the scene.
-	 */
-	private void createContent() {
-		root = new GridPane();
-		root.setPadding(new Insets(20, 20, 20, 20));
-		root.setVgap(10);
-
-		createGrid();
-
-		createControlBoard();
-	}
-	/**
-	 * Create grids based on number of rows and number of columns.
-	 */
-	private void createGrid() {
-		graph = new Graph();
-		graph.setPrefSize(1000, 750);
-		graph.setId("grid");
-		for (int i = 0; i < NUM_ROWS; i++) {
-			for (int j = 0; j < NUM_COLS; j++) {
-				Tile tile = new Tile(i, j);
-				graph.grid[i][j] = tile;
-				tile.setTranslateX(j * 25);
-				tile.setTranslateY(i * 25);
-				graph.getChildren().add(tile);
-			}
-		}
-		root.add(graph, 0, 0, NUM_COLS, NUM_ROWS);
-
-		graph.start = graph.grid[16][0];
-		graph.end = graph.grid[16][39];
-		startImage = new ImageView();
-		startImage.setFitHeight(20);
-		startImage.setFitWidth(20);
-		startImage.setImage(new Image("/start.png"));
-
-		endImage = new ImageView();
-		endImage.setFitHeight(20);
-		endImage.setFitWidth(20);
-		endImage.setImage(new Image("/end.png"));
-		graph.start.getChildren().add(startImage);
-		graph.end.getChildren().add(endImage);
-		graph.createAdjList();
-	}
-	
-	/**
-	 * Create control board to control the application.
-	 */
-	private void createControlBoard() {
-
-		GridPane control = new GridPane();
-		control.setId("control");
-		control.setVgap(10);
-		control.setHgap(10);
-		
-		showSteps = new CheckBox("Show Steps");
-		showSteps.setSelected(true);
-		control.add(showSteps, 0, 0, 1, 1);
-
-		diagonal = new CheckBox("Diagonal");
-		control.add(diagonal, 1, 0, 1, 1);
-
-		jps = new CheckBox("JPS");
-		jps.setOnAction(e -> {
-			if(jps.isSelected()) {
-				diagonal.setSelected(false);
-				diagonal.setDisable(true);
-			}
-			else {
-				diagonal.setDisable(false);
-			}
-		});
-		control.add(jps, 2, 0, 1, 1);
-		speed = new ComboBox<String>();
-		speed.getItems().addAll("Slow", "Normal", "Fast");
-		speed.setValue(speed.getItems().get(2));
-		control.add(speed, 0, 1, 1, 1);
-
-		button = new Button("Run");
-		button.getStyleClass().add("button");
-		button.setOnAction(e -> handleButton());
-
-		control.add(button, 1, 1, 1,1);
-		
-		clearButton = new Button("Clear");
-		clearButton.getStyleClass().add("button");
-		clearButton.setOnAction(e -> this.clearWallAndPath());
-		control.add(clearButton, 2, 1, 1, 1);
-		
-		root.add(control, 0, 31);
-	}
-	/**
-	 * Main method to run the application.
-	 * @param args command line arguments.
-	 */
-	public static void main(String[] args) {
-		launch(args);
-	}
-	/**
-	 * Handle the button.
-	 */
-	private void handleButton() {
-		if (button.getText().equals("Run")) {
-			if(jps.isSelected()) {
-				if(showSteps.isSelected()) {
-					graph.jps(mapSpeedJPS());
-					speed.setDisable(true);
-					clearButton.setDisable(true);
-					graph.timeline.play();
-					button.setText("Pause");
-				}
-				else {
-					graph.jpsNoSteps();
-				}
-			} else {
-				if(showSteps.isSelected()) {
-					graph.AStarSearch(mapSpeed());
-					speed.setDisable(true);
-					clearButton.setDisable(true);
-					graph.timeline.play();
-					button.setText("Pause");
-				}
-				else {
-					graph.aStarNoSteps();
-				}
-			}
-		} else if (button.getText().equals("Pause")) {
-			graph.timeline.pause();
-			button.setText("Resume");
-		} else if (button.getText().equals("Resume")) {
-			graph.timeline.play();
-			button.setText("Pause");
-		}
-	}
-	/**
-	 * Map speed for A*.
-	 * @return speed
-	 */
-	private double mapSpeed() {
-		if (speed.getValue().equals("Slow")) {
-			return 50.0;
-		} else if (speed.getValue().equals("Normal")) {
-			return 25.0;
-		} else {
-			return 5.0;
-		}
-	}
-	/**
-	 * Map speed for Jump Point Search.
-	 * @return speed
-	 */
-	private double mapSpeedJPS() {
-		if (speed.getValue().equals("Slow")) {
-			return 500.0;
-		} else if (speed.getValue().equals("Normal")) {
-			return 250.0;
-		} else {
-			return 50.0;
-		}
-	}
-	/**
-	 * Clear path and walls.
-	 */
-	private void clearWallAndPath() {
-		for(int i = 0; i < NUM_ROWS; i++) {
-			for(int j = 0; j < NUM_COLS; j++) {
-				if(graph.grid[i][j].isWall) {
-					graph.grid[i][j].border.setFill(Color.WHITE);
-					graph.grid[i][j].isWall = false;
-				}
-			}
-		}
-		graph.cleanUp();
-	}
-}
+package application;
+
+import java.io.File;
+import java.io.IOException;
+
+import javafx.application.Application;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.GridPane;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import pathfinding.GridMap;
+import pathfinding.MapGenerator;
+import pathfinding.MovingAiLoader;
+import pathfinding.SearchTrace;
+
+/**
+ * Main application for pathfinding app.
+ * @author ducda
+ *
+ */
+public class Main extends Application {
+	/**
+	 * Width of the grid viewport in pixels.
+	 */
+	private static final int VIEW_WIDTH = 1000;
+	/**
+	 * Height of the grid viewport in pixels.
+	 */
+	private static final int VIEW_HEIGHT = 750;
+	/**
+	 * Seed of the generated maps, so each size always gives the same map.
+	 */
+	private static final long MAP_SEED = 1;
+	/**
+	 * Application Window.
+	 */
+	private Stage window;
+	/**
+	 * Application Scene.
+	 */
+	public static GridPane root;
+	/**
+	 * The grid.
+	 */
+	public static Graph graph;
+	/**
+	 * Diagonal check box to run A* with/without diagonal movement.
+	 */
+	public static CheckBox diagonal;
+	/**
+	 * Handle animation.
+	 */
+	public static Button button;
+	/**
+	 * Clear path and walls.
+	 */
+	public static Button clearButton;
+	/**
+	 * Whether to animate algorithms or not.
+	 */
+	public static CheckBox showSteps;
+	/**
+	 * Animation speed, in expansions per second.
+	 */
+	public static ComboBox<String> speed;
+	/**
+	 * Run with Jump Point Search or not.
+	 */
+	public static CheckBox jps;
+	/**
+	 * Run Jump Point Search with precomputed jump distances (JPS+) or not.
+	 */
+	public static CheckBox jpsPlus;
+	/**
+	 * Replan A* incrementally with D* Lite when walls or endpoints change, or not.
+	 */
+	public static CheckBox incremental;
+	/**
+	 * Search from both ends at once or not.
+	 */
+	public static CheckBox bidirectional;
+	/**
+	 * Run weighted A* or not.
+	 */
+	public static CheckBox weighted;
+	/**
+	 * Run anytime A* (ARA*) or not.
+	 */
+	public static CheckBox anytime;
+	/**
+	 * Inflation factor of weighted A*, and of the first round of ARA*.
+	 */
+	public static ComboBox<String> epsilon;
+	/**
+	 * Time ARA* may spend improving its path when steps are not shown.
+	 */
+	public static ComboBox<String> deadline;
+	/**
+	 * Metrics of the last run.
+	 */
+	public static Label status;
+	/**
+	 * Position in the replay of a run with steps.
+	 */
+	public static Slider scrubber;
+	/**
+	 * Button showing the next expansion of the replay.
+	 */
+	public static Button step;
+	/**
+	 * Button saving the trace of the last run with steps.
+	 */
+	public static Button saveTrace;
+	/**
+	 * Button replaying a saved trace.
+	 */
+	public static Button loadTrace;
+	/**
+	 * Size of the map, an empty one or a generated one.
+	 */
+	public static ComboBox<String> mapSize;
+	/**
+	 * Button loading a Moving AI map.
+	 */
+	public static Button loadMap;
+	/**
+	 * Start image representing start location.
+	 */
+	public static ImageView startImage;
+	/**
+	 * End image representing end location.
+	 */
+	public static ImageView endImage;
+	
+	/**
+	 * Start the application.
+	 * @param primaryStage main window
+	 */
+	public void start(Stage primaryStage) {
+		window = primaryStage;
+		createContent();
+		Scene scene = new Scene(root);
+		scene.getStylesheets().add(getClass().getResource("application.css").toExternalForm());
+		window.setResizable(false);
+		window.sizeToScene();
+		window.setScene(scene);
+		window.show();
+
+	}
+	
+	/**
+	 * Put the grid and control board on the scene.
+	 */
+	private void createContent() {
+		root = new GridPane();
+		root.setPadding(new Insets(20, 20, 20, 20));
+		root.setVgap(10);
+
+		createGrid();
+
+		createControlBoard();
+	}
+	/**
+	 * Create grids based on number of rows and number of columns.
+	 */
+	private void createGrid() {
+		startImage = new ImageView();
+		startImage.setFitHeight(20);
+		startImage.setFitWidth(20);
+		startImage.setImage(new Image("/start.png"));
+
+		endImage = new ImageView();
+		endImage.setFitHeight(20);
+		endImage.setFitWidth(20);
+		endImage.setImage(new Image("/end.png"));
+
+		graph = new Graph(VIEW_WIDTH, VIEW_HEIGHT);
+		graph.setId("grid");
+		root.add(graph, 0, 0);
+	}
+	
+	/**
+	 * Create control board to control the application.
+	 */
+	private void createControlBoard() {
+
+		GridPane control = new GridPane();
+		control.setId("control");
+		control.setVgap(10);
+		control.setHgap(10);
+		
+		showSteps = new CheckBox("Show Steps");
+		showSteps.setSelected(true);
+		control.add(showSteps, 0, 0, 1, 1);
+
+		diagonal = new CheckBox("Diagonal");
+		control.add(diagonal, 1, 0, 1, 1);
+
+		jps = new CheckBox("JPS");
+		jpsPlus = new CheckBox("JPS+");
+		jpsPlus.setDisable(true);
+		incremental = new CheckBox("D* Lite");
+		jps.setOnAction(e -> {
+			if(jps.isSelected()) {
+				diagonal.setSelected(false);
+				diagonal.setDisable(true);
+				jpsPlus.setDisable(false);
+				incremental.setSelected(false);
+				incremental.setDisable(true);
+				weighted.setSelected(false);
+				weighted.setDisable(true);
+				anytime.setSelected(false);
+				anytime.setDisable(true);
+			}
+			else {
+				diagonal.setDisable(false);
+				jpsPlus.setSelected(false);
+				jpsPlus.setDisable(true);
+				incremental.setDisable(false);
+				weighted.setDisable(false);
+				anytime.setDisable(false);
+			}
+		});
+		jpsPlus.setOnAction(e -> graph.prepareJumpPointPlus());
+		control.add(jps, 2, 0, 1, 1);
+		control.add(jpsPlus, 3, 0, 1, 1);
+		speed = new ComboBox<String>();
+		speed.getItems().addAll("1 exp/s", "10 exp/s", "50 exp/s", "500 exp/s", "5000 exp/s", "50000 exp/s", "Max");
+		speed.setValue(speed.getItems().get(2));
+		control.add(speed, 0, 1, 1, 1);
+
+		button = new Button("Run");
+		button.getStyleClass().add("button");
+		button.setOnAction(e -> handleButton());
+
+		control.add(button, 1, 1, 1,1);
+		
+		clearButton = new Button("Clear");
+		clearButton.getStyleClass().add("button");
+		clearButton.setOnAction(e -> this.clearWallAndPath());
+		control.add(clearButton, 2, 1, 1, 1);
+		control.add(incremental, 3, 1, 1, 1);
+		bidirectional = new CheckBox("Bidirectional");
+		weighted = new CheckBox("Weighted");
+		anytime = new CheckBox("ARA*");
+		// each of these picks a different A* engine
+		exclusive(incremental, bidirectional, weighted, anytime);
+		control.add(bidirectional, 4, 0, 1, 1);
+		control.add(weighted, 5, 0, 1, 1);
+		epsilon = new ComboBox<String>();
+		epsilon.getItems().addAll("1.5", "2", "3", "5");
+		epsilon.setValue(epsilon.getItems().get(1));
+		control.add(epsilon, 6, 0, 1, 1);
+		control.add(anytime, 4, 1, 1, 1);
+		deadline = new ComboBox<String>();
+		deadline.getItems().addAll("1 ms", "5 ms", "20 ms");
+		deadline.setValue(deadline.getItems().get(1));
+		control.add(deadline, 5, 1, 1, 1);
+		scrubber = new Slider();
+		scrubber.setDisable(true);
+		scrubber.valueProperty().addListener((observable, oldValue, newValue) -> graph.seek(newValue.intValue()));
+		control.add(scrubber, 0, 2, 3, 1);
+		step = new Button("Step");
+		step.getStyleClass().add("button");
+		step.setDisable(true);
+		step.setOnAction(e -> graph.step());
+		control.add(step, 3, 2, 1, 1);
+		saveTrace = new Button("Save Trace");
+		saveTrace.getStyleClass().add("button");
+		saveTrace.setDisable(true);
+		saveTrace.setOnAction(e -> saveTrace());
+		control.add(saveTrace, 4, 2, 1, 1);
+		loadTrace = new Button("Load Trace");
+		loadTrace.getStyleClass().add("button");
+		loadTrace.setOnAction(e -> loadTrace());
+		control.add(loadTrace, 5, 2, 1, 1);
+		// a replay can change speed at any time
+		speed.setOnAction(e -> graph.setReplaySpeed(mapSpeed()));
+		mapSize = new ComboBox<String>();
+		mapSize.getItems().addAll("30x40", "256x256", "1024x1024", "4096x4096");
+		mapSize.setValue(mapSize.getItems().get(0));
+		mapSize.setOnAction(e -> newMap());
+		control.add(mapSize, 6, 1, 1, 1);
+		loadMap = new Button("Load Map");
+		loadMap.getStyleClass().add("button");
+		loadMap.setOnAction(e -> loadMap());
+		control.add(loadMap, 6, 2, 1, 1);
+		status = new Label();
+		status.setId("status");
+		control.add(status, 0, 3, 7, 1);
+		
+		root.add(control, 0, 1);
+		newMap();
+	}
+	/**
+	 * Let at most one of some check boxes be selected.
+	 * @param boxes check boxes
+	 */
+	private void exclusive(CheckBox... boxes) {
+		for (CheckBox box : boxes) {
+			box.setOnAction(e -> {
+				if (box.isSelected()) {
+					for (CheckBox other : boxes) {
+						if (other != box) {
+							other.setSelected(false);
+						}
+					}
+				}
+			});
+		}
+	}
+	/**
+	 * Main method to run the application.
+	 * @param args command line arguments.
+	 */
+	public static void main(String[] args) {
+		launch(args);
+	}
+	/**
+	 * Handle the button.
+	 */
+	private void handleButton() {
+		if (button.getText().equals("Run")) {
+			if(jps.isSelected()) {
+				if(showSteps.isSelected()) {
+					graph.jps(mapSpeed());
+					play();
+				}
+				else {
+					graph.jpsNoSteps();
+				}
+			} else {
+				if(showSteps.isSelected()) {
+					graph.AStarSearch(mapSpeed());
+					play();
+				}
+				else {
+					graph.aStarNoSteps();
+				}
+			}
+		} else if (button.getText().equals("Pause")) {
+			graph.pause();
+			button.setText("Resume");
+		} else if (button.getText().equals("Resume")) {
+			graph.resume();
+			button.setText("Pause");
+		}
+	}
+	/**
+	 * Start playing the replay set up by the graph.
+	 */
+	private void play() {
+		clearButton.setDisable(true);
+		mapSize.setDisable(true);
+		loadMap.setDisable(true);
+		graph.resume();
+		button.setText("Pause");
+	}
+	/**
+	 * Save the trace of the last run with steps to a file chosen by the user.
+	 */
+	private void saveTrace() {
+		SearchTrace trace = graph.getTrace();
+		if (trace == null) {
+			return;
+		}
+		FileChooser chooser = traceChooser();
+		chooser.setInitialFileName("search.trace");
+		File file = chooser.showSaveDialog(window);
+		if (file == null) {
+			return;
+		}
+		try {
+			trace.save(file.toPath());
+		} catch (IOException e) {
+			status.setText("Cannot save trace: " + e.getMessage());
+		}
+	}
+	/**
+	 * Replay a trace file chosen by the user.
+	 */
+	private void loadTrace() {
+		if (!button.getText().equals("Run")) {
+			return;
+		}
+		File file = traceChooser().showOpenDialog(window);
+		if (file == null) {
+			return;
+		}
+		try {
+			SearchTrace trace = SearchTrace.load(file.toPath());
+			graph.replay(trace, mapSpeed());
+			play();
+		} catch (IOException e) {
+			status.setText("Cannot load trace: " + e.getMessage());
+		}
+	}
+	/**
+	 * Show a map of the size selected, empty for the smallest size, generated rooms for the others.
+	 */
+	private void newMap() {
+		if (!button.getText().equals("Run")) {
+			return;
+		}
+		String[] size = mapSize.getValue().split("x");
+		int rows = Integer.parseInt(size[0]);
+		int cols = Integer.parseInt(size[1]);
+		if (mapSize.getValue().equals(mapSize.getItems().get(0))) {
+			graph.setMap(new GridMap(rows, cols));
+		} else {
+			graph.setMap(MapGenerator.generate(MapGenerator.Style.ROOMS, rows, cols, 0.1, MAP_SEED));
+		}
+		status.setText("");
+	}
+	/**
+	 * Show a Moving AI map file chosen by the user.
+	 */
+	private void loadMap() {
+		if (!button.getText().equals("Run")) {
+			return;
+		}
+		FileChooser chooser = new FileChooser();
+		chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Moving AI maps", "*.map"));
+		File file = chooser.showOpenDialog(window);
+		if (file == null) {
+			return;
+		}
+		try {
+			graph.setMap(MovingAiLoader.readMap(file.toPath()));
+			GridMap map = graph.getMap();
+			status.setText(file.getName() + ", " + map.getRows() + "x" + map.getCols());
+		} catch (IOException e) {
+			status.setText("Cannot load map: " + e.getMessage());
+		}
+	}
+	/**
+	 * Create a file chooser for trace files.
+	 * @return the chooser
+	 */
+	private FileChooser traceChooser() {
+		FileChooser chooser = new FileChooser();
+		chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Search traces", "*.trace"));
+		return chooser;
+	}
+	/**
+	 * Map speed for A* and Jump Point Search.
+	 * @return expansions per second, infinity for as many as a frame has time for
+	 */
+	private double mapSpeed() {
+		if (speed.getValue().equals("Max")) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return Double.parseDouble(speed.getValue().split(" ")[0]);
+	}
+	/**
+	 * Clear path and walls.
+	 */
+	private void clearWallAndPath() {
+		graph.clearWalls();
+		graph.cleanUp();
+	}
+}
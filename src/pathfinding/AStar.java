@@ -0,0 +1,97 @@
+package pathfinding;
+
+/**
+ * A* pathfinding. With a weight above 1 it runs weighted A*, which inflates the heuristic so the search heads for
+ * the goal more greedily. It expands fewer nodes and the path costs at most weight times the shortest one.
+ * @author ducda
+ *
+ */
+public class AStar extends PathFinder {
+	/**
+	 * Whether diagonal movement is allowed.
+	 */
+	private boolean diagonal;
+	/**
+	 * Factor the heuristic is multiplied by, 1 for plain A*.
+	 */
+	private double weight = 1;
+
+	/**
+	 * Constructor.
+	 * @param map map to search on
+	 * @param diagonal whether diagonal movement is allowed
+	 */
+	public AStar(GridMap map, boolean diagonal) {
+		super(map);
+		this.diagonal = diagonal;
+	}
+
+	/**
+	 * Allow or forbid diagonal movement.
+	 * @param diagonal whether diagonal movement is allowed
+	 */
+	public void setDiagonal(boolean diagonal) {
+		this.diagonal = diagonal;
+	}
+
+	/**
+	 * Set the factor the heuristic is multiplied by.
+	 * @param weight weight, at least 1, 1 to find shortest paths
+	 */
+	public void setWeight(double weight) {
+		if (!(weight >= 1)) {
+			throw new IllegalArgumentException("Weight must be at least 1: " + weight);
+		}
+		this.weight = weight;
+	}
+
+	/**
+	 * Get the factor the heuristic is multiplied by.
+	 * @return weight
+	 */
+	public double getWeight() {
+		return weight;
+	}
+
+	@Override
+	public String searchKey() {
+		String key = diagonal ? "AStar" : "AStar4";
+		return weight == 1 ? key : key + "w" + weight;
+	}
+
+	@Override
+	protected Heuristic defaultHeuristic() {
+		return Heuristic.forMovement(diagonal);
+	}
+
+	@Override
+	protected void expand() {
+		int current = ctx.open.pop();
+		ctx.close(current);
+		if (listener != null) {
+			listener.nodeClosed(current);
+		}
+		if (current == goal) {
+			finished = true;
+			return;
+		}
+		double currentCost = ctx.g[current];
+		int mask = map.neighborMask(current, diagonal);
+		while (mask != 0) {
+			int dir = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+			int neighbor = map.neighbor(current, dir);
+			if (ctx.isClosed(neighbor)) {
+				continue;
+			}
+			double newCost = currentCost + map.getMoveCost(current, dir);
+			if (newCost >= ctx.g(neighbor)) {
+				continue;
+			}
+			open(neighbor, newCost, newCost + weight * heuristicCost(neighbor), current);
+			if (listener != null) {
+				listener.nodeOpened(neighbor, current);
+			}
+		}
+	}
+}
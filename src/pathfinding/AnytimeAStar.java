@@ -0,0 +1,289 @@
+package pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Anytime Repairing A* (ARA*). Runs weighted A* with a large inflation factor to find a first path quickly, then
+ * lowers the factor step by step down to 1, each time reusing the scores found so far instead of searching again.
+ * Nodes whose G score drops after they were expanded in the current round are kept aside and only put back on
+ * the open list for the next round, so no node is expanded twice in a round.
+ * <p>
+ * After every round the engine knows a bound on how far its path may be from the shortest one. Callers with a
+ * time budget use {@link #improve(long)} and take whatever path is best when the deadline comes.
+ * @author ducda
+ *
+ */
+public class AnytimeAStar extends PathFinder {
+	/**
+	 * Whether diagonal movement is allowed.
+	 */
+	private boolean diagonal;
+	/**
+	 * Inflation factor of the first round.
+	 */
+	private double initialEpsilon = 2.5;
+	/**
+	 * Amount the inflation factor goes down after each round.
+	 */
+	private double epsilonStep = 0.5;
+	/**
+	 * Inflation factor of the current round.
+	 */
+	private double epsilon;
+	/**
+	 * Bound on the cost of the best path found over the cost of the shortest one, infinity before the first path.
+	 */
+	private double bound;
+	/**
+	 * Number of rounds finished in the current search.
+	 */
+	private int rounds;
+	/**
+	 * Round in which each cell was expanded.
+	 */
+	private int[] closedIn;
+	/**
+	 * Round in which each cell was set aside.
+	 */
+	private int[] inconsIn;
+	/**
+	 * Cells whose G score dropped after they were expanded in the current round.
+	 */
+	private int[] incons;
+	/**
+	 * Number of cells set aside.
+	 */
+	private int inconsCount;
+	/**
+	 * Stamp of the current round, unique across searches.
+	 */
+	private int round;
+
+	/**
+	 * Constructor.
+	 * @param map map to search on
+	 * @param diagonal whether diagonal movement is allowed
+	 */
+	public AnytimeAStar(GridMap map, boolean diagonal) {
+		super(map);
+		this.diagonal = diagonal;
+	}
+
+	/**
+	 * Allow or forbid diagonal movement.
+	 * @param diagonal whether diagonal movement is allowed
+	 */
+	public void setDiagonal(boolean diagonal) {
+		this.diagonal = diagonal;
+	}
+
+	/**
+	 * Set how the inflation factor goes down.
+	 * @param initialEpsilon factor of the first round, at least 1
+	 * @param epsilonStep amount it goes down after each round, more than 0
+	 */
+	public void setEpsilon(double initialEpsilon, double epsilonStep) {
+		if (!(initialEpsilon >= 1) || !(epsilonStep > 0)) {
+			throw new IllegalArgumentException("Bad inflation schedule: " + initialEpsilon + ", " + epsilonStep);
+		}
+		this.initialEpsilon = initialEpsilon;
+		this.epsilonStep = epsilonStep;
+	}
+
+	/**
+	 * Get the inflation factor of the current round.
+	 * @return inflation factor
+	 */
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * Get how far the best path found so far may be from the shortest one.
+	 * @return bound on its cost over the shortest cost, 1 once it is known to be the shortest, infinity before
+	 * the first path is found
+	 */
+	public double getBound() {
+		return bound;
+	}
+
+	/**
+	 * Get the number of rounds finished in the current search.
+	 * @return number of rounds, each one found a path at least as good as the one before
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	@Override
+	public String searchKey() {
+		return diagonal ? "AnytimeAStar" : "AnytimeAStar4";
+	}
+
+	@Override
+	protected Heuristic defaultHeuristic() {
+		return Heuristic.forMovement(diagonal);
+	}
+
+	@Override
+	protected void initSearch() {
+		super.initSearch();
+		if (closedIn == null || closedIn.length != map.size()) {
+			closedIn = new int[map.size()];
+			inconsIn = new int[map.size()];
+			incons = new int[map.size()];
+			round = 0;
+		}
+		nextRoundStamp();
+		inconsCount = 0;
+		epsilon = initialEpsilon;
+		bound = Double.POSITIVE_INFINITY;
+		rounds = 0;
+	}
+
+	/**
+	 * Find a path, improving it until it is the shortest or the deadline passes. The first search on a map also
+	 * allocates the per-cell arrays, which the deadline does not account for.
+	 * @param start start cell
+	 * @param goal end cell
+	 * @param deadline value of {@link System#nanoTime()} to stop at
+	 * @return best path found, empty if no path was found in time
+	 */
+	public PathResult findPath(int start, int goal, long deadline) {
+		begin(start, goal);
+		PathResult result = improve(deadline);
+		report(result);
+		return result;
+	}
+
+	/**
+	 * Keep improving the path of the current search until it is the shortest or the deadline passes. Can be
+	 * called again with a later deadline, e.g. once per frame. The limits and cancel token of the engine apply
+	 * too, across all calls for the same search. Callers that use it directly call {@link #report(PathResult)}
+	 * once they are done.
+	 * @param deadline value of {@link System#nanoTime()} to stop at
+	 * @return best path found, the best partial path if the search was stopped before finding one
+	 */
+	public PathResult improve(long deadline) {
+		SearchStatus stopped = null;
+		int count = 0;
+		while (!finished && (stopped = checkLimits(count)) == null && step()) {
+			if (++count % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline >= 0) {
+				break;
+			}
+		}
+		if (stopped == null && !finished) {
+			// the deadline passed
+			stopped = SearchStatus.BUDGET_EXCEEDED;
+		}
+		return stopped != null ? partialResult(stopped) : result();
+	}
+
+	@Override
+	protected PathResult partialResult(SearchStatus status) {
+		// a path from an earlier round beats any partial one
+		return rounds > 0 ? result() : super.partialResult(status);
+	}
+
+	@Override
+	public boolean step() {
+		if (finished) {
+			return false;
+		}
+		if (ctx.open.isEmpty() || ctx.g(goal) <= ctx.open.getKey(ctx.open.peek())) {
+			endRound();
+			return !finished;
+		}
+		expansions++;
+		expand();
+		return true;
+	}
+
+	@Override
+	protected void expand() {
+		int current = ctx.open.pop();
+		closedIn[current] = round;
+		if (listener != null) {
+			listener.nodeClosed(current);
+		}
+		double currentCost = ctx.g[current];
+		int mask = map.neighborMask(current, diagonal);
+		while (mask != 0) {
+			int dir = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+			int neighbor = map.neighbor(current, dir);
+			double newCost = currentCost + map.getMoveCost(current, dir);
+			if (newCost >= ctx.g(neighbor)) {
+				continue;
+			}
+			if (closedIn[neighbor] != round) {
+				open(neighbor, newCost, newCost + epsilon * heuristicCost(neighbor), current);
+			} else {
+				// already expanded this round, wait for the next one
+				generated++;
+				ctx.set(neighbor, newCost, newCost + epsilon * heuristicCost(neighbor), current);
+				if (inconsIn[neighbor] != round) {
+					inconsIn[neighbor] = round;
+					incons[inconsCount++] = neighbor;
+				}
+			}
+			if (listener != null) {
+				listener.nodeOpened(neighbor, current);
+			}
+		}
+	}
+
+	/**
+	 * Finish a round: compute the bound of its path, then either stop or lower the inflation factor and put every
+	 * open or set aside cell back on the open list with its new key.
+	 */
+	private void endRound() {
+		double pathCost = ctx.g(goal);
+		if (pathCost == Double.POSITIVE_INFINITY) {
+			// the open list ran out, there is no path at all
+			finished = true;
+			return;
+		}
+		rounds++;
+		// every cell whose score may still drop is on the open list or set aside
+		int count = 0;
+		while (!ctx.open.isEmpty()) {
+			incons[inconsCount + count++] = ctx.open.pop();
+		}
+		count += inconsCount;
+		double lowest = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			int vertex = incons[i];
+			lowest = Math.min(lowest, ctx.g[vertex] + heuristicCost(vertex));
+		}
+		// with nothing left to improve the path is known to be the shortest
+		bound = pathCost <= lowest ? 1 : Math.min(epsilon, pathCost / lowest);
+		if (epsilon == 1 || bound == 1) {
+			finished = true;
+			return;
+		}
+
+		epsilon = Math.max(1, epsilon - epsilonStep);
+		nextRoundStamp();
+		inconsCount = 0;
+		for (int i = 0; i < count; i++) {
+			int vertex = incons[i];
+			double gScore = ctx.g[vertex];
+			double fScore = gScore + epsilon * heuristicCost(vertex);
+			ctx.f[vertex] = fScore;
+			ctx.open.push(vertex, fScore, tieBreaking.key(gScore));
+		}
+	}
+
+	/**
+	 * Move on to a new round stamp, so cells expanded or set aside before read as neither.
+	 */
+	private void nextRoundStamp() {
+		round++;
+		if (round == Integer.MAX_VALUE) {
+			Arrays.fill(closedIn, 0);
+			Arrays.fill(inconsIn, 0);
+			round = 1;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package pathfinding;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Runs many path queries in parallel on a fork-join pool. Engines are not thread safe, so each task borrows its
+ * own engine, with its search context, from a pool and gives it back when done. Engines are created on demand
+ * and reused by later batches, so there are about as many as worker threads.
+ * <p>
+ * The engines must search a map that does not change during the batch, e.g. a {@link GridMap#snapshot()}.
+ * Engines may share read-only data such as a {@link JumpTable} built on that snapshot.
+ * @author ducda
+ *
+ */
+public class BatchSearch {
+	/**
+	 * Smallest number of queries a task splits into.
+	 */
+	private static final int MIN_CHUNK = 16;
+	/**
+	 * Creates engines for the pool.
+	 */
+	private final Supplier<? extends PathFinder> factory;
+	/**
+	 * Engines not in use.
+	 */
+	private final ConcurrentLinkedQueue<PathFinder> idle = new ConcurrentLinkedQueue<>();
+	/**
+	 * Pool the queries run on.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructor, queries run on the common pool.
+	 * @param factory creates an engine searching the batch map
+	 */
+	public BatchSearch(Supplier<? extends PathFinder> factory) {
+		this(factory, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor.
+	 * @param factory creates an engine searching the batch map
+	 * @param pool pool the queries run on
+	 */
+	public BatchSearch(Supplier<? extends PathFinder> factory, ForkJoinPool pool) {
+		this.factory = factory;
+		this.pool = pool;
+	}
+
+	/**
+	 * Find a path for each pair of start and goal.
+	 * @param starts start cell of each query
+	 * @param goals goal cell of each query
+	 * @return path of each query, in the same order
+	 */
+	public PathResult[] findPaths(int[] starts, int[] goals) {
+		if (starts.length != goals.length) {
+			throw new IllegalArgumentException("Need as many starts as goals");
+		}
+		PathResult[] results = new PathResult[starts.length];
+		// a few chunks per thread so threads that finish early can steal work
+		int chunk = Math.max(MIN_CHUNK, starts.length / (pool.getParallelism() * 8));
+		pool.invoke(new Task(starts, goals, results, 0, starts.length, chunk));
+		return results;
+	}
+
+	/**
+	 * Take an idle engine from the pool, or create one.
+	 * @return engine only used by the caller until it is given back
+	 */
+	private PathFinder borrow() {
+		PathFinder finder = idle.poll();
+		return finder != null ? finder : factory.get();
+	}
+
+	/**
+	 * Queries of a range, split in halves until small enough to run on one engine.
+	 */
+	private class Task extends RecursiveAction {
+		/**
+		 * Serial version.
+		 */
+		private static final long serialVersionUID = 1L;
+		/**
+		 * Start cell of each query.
+		 */
+		private final int[] starts;
+		/**
+		 * Goal cell of each query.
+		 */
+		private final int[] goals;
+		/**
+		 * Path of each query.
+		 */
+		private final PathResult[] results;
+		/**
+		 * First query of the range.
+		 */
+		private final int from;
+		/**
+		 * End of the range, exclusive.
+		 */
+		private final int to;
+		/**
+		 * Number of queries below which the range is not split.
+		 */
+		private final int chunk;
+
+		/**
+		 * Constructor.
+		 * @param starts start cell of each query
+		 * @param goals goal cell of each query
+		 * @param results path of each query
+		 * @param from first query of the range
+		 * @param to end of the range, exclusive
+		 * @param chunk number of queries below which the range is not split
+		 */
+		Task(int[] starts, int[] goals, PathResult[] results, int from, int to, int chunk) {
+			this.starts = starts;
+			this.goals = goals;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > chunk) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Task(starts, goals, results, from, mid, chunk),
+						new Task(starts, goals, results, mid, to, chunk));
+				return;
+			}
+			PathFinder finder = borrow();
+			try {
+				for (int i = from; i < to; i++) {
+					results[i] = finder.findPath(starts[i], goals[i]);
+				}
+			} finally {
+				idle.offer(finder);
+			}
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package pathfinding;
+
+/**
+ * Bidirectional search. Runs a forward engine from the start and a backward engine from the goal, always
+ * expanding the side with the smaller open list. Every node reached by both sides gives a path, the cheapest one
+ * so far is kept. Both engines must be of the same kind, e.g. two {@link AStar} or two {@link JumpPointSearch},
+ * and moves must cost the same in both directions.
+ * <p>
+ * When both sides search the same graph, as A* does, the search is balanced: each side's heuristic is half its
+ * distance to its goal minus half its distance to its root, so both sides work on the same reduced costs and the
+ * search can stop as soon as the lowest F scores of the two open lists add up to the best cost. JPS prunes
+ * differently in each direction, so it keeps its usual heuristic and stops once the lowest F score of either
+ * side is not below the best cost. That pays off mostly when one end sits in a pocket the smaller side soon
+ * runs out of.
+ * <p>
+ * When the search is done, the backward half of the best path is copied into the forward engine, so parents
+ * lead from the goal back to the start as with a one-way search.
+ * @author ducda
+ *
+ */
+public class BidirectionalSearch extends PathFinder {
+	/**
+	 * Engine searching from the start.
+	 */
+	private final PathFinder forward;
+	/**
+	 * Engine searching from the goal.
+	 */
+	private final PathFinder backward;
+	/**
+	 * Whether both sides use balanced heuristics.
+	 */
+	private final boolean balanced;
+	/**
+	 * Cost of the best path found so far.
+	 */
+	private double bestCost;
+	/**
+	 * Node where the best path so far goes from the forward side to the backward side, -1 if there is none.
+	 */
+	private int meet;
+
+	/**
+	 * Constructor.
+	 * @param forward engine searching from the start
+	 * @param backward engine of the same kind searching from the goal, on the same map
+	 * @param balanced whether to balance the heuristics, only valid if both directions search the same graph
+	 * @throws IllegalArgumentException if the map has a cost layer with other costs than 1
+	 */
+	public BidirectionalSearch(PathFinder forward, PathFinder backward, boolean balanced) {
+		super(forward.getMap());
+		if (!map.hasUnitCosts()) {
+			// a move costs what the cell it enters costs, so it costs something else the other way
+			throw new IllegalArgumentException("Bidirectional search needs every cell to cost 1");
+		}
+		this.forward = forward;
+		this.backward = backward;
+		this.balanced = balanced;
+		forward.setListener(new HalfListener(forward, backward));
+		backward.setListener(new HalfListener(backward, forward));
+	}
+
+	@Override
+	public String searchKey() {
+		return "Bidirectional" + forward.searchKey();
+	}
+
+	@Override
+	public void setHeuristic(Heuristic heuristic) {
+		forward.setHeuristic(heuristic);
+		backward.setHeuristic(heuristic);
+	}
+
+	@Override
+	public void setTieBreaking(TieBreaking tieBreaking) {
+		forward.setTieBreaking(tieBreaking);
+		backward.setTieBreaking(tieBreaking);
+	}
+
+	@Override
+	boolean opensJumpPoints() {
+		return forward.opensJumpPoints();
+	}
+
+	@Override
+	protected Heuristic defaultHeuristic() {
+		return forward.defaultHeuristic();
+	}
+
+	@Override
+	protected void initSearch() {
+		forward.balanceRoot = balanced ? start : -1;
+		backward.balanceRoot = balanced ? goal : -1;
+		forward.begin(start, goal);
+		backward.begin(goal, start);
+		bestCost = Double.POSITIVE_INFINITY;
+		meet = -1;
+	}
+
+	@Override
+	public boolean step() {
+		if (finished) {
+			return false;
+		}
+		if (forward.isFinished() || backward.isFinished() || forward.ctx.open.isEmpty()
+				|| backward.ctx.open.isEmpty()) {
+			finish();
+			return false;
+		}
+		double forwardMin = forward.ctx.f(forward.ctx.open.peek());
+		double backwardMin = backward.ctx.f(backward.ctx.open.peek());
+		if (balanced ? forwardMin + backwardMin >= bestCost : Math.max(forwardMin, backwardMin) >= bestCost) {
+			finish();
+			return false;
+		}
+		expansions++;
+		expand();
+		return true;
+	}
+
+	@Override
+	protected void expand() {
+		PathFinder side = forward.ctx.open.size() <= backward.ctx.open.size() ? forward : backward;
+		side.step();
+		if (side.isFinished()) {
+			// the side popped the other root, or ran out of nodes and there is no path
+			meet(side.goal, side, side == forward ? backward : forward);
+		}
+	}
+
+	@Override
+	public int getParent(int vertex) {
+		return forward.getParent(vertex);
+	}
+
+	@Override
+	protected PathResult searchResult() {
+		if (meet == -1) {
+			return new PathResult(new int[0], Double.POSITIVE_INFINITY);
+		}
+		return forward.result();
+	}
+
+	@Override
+	protected PathResult partialResult(SearchStatus status) {
+		return forward.partialResult(status);
+	}
+
+	@Override
+	protected int openSize() {
+		return forward.openSize() + backward.openSize();
+	}
+
+	@Override
+	protected void collectMetrics(SearchMetrics metrics) {
+		forward.collectMetrics(metrics);
+		backward.collectMetrics(metrics);
+	}
+
+	/**
+	 * Record a path through a node reached by both sides, if it is the best so far.
+	 * @param vertex node reached by both sides
+	 * @param side engine that reached it last
+	 * @param other the other engine
+	 */
+	private void meet(int vertex, PathFinder side, PathFinder other) {
+		double cost = side.ctx.g(vertex) + other.ctx.g(vertex);
+		if (cost < bestCost) {
+			bestCost = cost;
+			meet = vertex;
+		}
+	}
+
+	/**
+	 * End the search and copy the backward half of the best path into the forward engine.
+	 */
+	private void finish() {
+		finished = true;
+		if (meet == -1) {
+			return;
+		}
+		double meetForward = forward.ctx.g(meet);
+		double meetBackward = backward.ctx.g(meet);
+		int current = meet;
+		int next = backward.ctx.parent(current);
+		while (next != -1) {
+			double g = meetForward + meetBackward - backward.ctx.g(next);
+			forward.ctx.set(next, g, g, current);
+			current = next;
+			next = backward.ctx.parent(current);
+		}
+	}
+
+	/**
+	 * Listener of one side. Forwards its events and looks for nodes reached by both sides.
+	 */
+	private class HalfListener implements SearchListener {
+		/**
+		 * Engine this listener belongs to.
+		 */
+		private final PathFinder side;
+		/**
+		 * The other engine.
+		 */
+		private final PathFinder other;
+
+		/**
+		 * Constructor.
+		 * @param side engine this listener belongs to
+		 * @param other the other engine
+		 */
+		HalfListener(PathFinder side, PathFinder other) {
+			this.side = side;
+			this.other = other;
+		}
+
+		@Override
+		public void nodeOpened(int vertex, int parent) {
+			if (other.ctx.isSeen(vertex)) {
+				meet(vertex, side, other);
+			}
+			if (listener != null) {
+				listener.nodeOpened(vertex, parent);
+			}
+		}
+
+		@Override
+		public void nodeClosed(int vertex) {
+			if (other.ctx.isSeen(vertex)) {
+				meet(vertex, side, other);
+			}
+			if (listener != null) {
+				listener.nodeClosed(vertex);
+			}
+		}
+	}
+}
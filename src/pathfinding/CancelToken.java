@@ -0,0 +1,29 @@
+package pathfinding;
+
+/**
+ * Lets another thread stop a running search. The search checks the token between expansions and ends with
+ * {@link SearchStatus#CANCELLED}.
+ * @author ducda
+ *
+ */
+public class CancelToken {
+	/**
+	 * Whether the search should stop.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * Ask the searches using this token to stop.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Whether the searches using this token were asked to stop.
+	 * @return true if they were, false otherwise
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
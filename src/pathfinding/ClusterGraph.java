@@ -0,0 +1,610 @@
+package pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Abstract graph for hierarchical pathfinding (HPA*). The map is split into square clusters. Where two clusters
+ * touch, every run of open cell pairs across their border gets one transition, or two at its ends if the run is
+ * long. The cells on either side of a transition are the entrances of their clusters, and the distance between
+ * every two entrances of a cluster is precomputed by a search that stays inside the cluster.
+ * <p>
+ * Once attached with {@link #attach()}, the graph listens to its map. A changed wall only marks its cluster dirty,
+ * plus the clusters across the border when the cell lies on one, and dirty clusters are rebuilt by
+ * {@link #update()} before the next query. A graph that is not attached marks every cluster dirty there once the
+ * walls changed.
+ * @author ducda
+ *
+ */
+public class ClusterGraph implements MapListener {
+	/**
+	 * Cluster side that works well on large maps: bigger clusters mean fewer abstract nodes per query but more
+	 * entrances to link and a slower rebuild.
+	 */
+	public static final int DEFAULT_CLUSTER_SIZE = 32;
+	/**
+	 * Runs of open cell pairs at least this long get a transition at each end instead of one in the middle.
+	 */
+	private static final int SPLIT_LENGTH = 6;
+	/**
+	 * Map the graph is built on.
+	 */
+	private final GridMap map;
+	/**
+	 * Side of a cluster in cells.
+	 */
+	private final int clusterSize;
+	/**
+	 * Whether diagonal movement is allowed.
+	 */
+	private final boolean diagonal;
+	/**
+	 * Number of cluster rows.
+	 */
+	private final int clusterRows;
+	/**
+	 * Number of cluster columns.
+	 */
+	private final int clusterCols;
+	/**
+	 * Entrance cells of each cluster.
+	 */
+	private final int[][] entrances;
+	/**
+	 * Cells across the border from each entrance, at the same index as the entrance.
+	 */
+	private final int[][][] partners;
+	/**
+	 * Distance between the entrances of each cluster, from entrance i to entrance j at index i * n + j, infinity
+	 * if one cannot be reached from the other inside the cluster.
+	 */
+	private final double[][] distances;
+	/**
+	 * Whether each cluster needs to be rebuilt.
+	 */
+	private final boolean[] dirty;
+	/**
+	 * Number of dirty clusters.
+	 */
+	private int dirtyCount;
+	/**
+	 * Search used to compute the distances inside a cluster.
+	 */
+	private final LocalSearch local;
+	/**
+	 * Transitions of the cluster being built, as (inside cell, outside cell) pairs.
+	 */
+	private int[] pairs = new int[16];
+	/**
+	 * Number of values in pairs.
+	 */
+	private int pairCount;
+	/**
+	 * Whether the graph listens to its map.
+	 */
+	private boolean attached;
+	/**
+	 * Version of the walls the clusters were last built for, while the graph is not attached.
+	 */
+	private long syncedVersion;
+
+	/**
+	 * Constructor. Builds every cluster. The graph does not listen to the map until {@link #attach()} is called.
+	 * @param map map to build the graph on
+	 * @param clusterSize side of a cluster in cells
+	 * @param diagonal whether diagonal movement is allowed
+	 */
+	public ClusterGraph(GridMap map, int clusterSize, boolean diagonal) {
+		if (clusterSize < 2) {
+			throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+		}
+		this.map = map;
+		this.clusterSize = clusterSize;
+		this.diagonal = diagonal;
+		clusterRows = (map.getRows() + clusterSize - 1) / clusterSize;
+		clusterCols = (map.getCols() + clusterSize - 1) / clusterSize;
+		int count = clusterRows * clusterCols;
+		entrances = new int[count][];
+		partners = new int[count][][];
+		distances = new double[count][];
+		dirty = new boolean[count];
+		local = new LocalSearch(clusterSize);
+		for (int k = 0; k < count; k++) {
+			build(k);
+		}
+		syncedVersion = map.getVersion();
+	}
+
+	/**
+	 * Start listening to the map, so a wall change only marks the clusters it affects.
+	 * @return this graph
+	 */
+	public ClusterGraph attach() {
+		if (!attached) {
+			catchUp();
+			map.addListener(this);
+			attached = true;
+		}
+		return this;
+	}
+
+	/**
+	 * Stop listening to the map. Every cluster is then rebuilt once the walls change.
+	 */
+	public void close() {
+		map.removeListener(this);
+		attached = false;
+		syncedVersion = map.getVersion();
+	}
+
+	/**
+	 * Mark every cluster dirty if the walls changed while the graph was not listening.
+	 */
+	private void catchUp() {
+		long version = map.getVersion();
+		if (version != syncedVersion) {
+			for (int clusterRow = 0; clusterRow < clusterRows; clusterRow++) {
+				for (int clusterCol = 0; clusterCol < clusterCols; clusterCol++) {
+					markDirty(clusterRow, clusterCol);
+				}
+			}
+			syncedVersion = version;
+		}
+	}
+
+	/**
+	 * Get the map the graph is built on.
+	 * @return the map
+	 */
+	public GridMap getMap() {
+		return map;
+	}
+
+	/**
+	 * Get the side of a cluster.
+	 * @return side in cells
+	 */
+	public int getClusterSize() {
+		return clusterSize;
+	}
+
+	/**
+	 * Whether diagonal movement is allowed.
+	 * @return true if it is allowed, false otherwise
+	 */
+	public boolean isDiagonal() {
+		return diagonal;
+	}
+
+	/**
+	 * Get the number of clusters.
+	 * @return number of clusters
+	 */
+	public int clusterCount() {
+		return entrances.length;
+	}
+
+	/**
+	 * Get the cluster a cell belongs to.
+	 * @param vertex cell id
+	 * @return cluster index
+	 */
+	public int cluster(int vertex) {
+		return map.row(vertex) / clusterSize * clusterCols + map.col(vertex) / clusterSize;
+	}
+
+	/**
+	 * Get the entrance cells of a cluster.
+	 * @param cluster cluster index
+	 * @return entrance cells, not to be modified
+	 */
+	public int[] entrances(int cluster) {
+		return entrances[cluster];
+	}
+
+	/**
+	 * Get the position of a cell among the entrances of its cluster.
+	 * @param cluster cluster index
+	 * @param vertex cell id
+	 * @return entrance index, -1 if the cell is not an entrance
+	 */
+	public int entranceIndex(int cluster, int vertex) {
+		int[] cells = entrances[cluster];
+		for (int i = 0; i < cells.length; i++) {
+			if (cells[i] == vertex) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the cells across the border from an entrance.
+	 * @param cluster cluster index
+	 * @param index entrance index
+	 * @return cells in the neighboring clusters, not to be modified
+	 */
+	public int[] partners(int cluster, int index) {
+		return partners[cluster][index];
+	}
+
+	/**
+	 * Get the distance between two entrances of a cluster.
+	 * @param cluster cluster index
+	 * @param from index of the first entrance
+	 * @param to index of the second entrance
+	 * @return distance inside the cluster, infinity if there is no path
+	 */
+	public double distance(int cluster, int from, int to) {
+		return distances[cluster][from * entrances[cluster].length + to];
+	}
+
+	/**
+	 * Rebuild the clusters whose walls changed.
+	 */
+	public void update() {
+		if (!attached) {
+			catchUp();
+		}
+		if (dirtyCount == 0) {
+			return;
+		}
+		for (int k = 0; k < dirty.length; k++) {
+			if (dirty[k]) {
+				build(k);
+				dirty[k] = false;
+			}
+		}
+		dirtyCount = 0;
+	}
+
+	@Override
+	public void wallChanged(int row, int col, boolean isWall) {
+		int clusterRow = row / clusterSize;
+		int clusterCol = col / clusterSize;
+		markDirty(clusterRow, clusterCol);
+		// a cell on a border changes the transitions, and so the entrances of the cluster across it
+		if (row % clusterSize == 0) {
+			markDirty(clusterRow - 1, clusterCol);
+		}
+		if (row % clusterSize == clusterSize - 1) {
+			markDirty(clusterRow + 1, clusterCol);
+		}
+		if (col % clusterSize == 0) {
+			markDirty(clusterRow, clusterCol - 1);
+		}
+		if (col % clusterSize == clusterSize - 1) {
+			markDirty(clusterRow, clusterCol + 1);
+		}
+	}
+
+	/**
+	 * Mark a cluster to be rebuilt.
+	 * @param clusterRow cluster row, may be out of range
+	 * @param clusterCol cluster column, may be out of range
+	 */
+	private void markDirty(int clusterRow, int clusterCol) {
+		if (clusterRow < 0 || clusterCol < 0 || clusterRow >= clusterRows || clusterCol >= clusterCols) {
+			return;
+		}
+		int k = clusterRow * clusterCols + clusterCol;
+		if (!dirty[k]) {
+			dirty[k] = true;
+			dirtyCount++;
+		}
+	}
+
+	/**
+	 * Find the entrances of a cluster and the distances between them.
+	 * @param k cluster index
+	 */
+	private void build(int k) {
+		int top = k / clusterCols * clusterSize;
+		int left = k % clusterCols * clusterSize;
+		int bottom = Math.min(top + clusterSize, map.getRows()) - 1;
+		int right = Math.min(left + clusterSize, map.getCols()) - 1;
+		pairCount = 0;
+		if (top > 0) {
+			border(top, left, 0, 1, -1, 0, right - left + 1);
+		}
+		if (bottom < map.getRows() - 1) {
+			border(bottom, left, 0, 1, 1, 0, right - left + 1);
+		}
+		if (left > 0) {
+			border(top, left, 1, 0, 0, -1, bottom - top + 1);
+		}
+		if (right < map.getCols() - 1) {
+			border(top, right, 1, 0, 0, 1, bottom - top + 1);
+		}
+
+		// a corner cell can be an entrance on two borders
+		int[] cells = new int[pairCount / 2];
+		int[][] across = new int[pairCount / 2][];
+		int n = 0;
+		for (int p = 0; p < pairCount; p += 2) {
+			int i = 0;
+			while (i < n && cells[i] != pairs[p]) {
+				i++;
+			}
+			if (i == n) {
+				cells[n] = pairs[p];
+				across[n] = new int[] { pairs[p + 1] };
+				n++;
+			} else {
+				across[i] = Arrays.copyOf(across[i], across[i].length + 1);
+				across[i][across[i].length - 1] = pairs[p + 1];
+			}
+		}
+		entrances[k] = Arrays.copyOf(cells, n);
+		partners[k] = Arrays.copyOf(across, n);
+
+		double[] dist = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			search(local, k, entrances[k][i], -1, false);
+			for (int j = 0; j < n; j++) {
+				dist[i * n + j] = local.g(entrances[k][j]);
+			}
+		}
+		distances[k] = dist;
+	}
+
+	/**
+	 * Run a search that stays inside a cluster.
+	 * @param search search to run
+	 * @param cluster cluster index
+	 * @param source cell to search from
+	 * @param target cell to stop at, -1 to reach every cell
+	 * @param reverse whether to compute the cost of reaching source instead of leaving it
+	 */
+	void search(LocalSearch search, int cluster, int source, int target, boolean reverse) {
+		int top = cluster / clusterCols * clusterSize;
+		int left = cluster % clusterCols * clusterSize;
+		int bottom = Math.min(top + clusterSize, map.getRows()) - 1;
+		int right = Math.min(left + clusterSize, map.getCols()) - 1;
+		search.run(map, diagonal, top, left, bottom, right, source, target, reverse);
+	}
+
+	/**
+	 * Place the transitions along one border of a cluster.
+	 * @param row row of the first inside cell
+	 * @param col column of the first inside cell
+	 * @param dRow row step along the border
+	 * @param dCol column step along the border
+	 * @param outRow row offset of the outside cell
+	 * @param outCol column offset of the outside cell
+	 * @param length number of cells along the border
+	 */
+	private void border(int row, int col, int dRow, int dCol, int outRow, int outCol, int length) {
+		int runStart = -1;
+		for (int i = 0; i <= length; i++) {
+			int r = row + i * dRow;
+			int c = col + i * dCol;
+			boolean open = i < length && !map.isWall(r, c) && !map.isWall(r + outRow, c + outCol);
+			if (open && runStart == -1) {
+				runStart = i;
+			} else if (!open && runStart != -1) {
+				int runEnd = i - 1;
+				if (runEnd - runStart + 1 >= SPLIT_LENGTH) {
+					addPair(row + runStart * dRow, col + runStart * dCol, outRow, outCol);
+					addPair(row + runEnd * dRow, col + runEnd * dCol, outRow, outCol);
+				} else {
+					int mid = (runStart + runEnd) / 2;
+					addPair(row + mid * dRow, col + mid * dCol, outRow, outCol);
+				}
+				runStart = -1;
+			}
+		}
+	}
+
+	/**
+	 * Append a transition.
+	 * @param row row of the inside cell
+	 * @param col column of the inside cell
+	 * @param outRow row offset of the outside cell
+	 * @param outCol column offset of the outside cell
+	 */
+	private void addPair(int row, int col, int outRow, int outCol) {
+		if (pairCount + 2 > pairs.length) {
+			pairs = Arrays.copyOf(pairs, pairs.length * 2);
+		}
+		pairs[pairCount++] = map.index(row, col);
+		pairs[pairCount++] = map.index(row + outRow, col + outCol);
+	}
+
+	/**
+	 * Search restricted to a rectangle of the map, used to compute distances inside a cluster and to connect or
+	 * refine paths within one. State is stamped like in {@link SearchContext}.
+	 */
+	static final class LocalSearch {
+		/**
+		 * Open list, indexed by position in the rectangle.
+		 */
+		private final IndexedHeap open;
+		/**
+		 * G score of each position.
+		 */
+		private final double[] g;
+		/**
+		 * Parent of each position, as a cell id.
+		 */
+		private final int[] parent;
+		/**
+		 * Generation in which each position was reached.
+		 */
+		private final int[] seen;
+		/**
+		 * Generation of the current search.
+		 */
+		private int generation;
+		/**
+		 * Map of the current search.
+		 */
+		private GridMap map;
+		/**
+		 * Top row of the rectangle.
+		 */
+		private int top;
+		/**
+		 * Left column of the rectangle.
+		 */
+		private int left;
+		/**
+		 * Width of the rectangle.
+		 */
+		private int width;
+		/**
+		 * Number of nodes expanded by the last search.
+		 */
+		private int expansions;
+
+		/**
+		 * Constructor.
+		 * @param side largest side of a rectangle
+		 */
+		LocalSearch(int side) {
+			int capacity = side * side;
+			open = new IndexedHeap(capacity);
+			g = new double[capacity];
+			parent = new int[capacity];
+			seen = new int[capacity];
+		}
+
+		/**
+		 * Search from a cell without leaving a rectangle.
+		 * @param map map to search on
+		 * @param diagonal whether diagonal movement is allowed
+		 * @param top top row of the rectangle
+		 * @param left left column of the rectangle
+		 * @param bottom bottom row of the rectangle
+		 * @param right right column of the rectangle
+		 * @param source cell to search from
+		 * @param target cell to stop at, -1 to reach every cell
+		 * @param reverse whether to compute the cost of reaching source instead of leaving it
+		 */
+		void run(GridMap map, boolean diagonal, int top, int left, int bottom, int right, int source, int target,
+				boolean reverse) {
+			this.map = map;
+			this.top = top;
+			this.left = left;
+			width = right - left + 1;
+			open.clear();
+			generation++;
+			if (generation == Integer.MAX_VALUE) {
+				Arrays.fill(seen, 0);
+				generation = 1;
+			}
+			expansions = 0;
+			Heuristic heuristic = Heuristic.forMovement(diagonal);
+			int targetRow = target == -1 ? 0 : map.row(target);
+			int targetCol = target == -1 ? 0 : map.col(target);
+
+			int s = local(source);
+			seen[s] = generation;
+			g[s] = 0;
+			parent[s] = -1;
+			open.push(s, 0);
+			while (!open.isEmpty()) {
+				int current = open.pop();
+				int vertex = cell(current);
+				expansions++;
+				if (vertex == target) {
+					return;
+				}
+				int mask = map.neighborMask(vertex, diagonal);
+				while (mask != 0) {
+					int dir = Integer.numberOfTrailingZeros(mask);
+					mask &= mask - 1;
+					int neighbor = map.neighbor(vertex, dir);
+					int row = map.row(neighbor);
+					int col = map.col(neighbor);
+					if (row < top || row > bottom || col < left || col > right) {
+						continue;
+					}
+					// going backwards, the move into the current cell is the one being paid for
+					double step = reverse ? map.getMoveCost(neighbor, (dir + 4) & 7) : map.getMoveCost(vertex, dir);
+					double cost = g[current] + step;
+					int next = local(neighbor);
+					if (seen[next] == generation && cost >= g[next]) {
+						continue;
+					}
+					seen[next] = generation;
+					g[next] = cost;
+					parent[next] = vertex;
+					double h = target == -1 ? 0
+							: heuristic.estimate(Math.abs(row - targetRow), Math.abs(col - targetCol));
+					if (open.contains(next)) {
+						open.decreaseKey(next, cost + h);
+					} else {
+						open.push(next, cost + h);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Get the cost from the source to a cell in the last search.
+		 * @param vertex cell id inside the rectangle
+		 * @return its cost, infinity if it was not reached
+		 */
+		double g(int vertex) {
+			int i = local(vertex);
+			return seen[i] == generation ? g[i] : Double.POSITIVE_INFINITY;
+		}
+
+		/**
+		 * Get the path from the source to a cell found by the last search.
+		 * @param vertex cell id inside the rectangle
+		 * @return cells from source to that cell, empty if the search did not reach it
+		 */
+		int[] path(int vertex) {
+			if (g(vertex) == Double.POSITIVE_INFINITY) {
+				// its parent is left over from an older search
+				return new int[0];
+			}
+			int length = 0;
+			for (int current = vertex; current != -1; current = parent[local(current)]) {
+				length++;
+			}
+			int[] path = new int[length];
+			int current = vertex;
+			for (int i = length - 1; i >= 0; i--) {
+				path[i] = current;
+				current = parent[local(current)];
+			}
+			return path;
+		}
+
+		/**
+		 * Get the number of nodes expanded by the last search.
+		 * @return number of expansions
+		 */
+		int getExpansions() {
+			return expansions;
+		}
+
+		/**
+		 * Get the open list, to count its work.
+		 * @return open list
+		 */
+		IndexedHeap openList() {
+			return open;
+		}
+
+		/**
+		 * Get the position of a cell in the rectangle.
+		 * @param vertex cell id
+		 * @return position
+		 */
+		private int local(int vertex) {
+			return (map.row(vertex) - top) * width + map.col(vertex) - left;
+		}
+
+		/**
+		 * Get the cell at a position in the rectangle.
+		 * @param i position
+		 * @return cell id
+		 */
+		private int cell(int i) {
+			return map.index(top + i / width, left + i % width);
+		}
+	}
+}
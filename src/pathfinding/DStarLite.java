@@ -0,0 +1,411 @@
+package pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * D* Lite. Searches backwards from the goal and keeps its g and rhs values between queries, so when walls change
+ * or the start moves only the part of the search tree that is affected gets repaired. A new goal, a different
+ * movement model or heuristic starts over.
+ * <p>
+ * Walls changed since the last query are collected from the map, once the engine is attached to it with
+ * {@link #attach()}, and processed when the next one begins. An engine that is not attached cannot see walls
+ * change, so every query starts over. The parent of a cell is the next cell towards the goal.
+ * @author ducda
+ *
+ */
+public class DStarLite extends PathFinder implements MapListener {
+	/**
+	 * Whether diagonal movement is allowed.
+	 */
+	private boolean diagonal;
+	/**
+	 * G score of each cell.
+	 */
+	private double[] g;
+	/**
+	 * One step lookahead of the G score of each cell.
+	 */
+	private double[] rhs;
+	/**
+	 * Generation in which the scores of each cell were written.
+	 */
+	private int[] seen;
+	/**
+	 * Generation of the current search tree.
+	 */
+	private int generation;
+	/**
+	 * Open list, ordered by the first key of each cell then its second key.
+	 */
+	private IndexedHeap open;
+	/**
+	 * Sum of the heuristic distances the start moved by, added to every new key.
+	 */
+	private double km;
+	/**
+	 * Start of the previous query.
+	 */
+	private int lastStart = -1;
+	/**
+	 * Goal of the current search tree, -1 if there is none.
+	 */
+	private int treeGoal = -1;
+	/**
+	 * Movement model of the current search tree.
+	 */
+	private boolean treeDiagonal;
+	/**
+	 * Heuristic of the current search tree.
+	 */
+	private Heuristic treeHeuristic;
+	/**
+	 * Cells whose walls changed since the last query.
+	 */
+	private int[] changed = new int[16];
+	/**
+	 * Number of changed cells.
+	 */
+	private int numChanged;
+	/**
+	 * Cost from a cell to the goal through the successor last found by {@link #bestSuccessor(int)}.
+	 */
+	private double successorCost;
+	/**
+	 * Whether the engine listens to its map, so its search tree can be kept between queries.
+	 */
+	private boolean attached;
+
+	/**
+	 * Constructor. The engine does not listen to the map until {@link #attach()} is called.
+	 * @param map map to search on
+	 * @param diagonal whether diagonal movement is allowed
+	 */
+	public DStarLite(GridMap map, boolean diagonal) {
+		super(map);
+		this.diagonal = diagonal;
+	}
+
+	/**
+	 * Start listening to the map, so the search tree is repaired rather than rebuilt after walls change.
+	 * @return this engine
+	 */
+	public DStarLite attach() {
+		if (!attached) {
+			map.addListener(this);
+			attached = true;
+		}
+		return this;
+	}
+
+	/**
+	 * Stop listening to the map. The next query starts over.
+	 */
+	public void close() {
+		map.removeListener(this);
+		attached = false;
+		treeGoal = -1;
+		numChanged = 0;
+	}
+
+	/**
+	 * Allow or forbid diagonal movement.
+	 * @param diagonal whether diagonal movement is allowed
+	 */
+	public void setDiagonal(boolean diagonal) {
+		this.diagonal = diagonal;
+	}
+
+	@Override
+	public String searchKey() {
+		return diagonal ? "DStarLite" : "DStarLite4";
+	}
+
+	@Override
+	protected Heuristic defaultHeuristic() {
+		return Heuristic.forMovement(diagonal);
+	}
+
+	@Override
+	public void wallChanged(int row, int col, boolean isWall) {
+		if (treeGoal == -1) {
+			return;
+		}
+		if (numChanged == changed.length) {
+			changed = Arrays.copyOf(changed, numChanged * 2);
+		}
+		changed[numChanged++] = map.index(row, col);
+	}
+
+	@Override
+	protected void initSearch() {
+		if (!attached || g == null || g.length != map.size() || goal != treeGoal || diagonal != treeDiagonal
+				|| activeHeuristic != treeHeuristic) {
+			startOver();
+		} else {
+			km += h(lastStart, start);
+			for (int i = 0; i < numChanged; i++) {
+				// the cell itself and every move into, out of or past it changed
+				int row = map.row(changed[i]);
+				int col = map.col(changed[i]);
+				for (int r = row - 1; r <= row + 1; r++) {
+					for (int c = col - 1; c <= col + 1; c++) {
+						if (map.inBounds(r, c)) {
+							updateVertex(map.index(r, c));
+						}
+					}
+				}
+			}
+		}
+		numChanged = 0;
+		lastStart = start;
+	}
+
+	/**
+	 * Drop the search tree and start a new one from the goal.
+	 */
+	private void startOver() {
+		if (g == null || g.length != map.size()) {
+			g = new double[map.size()];
+			rhs = new double[map.size()];
+			seen = new int[map.size()];
+			open = new IndexedHeap(map.size());
+			generation = 0;
+		}
+		open.clear();
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(seen, 0);
+			generation = 1;
+		}
+		km = 0;
+		treeGoal = goal;
+		treeDiagonal = diagonal;
+		treeHeuristic = activeHeuristic;
+		touch(goal);
+		rhs[goal] = 0;
+		push(goal);
+	}
+
+	@Override
+	public boolean step() {
+		if (finished) {
+			return false;
+		}
+		if (open.isEmpty() || (!keyLess(open.getKey(open.peek()), open.getTie(open.peek()), key1(start), key2(start))
+				&& rhs(start) == g(start))) {
+			finished = true;
+			return false;
+		}
+		expansions++;
+		expand();
+		return !finished;
+	}
+
+	@Override
+	protected void expand() {
+		int u = open.peek();
+		double oldKey1 = open.getKey(u);
+		double oldKey2 = open.getTie(u);
+		if (keyLess(oldKey1, oldKey2, key1(u), key2(u))) {
+			// the start moved since this key was computed
+			push(u);
+		} else if (g(u) > rhs(u)) {
+			g[u] = rhs[u];
+			open.remove(u);
+			if (listener != null) {
+				listener.nodeClosed(u);
+			}
+			updateNeighbors(u);
+		} else {
+			g[u] = Double.POSITIVE_INFINITY;
+			updateVertex(u);
+			updateNeighbors(u);
+		}
+	}
+
+	@Override
+	public int getParent(int vertex) {
+		return vertex == treeGoal ? -1 : bestSuccessor(vertex);
+	}
+
+	@Override
+	protected PathResult searchResult() {
+		if (g == null || rhs(start) == Double.POSITIVE_INFINITY) {
+			return new PathResult(new int[0], Double.POSITIVE_INFINITY);
+		}
+		int[] path = new int[16];
+		int length = 0;
+		int current = start;
+		path[length++] = current;
+		while (current != goal) {
+			current = bestSuccessor(current);
+			if (current == -1 || length > map.size()) {
+				return new PathResult(new int[0], Double.POSITIVE_INFINITY);
+			}
+			if (length == path.length) {
+				path = Arrays.copyOf(path, length * 2);
+			}
+			path[length++] = current;
+		}
+		return new PathResult(Arrays.copyOf(path, length), rhs(start));
+	}
+
+	@Override
+	protected PathResult partialResult(SearchStatus status) {
+		// the tree grows from the goal, nothing is known about the start until the search is done
+		return new PathResult(new int[0], Double.POSITIVE_INFINITY, status);
+	}
+
+	@Override
+	protected int openSize() {
+		return open.size();
+	}
+
+	@Override
+	protected IndexedHeap openList() {
+		return open;
+	}
+
+	/**
+	 * Recompute the rhs of the cells that can move to a cell, i.e. its neighbors.
+	 * @param u current cell
+	 */
+	private void updateNeighbors(int u) {
+		int mask = map.neighborMask(u, diagonal);
+		while (mask != 0) {
+			int dir = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+			updateVertex(map.neighbor(u, dir));
+		}
+	}
+
+	/**
+	 * Recompute the rhs of a cell from its successors and put it on the open list if it is inconsistent.
+	 * @param u current cell
+	 */
+	private void updateVertex(int u) {
+		touch(u);
+		int best = -1;
+		if (u != treeGoal) {
+			best = bestSuccessor(u);
+			rhs[u] = successorCost;
+		}
+		if (g[u] != rhs[u]) {
+			generated++;
+			push(u);
+			if (listener != null) {
+				listener.nodeOpened(u, best);
+			}
+		} else {
+			open.remove(u);
+		}
+	}
+
+	/**
+	 * Get the successor of a cell with the lowest cost through it. The cost is left in {@link #successorCost}.
+	 * @param u current cell
+	 * @return best successor, -1 if none leads to the goal
+	 */
+	private int bestSuccessor(int u) {
+		successorCost = Double.POSITIVE_INFINITY;
+		if (map.isWall(u)) {
+			return -1;
+		}
+		int best = -1;
+		double bestCost = Double.POSITIVE_INFINITY;
+		int mask = map.neighborMask(u, diagonal);
+		while (mask != 0) {
+			int dir = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+			int s = map.neighbor(u, dir);
+			double cost = map.getMoveCost(u, dir) + g(s);
+			if (cost < bestCost) {
+				bestCost = cost;
+				best = s;
+			}
+		}
+		successorCost = bestCost;
+		return best;
+	}
+
+	/**
+	 * Put a cell on the open list with its current key.
+	 * @param u current cell
+	 */
+	private void push(int u) {
+		open.push(u, key1(u), key2(u));
+	}
+
+	/**
+	 * Get the first key of a cell.
+	 * @param u current cell
+	 * @return min(g, rhs) plus heuristic distance to the start plus km
+	 */
+	private double key1(int u) {
+		return key2(u) + h(start, u) + km;
+	}
+
+	/**
+	 * Get the second key of a cell.
+	 * @param u current cell
+	 * @return min(g, rhs)
+	 */
+	private double key2(int u) {
+		return Math.min(g(u), rhs(u));
+	}
+
+	/**
+	 * Whether a key comes before another, comparing first keys with the tolerance of the open list.
+	 * @param a1 first key of a
+	 * @param a2 second key of a
+	 * @param b1 first key of b
+	 * @param b2 second key of b
+	 * @return true if a comes first, false otherwise
+	 */
+	private static boolean keyLess(double a1, double a2, double b1, double b2) {
+		if (a1 == b1 || Math.abs(a1 - b1) <= IndexedHeap.TIE_EPSILON * Math.max(Math.abs(a1), Math.abs(b1))) {
+			return a2 < b2;
+		}
+		return a1 < b1;
+	}
+
+	/**
+	 * Heuristic distance between two cells.
+	 * @param a cell 1
+	 * @param b cell 2
+	 * @return estimated cost
+	 */
+	private double h(int a, int b) {
+		return activeHeuristic.estimate(Math.abs(map.row(a) - map.row(b)), Math.abs(map.col(a) - map.col(b)));
+	}
+
+	/**
+	 * Reset the scores of a cell if they belong to an older search tree.
+	 * @param u current cell
+	 */
+	private void touch(int u) {
+		if (seen[u] != generation) {
+			seen[u] = generation;
+			g[u] = Double.POSITIVE_INFINITY;
+			rhs[u] = Double.POSITIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Get G score of a cell.
+	 * @param u current cell
+	 * @return its G score, infinity if it has not been reached
+	 */
+	private double g(int u) {
+		return seen[u] == generation ? g[u] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Get rhs of a cell.
+	 * @param u current cell
+	 * @return its rhs, infinity if it has not been reached
+	 */
+	private double rhs(int u) {
+		return seen[u] == generation ? rhs[u] : Double.POSITIVE_INFINITY;
+	}
+}
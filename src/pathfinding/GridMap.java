@@ -0,0 +1,499 @@
+package pathfinding;
+
+import java.util.ArrayList;
+
+/**
+ * Grid map used by the pathfinding engines. Cells are numbered from left to right, from row 0 to the end.
+ * @author ducda
+ *
+ */
+public class GridMap {
+	/**
+	 * Cost of a diagonal move.
+	 */
+	public static final double SQRT2 = Math.sqrt(2);
+	// directions are numbered clockwise from north, even indices are straight moves and odd ones diagonal
+	/**
+	 * Direction index of north.
+	 */
+	public static final int N = 0;
+	/**
+	 * Direction index of north east.
+	 */
+	public static final int NE = 1;
+	/**
+	 * Direction index of east.
+	 */
+	public static final int E = 2;
+	/**
+	 * Direction index of south east.
+	 */
+	public static final int SE = 3;
+	/**
+	 * Direction index of south.
+	 */
+	public static final int S = 4;
+	/**
+	 * Direction index of south west.
+	 */
+	public static final int SW = 5;
+	/**
+	 * Direction index of west.
+	 */
+	public static final int W = 6;
+	/**
+	 * Direction index of north west.
+	 */
+	public static final int NW = 7;
+	/**
+	 * Row offset of each direction.
+	 */
+	static final int[] DIR_ROW = { -1, -1, 0, 1, 1, 1, 0, -1 };
+	/**
+	 * Column offset of each direction.
+	 */
+	static final int[] DIR_COL = { 0, 1, 1, 1, 0, -1, -1, -1 };
+	/**
+	 * Direction index of each (dRow + 1) * 3 + (dCol + 1), -1 for no move.
+	 */
+	private static final int[] DIR_INDEX = { NW, N, NE, W, -1, E, SW, S, SE };
+	/**
+	 * Number of rows.
+	 */
+	protected final int rows;
+	/**
+	 * Number of columns.
+	 */
+	protected final int cols;
+	/**
+	 * Number of vertices in the graph.
+	 */
+	protected final int numVertices;
+	/**
+	 * Number of 64-bit words per row.
+	 */
+	protected final int wordsPerRow;
+	/**
+	 * Number of 64-bit words per column.
+	 */
+	protected final int wordsPerCol;
+	/**
+	 * Listeners notified when a wall changes.
+	 */
+	private final ArrayList<MapListener> listeners = new ArrayList<>();
+	/**
+	 * Walls packed row by row, one bit per cell. Bits past the last column are set, so the padding reads as wall.
+	 */
+	protected final long[] rowBits;
+	/**
+	 * Walls packed column by column, one bit per cell. Bits past the last row are set.
+	 */
+	protected final long[] colBits;
+	/**
+	 * Whether a diagonal move may pass a wall on one side, as long as the cell on its other side is open.
+	 */
+	private final boolean cornerCutting;
+	/**
+	 * Whether the walls can no longer change.
+	 */
+	private boolean frozen;
+	/**
+	 * Number of wall changes so far.
+	 */
+	private long version;
+
+	/**
+	 * Constructor for a map whose diagonal moves may cut corners.
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 */
+	public GridMap(int rows, int cols) {
+		this(rows, cols, true);
+	}
+
+	/**
+	 * Constructor.
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @param cornerCutting whether a diagonal move may pass a wall on one side, false to block it unless both cells
+	 *            next to it are open as in the Moving AI benchmarks
+	 */
+	public GridMap(int rows, int cols, boolean cornerCutting) {
+		this(rows, cols, new long[rows * words(cols)], new long[cols * words(rows)], cornerCutting);
+		for (int i = 0; i < rows; i++) {
+			rowBits[(i + 1) * wordsPerRow - 1] = padding(cols);
+		}
+		for (int j = 0; j < cols; j++) {
+			colBits[(j + 1) * wordsPerCol - 1] = padding(rows);
+		}
+	}
+
+	/**
+	 * Constructor for maps that keep their walls elsewhere. With null bitboards, the subclass has to override
+	 * every method reading them.
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @param rowBits walls packed row by row, may be null
+	 * @param colBits walls packed column by column, may be null
+	 * @param cornerCutting whether a diagonal move may pass a wall on one side
+	 */
+	protected GridMap(int rows, int cols, long[] rowBits, long[] colBits, boolean cornerCutting) {
+		this.rows = rows;
+		this.cols = cols;
+		numVertices = rows * cols;
+		wordsPerRow = words(cols);
+		wordsPerCol = words(rows);
+		this.rowBits = rowBits;
+		this.colBits = colBits;
+		this.cornerCutting = cornerCutting;
+	}
+
+	/**
+	 * Get the number of 64-bit words holding a line of cells.
+	 * @param length number of cells in the line
+	 * @return number of words
+	 */
+	static int words(int length) {
+		return (length + 63) >>> 6;
+	}
+
+	/**
+	 * Get the bits past the end of a line of cells in its last word.
+	 * @param length number of cells in the line
+	 * @return padding bits
+	 */
+	static long padding(int length) {
+		return (length & 63) == 0 ? 0L : -1L << (length & 63);
+	}
+
+	/**
+	 * Get number of rows.
+	 * @return number of rows
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Get number of columns.
+	 * @return number of columns
+	 */
+	public int getCols() {
+		return cols;
+	}
+
+	/**
+	 * Get number of cells.
+	 * @return number of cells
+	 */
+	public int size() {
+		return numVertices;
+	}
+
+	/**
+	 * Get cell id of a position.
+	 * @param row row pos
+	 * @param col col pos
+	 * @return cell id
+	 */
+	public int index(int row, int col) {
+		return row * cols + col;
+	}
+
+	/**
+	 * Get row of a cell.
+	 * @param vertex cell id
+	 * @return row pos
+	 */
+	public int row(int vertex) {
+		return vertex / cols;
+	}
+
+	/**
+	 * Get column of a cell.
+	 * @param vertex cell id
+	 * @return col pos
+	 */
+	public int col(int vertex) {
+		return vertex % cols;
+	}
+
+	/**
+	 * Whether a diagonal move may pass a wall on one side. If not, both cells next to the move have to be open.
+	 * @return true if corners can be cut, false otherwise
+	 */
+	public boolean allowsCornerCutting() {
+		return cornerCutting;
+	}
+
+	/**
+	 * Check if a position is inside the grid.
+	 * @param row row pos
+	 * @param col col pos
+	 * @return true if it is inside, false otherwise
+	 */
+	public boolean inBounds(int row, int col) {
+		return row >= 0 && col >= 0 && row < rows && col < cols;
+	}
+
+	/**
+	 * Check if a cell is a wall.
+	 * @param vertex cell id
+	 * @return true if it is a wall, false otherwise
+	 */
+	public boolean isWall(int vertex) {
+		return isWall(row(vertex), col(vertex));
+	}
+
+	/**
+	 * Check if a position is a wall.
+	 * @param row row pos
+	 * @param col col pos
+	 * @return true if it is a wall, false otherwise
+	 */
+	public boolean isWall(int row, int col) {
+		return (rowBits[row * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+	}
+
+	/**
+	 * Turn a position into a wall or a normal cell.
+	 * @param row row pos
+	 * @param col col pos
+	 * @param isWall whether the cell is a wall
+	 */
+	public void setWall(int row, int col, boolean isWall) {
+		if (frozen) {
+			throw new UnsupportedOperationException("Snapshots are read only");
+		}
+		if (isWall(row, col) == isWall) {
+			return;
+		}
+		int rowWord = row * wordsPerRow + (col >>> 6);
+		int colWord = col * wordsPerCol + (row >>> 6);
+		if (isWall) {
+			rowBits[rowWord] |= 1L << col;
+			colBits[colWord] |= 1L << row;
+		} else {
+			rowBits[rowWord] &= ~(1L << col);
+			colBits[colWord] &= ~(1L << row);
+		}
+		version++;
+		for (MapListener listener : listeners) {
+			listener.wallChanged(row, col, isWall);
+		}
+	}
+
+	/**
+	 * Get the version of the walls, which goes up every time a wall changes.
+	 * @return version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Get a read-only copy of the map. Changes to this map do not show in the copy, so it can be searched from
+	 * several threads while this one is edited.
+	 * @return frozen copy of the map
+	 */
+	public GridMap snapshot() {
+		GridMap copy = new GridMap(rows, cols, rowBits.clone(), colBits.clone(), cornerCutting);
+		copy.frozen = true;
+		return copy;
+	}
+
+	/**
+	 * Add a listener notified when a wall changes.
+	 * @param listener listener
+	 */
+	public void addListener(MapListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Remove a listener.
+	 * @param listener listener
+	 */
+	public void removeListener(MapListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Get 64 walls of a row, bit i is column word * 64 + i. Anything outside the grid reads as wall.
+	 * @param row row pos
+	 * @param word word index in the row
+	 * @return wall bits
+	 */
+	public long rowWord(int row, int word) {
+		if (row < 0 || row >= rows || word < 0 || word >= wordsPerRow) {
+			return -1L;
+		}
+		return rowBits[row * wordsPerRow + word];
+	}
+
+	/**
+	 * Get 64 walls of a column, bit i is row word * 64 + i. Anything outside the grid reads as wall.
+	 * @param col col pos
+	 * @param word word index in the column
+	 * @return wall bits
+	 */
+	public long colWord(int col, int word) {
+		if (col < 0 || col >= cols || word < 0 || word >= wordsPerCol) {
+			return -1L;
+		}
+		return colBits[col * wordsPerCol + word];
+	}
+
+	/**
+	 * Get cost moving from v1 to one of its neighbors v2. Costs are derived from the coordinates, 1 for a
+	 * straight move and sqrt(2) for a diagonal one, so no edge storage is needed.
+	 * @param v1 cell 1
+	 * @param v2 cell 2
+	 * @return movement cost
+	 */
+	public double getCost(int v1, int v2) {
+		if (v1 == v2) {
+			return 0;
+		}
+		// diagonal
+		if (row(v1) != row(v2) && col(v1) != col(v2)) {
+			return SQRT2;
+		}
+		return 1;
+	}
+
+	/**
+	 * Get the cost of entering a cell, which multiplies the cost of the move.
+	 * @param vertex cell id
+	 * @return cell cost, 1 for every cell unless the map has a cost layer
+	 */
+	public int getCellCost(int vertex) {
+		return 1;
+	}
+
+	/**
+	 * Whether entering any cell costs 1, so a move costs 1 or sqrt(2) wherever it is made.
+	 * @return true if every cell costs 1, false if the map has a cost layer with other costs
+	 */
+	public boolean hasUnitCosts() {
+		return true;
+	}
+
+	/**
+	 * Get the directions in which the current cell has a neighbor, as a bitmask over the direction indices of
+	 * {@link #DIR_ROW} and {@link #DIR_COL}. A diagonal neighbor counts only if one of the two cells next to it is
+	 * open, or both if corners cannot be cut.
+	 * @param vertex current cell
+	 * @param diagonal whether to account for diagonal neighbors
+	 * @return bitmask of directions
+	 */
+	public int neighborMask(int vertex, boolean diagonal) {
+		int row = row(vertex);
+		int col = col(vertex);
+		boolean n = row > 0 && !isWall(row - 1, col);
+		boolean s = row < rows - 1 && !isWall(row + 1, col);
+		boolean e = col < cols - 1 && !isWall(row, col + 1);
+		boolean w = col > 0 && !isWall(row, col - 1);
+		int mask = 0;
+		if (n) {
+			mask |= 1 << N;
+		}
+		if (e) {
+			mask |= 1 << E;
+		}
+		if (s) {
+			mask |= 1 << S;
+		}
+		if (w) {
+			mask |= 1 << W;
+		}
+		if (diagonal) {
+			boolean ne = cornerCutting ? n || e : n && e;
+			boolean se = cornerCutting ? e || s : e && s;
+			boolean sw = cornerCutting ? s || w : s && w;
+			boolean nw = cornerCutting ? w || n : w && n;
+			if (ne && row > 0 && col < cols - 1 && !isWall(row - 1, col + 1)) {
+				mask |= 1 << NE;
+			}
+			if (se && row < rows - 1 && col < cols - 1 && !isWall(row + 1, col + 1)) {
+				mask |= 1 << SE;
+			}
+			if (sw && row < rows - 1 && col > 0 && !isWall(row + 1, col - 1)) {
+				mask |= 1 << SW;
+			}
+			if (nw && row > 0 && col > 0 && !isWall(row - 1, col - 1)) {
+				mask |= 1 << NW;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Get the neighbor of a cell in a direction.
+	 * @param vertex current cell
+	 * @param dir direction index
+	 * @return neighbor cell
+	 */
+	public int neighbor(int vertex, int dir) {
+		return vertex + DIR_ROW[dir] * cols + DIR_COL[dir];
+	}
+
+	/**
+	 * Get cost moving from a cell to its neighbor in a direction.
+	 * @param vertex current cell
+	 * @param dir direction index
+	 * @return movement cost
+	 */
+	public double getMoveCost(int vertex, int dir) {
+		return (dir & 1) == 0 ? 1 : SQRT2;
+	}
+
+	/**
+	 * Get the direction index of a move.
+	 * @param dRow y-direction, -1, 0 or 1
+	 * @param dCol x-direction, -1, 0 or 1
+	 * @return direction index
+	 */
+	public static int direction(int dRow, int dCol) {
+		return DIR_INDEX[(dRow + 1) * 3 + dCol + 1];
+	}
+
+	/**
+	 * Check if moving from the current cell in a direction is possible.
+	 * @param vertex current cell
+	 * @param dCol x-direction
+	 * @param dRow y-direction
+	 * @return true if it is possible, false otherwise
+	 */
+	public boolean isWalkable(int vertex, int dCol, int dRow) {
+		int col = col(vertex);
+		int row = row(vertex);
+
+		int nextCol = col + dCol;
+		int nextRow = row + dRow;
+
+		if (!inBounds(nextRow, nextCol)) {
+			return false;
+		}
+
+		if (dCol != 0 && dRow != 0) {
+			boolean vertical = isWall(nextRow, col);
+			boolean horizontal = isWall(row, nextCol);
+			if (cornerCutting ? vertical && horizontal : vertical || horizontal) {
+				return false;
+			}
+			if (isWall(nextRow, nextCol)) {
+				return false;
+			}
+		} else if (dCol != 0) {
+			if (isWall(row, nextCol)) {
+				return false;
+			}
+		} else {
+			if (isWall(nextRow, col)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
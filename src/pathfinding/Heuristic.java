@@ -0,0 +1,43 @@
+package pathfinding;
+
+/**
+ * Estimate of the cost between two cells used to guide the search. The estimate must never be more than the real
+ * cost, otherwise the path found may not be the shortest.
+ * @author ducda
+ *
+ */
+public interface Heuristic {
+	/**
+	 * Manhattan distance, exact on an open grid without diagonal movement.
+	 */
+	Heuristic MANHATTAN = (dRow, dCol) -> dRow + dCol;
+	/**
+	 * Octile distance, exact on an open grid with diagonal moves costing sqrt(2).
+	 */
+	Heuristic OCTILE = (dRow, dCol) -> Math.max(dRow, dCol) + (GridMap.SQRT2 - 1) * Math.min(dRow, dCol);
+	/**
+	 * Chebyshev distance, exact on an open grid with diagonal moves costing 1.
+	 */
+	Heuristic CHEBYSHEV = (dRow, dCol) -> Math.max(dRow, dCol);
+	/**
+	 * Euclidean distance, admissible for any movement but the least informed.
+	 */
+	Heuristic EUCLIDEAN = (dRow, dCol) -> Math.sqrt((double) dRow * dRow + (double) dCol * dCol);
+
+	/**
+	 * Estimate the cost between two cells.
+	 * @param dRow absolute row difference
+	 * @param dCol absolute column difference
+	 * @return estimated cost
+	 */
+	double estimate(int dRow, int dCol);
+
+	/**
+	 * Get the tightest admissible heuristic for a movement model.
+	 * @param diagonal whether diagonal movement is allowed
+	 * @return octile distance with diagonal movement, Manhattan distance without
+	 */
+	static Heuristic forMovement(boolean diagonal) {
+		return diagonal ? OCTILE : MANHATTAN;
+	}
+}
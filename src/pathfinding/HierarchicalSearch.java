@@ -0,0 +1,272 @@
+package pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical pathfinding (HPA*) over a {@link ClusterGraph}. The start and goal are first linked to the
+ * entrances of their clusters by searches that stay inside those clusters, then A* runs on the abstract graph of
+ * entrances, so a long query expands a few nodes per cluster crossed instead of every cell on the way. Only the
+ * chosen abstract path is refined into cells, one cluster at a time, when the path is first asked for once the
+ * search is done. Refinement runs within the limits and cancel token of the search: if they stop it, the path
+ * ends at the last node refined. A search stopped before it reached the goal gives the abstract path towards it,
+ * whose edges callers may refine with {@link #refine(int, int)}.
+ * <p>
+ * Paths are usually a few percent longer than the shortest one, since they have to cross cluster borders at the
+ * transitions. The expansion count includes the cells expanded linking the start and goal, the cells expanded
+ * refining the path are counted apart by {@link #getRefineExpansions()}. Both go in the metrics and count
+ * against the expansion limit.
+ * @author ducda
+ *
+ */
+public class HierarchicalSearch extends PathFinder {
+	/**
+	 * Abstract graph to search.
+	 */
+	private final ClusterGraph graph;
+	/**
+	 * Search used to link the start and goal and to refine paths.
+	 */
+	private final ClusterGraph.LocalSearch local;
+	/**
+	 * Cluster of the start.
+	 */
+	private int startCluster;
+	/**
+	 * Cluster of the goal.
+	 */
+	private int goalCluster;
+	/**
+	 * Cost from the start to each entrance of its cluster.
+	 */
+	private double[] startCosts;
+	/**
+	 * Cost from each entrance of the goal's cluster to the goal.
+	 */
+	private double[] goalCosts;
+	/**
+	 * Cost from the start to the goal inside their cluster, if they share one.
+	 */
+	private double directCost;
+	/**
+	 * Counters of the open list of the searches inside clusters when the current search began.
+	 */
+	private final long[] localBase = new long[3];
+	/**
+	 * Path of the current search refined into cells, null until it is first asked for once the search is done.
+	 */
+	private PathResult refined;
+	/**
+	 * Number of cells expanded refining paths of the current search.
+	 */
+	private int refineExpansions;
+
+	/**
+	 * Constructor.
+	 * @param graph abstract graph of the map to search
+	 */
+	public HierarchicalSearch(ClusterGraph graph) {
+		super(graph.getMap());
+		this.graph = graph;
+		local = new ClusterGraph.LocalSearch(graph.getClusterSize());
+	}
+
+	@Override
+	public String searchKey() {
+		return (graph.isDiagonal() ? "Hierarchical" : "Hierarchical4") + graph.getClusterSize();
+	}
+
+	@Override
+	protected Heuristic defaultHeuristic() {
+		return Heuristic.forMovement(graph.isDiagonal());
+	}
+
+	@Override
+	protected void initSearch() {
+		graph.update();
+		super.initSearch();
+		heapCounters(local.openList(), localBase);
+		refined = null;
+		refineExpansions = 0;
+		startCluster = graph.cluster(start);
+		goalCluster = graph.cluster(goal);
+		int[] startEntrances = graph.entrances(startCluster);
+		startCosts = new double[startEntrances.length];
+		expansions += searchCluster(startCluster, start, -1, false);
+		for (int i = 0; i < startEntrances.length; i++) {
+			startCosts[i] = local.g(startEntrances[i]);
+		}
+		directCost = startCluster == goalCluster ? local.g(goal) : Double.POSITIVE_INFINITY;
+
+		int[] goalEntrances = graph.entrances(goalCluster);
+		goalCosts = new double[goalEntrances.length];
+		expansions += searchCluster(goalCluster, goal, -1, true);
+		for (int i = 0; i < goalEntrances.length; i++) {
+			goalCosts[i] = local.g(goalEntrances[i]);
+		}
+	}
+
+	@Override
+	protected void expand() {
+		int current = ctx.open.pop();
+		ctx.close(current);
+		if (listener != null) {
+			listener.nodeClosed(current);
+		}
+		if (current == goal) {
+			finished = true;
+			return;
+		}
+		if (current == start) {
+			int[] entrances = graph.entrances(startCluster);
+			for (int i = 0; i < entrances.length; i++) {
+				relax(current, entrances[i], startCosts[i]);
+			}
+			relax(current, goal, directCost);
+		}
+		int cluster = graph.cluster(current);
+		int index = graph.entranceIndex(cluster, current);
+		if (index == -1) {
+			return;
+		}
+		int[] entrances = graph.entrances(cluster);
+		for (int j = 0; j < entrances.length; j++) {
+			if (j != index) {
+				relax(current, entrances[j], graph.distance(cluster, index, j));
+			}
+		}
+		for (int partner : graph.partners(cluster, index)) {
+			int dir = GridMap.direction(map.row(partner) - map.row(current), map.col(partner) - map.col(current));
+			relax(current, partner, map.getMoveCost(current, dir));
+		}
+		if (cluster == goalCluster) {
+			relax(current, goal, goalCosts[index]);
+		}
+	}
+
+	/**
+	 * Reach a node of the abstract graph.
+	 * @param current node being expanded
+	 * @param vertex node reached
+	 * @param cost cost of the edge, infinity if there is none
+	 */
+	private void relax(int current, int vertex, double cost) {
+		if (cost == Double.POSITIVE_INFINITY || ctx.isClosed(vertex)) {
+			return;
+		}
+		double newCost = ctx.g[current] + cost;
+		if (newCost >= ctx.g(vertex)) {
+			return;
+		}
+		open(vertex, newCost, newCost + heuristicCost(vertex), current);
+		if (listener != null) {
+			listener.nodeOpened(vertex, current);
+		}
+	}
+
+	@Override
+	protected void collectMetrics(SearchMetrics metrics) {
+		super.collectMetrics(metrics);
+		IndexedHeap heap = local.openList();
+		metrics.heapPushes += heap.getPushes() - localBase[0];
+		metrics.heapPops += heap.getPops() - localBase[1];
+		metrics.heapDecreaseKeys += heap.getDecreases() - localBase[2];
+		metrics.expanded += refineExpansions;
+	}
+
+	/**
+	 * Get the path found by the current search on the abstract graph, before refinement.
+	 * @return start, the entrances crossed and goal, empty if there is no path
+	 */
+	public PathResult abstractResult() {
+		return wallEndpoint ? new PathResult(new int[0], Double.POSITIVE_INFINITY) : super.searchResult();
+	}
+
+	/**
+	 * Refine one edge of an abstract path into cells. Lets a caller refine a path as it gets walked instead of all
+	 * at once.
+	 * @param from first node of the edge
+	 * @param to second node of the edge
+	 * @return cells from the first node to the second, empty if the second cannot be reached from the first
+	 */
+	public int[] refine(int from, int to) {
+		int cluster = graph.cluster(from);
+		if (cluster != graph.cluster(to)) {
+			// an edge between clusters is a single move across the border
+			return new int[] { from, to };
+		}
+		refineExpansions += searchCluster(cluster, from, to, false);
+		return local.path(to);
+	}
+
+	/**
+	 * Get the number of cells expanded refining paths of the current search, edges refined by the caller
+	 * included.
+	 * @return number of expansions
+	 */
+	public int getRefineExpansions() {
+		return refineExpansions;
+	}
+
+	@Override
+	protected long budgetedExpansions() {
+		return (long) expansions + refineExpansions;
+	}
+
+	@Override
+	protected PathResult searchResult() {
+		if (!finished) {
+			// the abstract path may still change
+			return abstractResult();
+		}
+		if (refined == null) {
+			refined = refineAll(abstractResult());
+		}
+		return refined;
+	}
+
+	/**
+	 * Refine every edge of an abstract path into cells, checking the limits of the search before each edge.
+	 * @param coarse abstract path
+	 * @return path through every cell, with the cost and status of the abstract path, or the cells refined so far
+	 * if the search ran out of budget or was cancelled
+	 */
+	private PathResult refineAll(PathResult coarse) {
+		int[] nodes = coarse.getPath();
+		if (nodes.length < 2) {
+			return coarse;
+		}
+		int[] path = new int[Math.max(16, nodes.length)];
+		path[0] = nodes[0];
+		int length = 1;
+		for (int i = 0; i + 1 < nodes.length; i++) {
+			SearchStatus stopped = checkLimits(0);
+			if (stopped != null) {
+				return new PathResult(Arrays.copyOf(path, length), ctx.g[nodes[i]], stopped);
+			}
+			int[] part = refine(nodes[i], nodes[i + 1]);
+			if (part.length == 0) {
+				// the map changed since the abstract search
+				return new PathResult(new int[0], Double.POSITIVE_INFINITY);
+			}
+			if (length + part.length - 1 > path.length) {
+				path = Arrays.copyOf(path, Math.max(path.length * 2, length + part.length - 1));
+			}
+			System.arraycopy(part, 1, path, length, part.length - 1);
+			length += part.length - 1;
+		}
+		return new PathResult(Arrays.copyOf(path, length), coarse.getCost(), coarse.getStatus());
+	}
+
+	/**
+	 * Run a search inside one cluster.
+	 * @param cluster cluster index
+	 * @param source cell to search from
+	 * @param target cell to stop at, -1 to reach every cell
+	 * @param reverse whether to compute costs towards the source
+	 * @return number of cells expanded
+	 */
+	private int searchCluster(int cluster, int source, int target, boolean reverse) {
+		graph.search(local, cluster, source, target, reverse);
+		return local.getExpansions();
+	}
+}
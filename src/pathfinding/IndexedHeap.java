@@ -0,0 +1,321 @@
+package pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of cell ids used as open list. Each id's position in the heap is tracked, so contains is O(1)
+ * and decrease-key is O(log n). Ids are ordered by key, then by a secondary key used to break ties.
+ * @author ducda
+ *
+ */
+public class IndexedHeap {
+	/**
+	 * Relative difference under which two keys are considered equal.
+	 */
+	static final double TIE_EPSILON = 1e-9;
+	/**
+	 * Ids in heap order.
+	 */
+	private final int[] heap;
+	/**
+	 * Position of each id in the heap, -1 if it is not in the heap.
+	 */
+	private final int[] pos;
+	/**
+	 * Key of each id.
+	 */
+	private final double[] keys;
+	/**
+	 * Secondary key of each id, compared when keys are equal.
+	 */
+	private final double[] ties;
+	/**
+	 * Number of ids in the heap.
+	 */
+	private int size;
+	/**
+	 * Number of ids added since the heap was created.
+	 */
+	private long pushes;
+	/**
+	 * Number of ids removed since the heap was created.
+	 */
+	private long pops;
+	/**
+	 * Number of keys lowered since the heap was created.
+	 */
+	private long decreases;
+
+	/**
+	 * Constructor.
+	 * @param capacity number of ids, ids range from 0 to capacity - 1
+	 */
+	public IndexedHeap(int capacity) {
+		heap = new int[capacity];
+		pos = new int[capacity];
+		keys = new double[capacity];
+		ties = new double[capacity];
+		Arrays.fill(pos, -1);
+	}
+
+	/**
+	 * Get number of ids the heap can hold.
+	 * @return capacity
+	 */
+	public int capacity() {
+		return heap.length;
+	}
+
+	/**
+	 * Get number of ids in the heap.
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Whether the heap is empty.
+	 * @return true if it is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Whether an id is in the heap.
+	 * @param id cell id
+	 * @return true if it is in the heap, false otherwise
+	 */
+	public boolean contains(int id) {
+		return pos[id] != -1;
+	}
+
+	/**
+	 * Get the key of an id in the heap.
+	 * @param id cell id
+	 * @return its key
+	 */
+	public double getKey(int id) {
+		return keys[id];
+	}
+
+	/**
+	 * Get the secondary key of an id in the heap.
+	 * @param id cell id
+	 * @return its secondary key
+	 */
+	public double getTie(int id) {
+		return ties[id];
+	}
+
+	/**
+	 * Get number of ids added since the heap was created. Never reset, callers count the difference.
+	 * @return number of pushes
+	 */
+	public long getPushes() {
+		return pushes;
+	}
+
+	/**
+	 * Get number of ids removed since the heap was created, by {@link #pop()} or {@link #remove(int)}.
+	 * @return number of pops
+	 */
+	public long getPops() {
+		return pops;
+	}
+
+	/**
+	 * Get number of keys updated since the heap was created, by {@link #decreaseKey(int, double, double)} or by
+	 * pushing an id already in the heap.
+	 * @return number of decrease-keys
+	 */
+	public long getDecreases() {
+		return decreases;
+	}
+
+	/**
+	 * Add an id, or update its key if it is already in the heap.
+	 * @param id cell id
+	 * @param key its key
+	 */
+	public void push(int id, double key) {
+		push(id, key, 0);
+	}
+
+	/**
+	 * Add an id, or update its keys if it is already in the heap.
+	 * @param id cell id
+	 * @param key its key
+	 * @param tie its secondary key
+	 */
+	public void push(int id, double key, double tie) {
+		if (pos[id] != -1) {
+			decreases++;
+			double oldKey = keys[id];
+			double oldTie = ties[id];
+			keys[id] = key;
+			ties[id] = tie;
+			if (key < oldKey || (key == oldKey && tie <= oldTie)) {
+				siftUp(pos[id]);
+			} else {
+				siftDown(pos[id]);
+			}
+			return;
+		}
+		pushes++;
+		keys[id] = key;
+		ties[id] = tie;
+		heap[size] = id;
+		pos[id] = size;
+		siftUp(size++);
+	}
+
+	/**
+	 * Lower the key of an id in the heap.
+	 * @param id cell id
+	 * @param key its new key, not greater than the current one
+	 */
+	public void decreaseKey(int id, double key) {
+		decreaseKey(id, key, ties[id]);
+	}
+
+	/**
+	 * Lower the keys of an id in the heap.
+	 * @param id cell id
+	 * @param key its new key, not greater than the current one
+	 * @param tie its new secondary key
+	 */
+	public void decreaseKey(int id, double key, double tie) {
+		decreases++;
+		keys[id] = key;
+		ties[id] = tie;
+		siftUp(pos[id]);
+	}
+
+	/**
+	 * Get the id at a position of the heap, to go over every id in no particular order.
+	 * @param i heap position, less than the size
+	 * @return the id
+	 */
+	public int get(int i) {
+		return heap[i];
+	}
+
+	/**
+	 * Get the id with the smallest key without removing it.
+	 * @return the id
+	 */
+	public int peek() {
+		return heap[0];
+	}
+
+	/**
+	 * Remove the id with the smallest key.
+	 * @return the id
+	 */
+	public int pop() {
+		int top = heap[0];
+		pops++;
+		pos[top] = -1;
+		size--;
+		if (size > 0) {
+			int last = heap[size];
+			heap[0] = last;
+			pos[last] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	/**
+	 * Remove an id from the heap.
+	 * @param id cell id
+	 */
+	public void remove(int id) {
+		int i = pos[id];
+		if (i == -1) {
+			return;
+		}
+		pops++;
+		pos[id] = -1;
+		size--;
+		if (i < size) {
+			int last = heap[size];
+			heap[i] = last;
+			pos[last] = i;
+			siftDown(i);
+			siftUp(pos[last]);
+		}
+	}
+
+	/**
+	 * Remove every id. Costs O(size), not O(capacity).
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			pos[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Whether a comes before b, comparing keys then secondary keys.
+	 * @param a cell id
+	 * @param b cell id
+	 * @return true if a comes first, false otherwise
+	 */
+	private boolean less(int a, int b) {
+		double ka = keys[a];
+		double kb = keys[b];
+		// keys built from sums of sqrt(2) differ by rounding, treat those as equal
+		if (Math.abs(ka - kb) <= TIE_EPSILON * Math.max(Math.abs(ka), Math.abs(kb))) {
+			return ties[a] < ties[b];
+		}
+		return ka < kb;
+	}
+
+	/**
+	 * Move an entry up until the heap order holds.
+	 * @param i heap position
+	 */
+	private void siftUp(int i) {
+		int id = heap[i];
+		while (i > 0) {
+			int p = (i - 1) >>> 1;
+			int parent = heap[p];
+			if (!less(id, parent)) {
+				break;
+			}
+			heap[i] = parent;
+			pos[parent] = i;
+			i = p;
+		}
+		heap[i] = id;
+		pos[id] = i;
+	}
+
+	/**
+	 * Move an entry down until the heap order holds.
+	 * @param i heap position
+	 */
+	private void siftDown(int i) {
+		int id = heap[i];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			int right = child + 1;
+			if (right < size && less(heap[right], heap[child])) {
+				child = right;
+			}
+			if (!less(heap[child], id)) {
+				break;
+			}
+			heap[i] = heap[child];
+			pos[heap[i]] = i;
+			i = child;
+		}
+		heap[i] = id;
+		pos[id] = i;
+	}
+}
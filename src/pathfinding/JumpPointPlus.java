@@ -0,0 +1,81 @@
+package pathfinding;
+
+/**
+ * JPS+. Same search as {@link JumpPointSearch}, but jumps are answered from a precomputed {@link JumpTable}
+ * instead of scanning the grid, so a jump costs O(1) whatever its length.
+ * @author ducda
+ *
+ */
+public class JumpPointPlus extends JumpPointSearch {
+	/**
+	 * Precomputed jump distances.
+	 */
+	private final JumpTable table;
+
+	/**
+	 * Constructor.
+	 * @param table precomputed jump distances
+	 */
+	public JumpPointPlus(JumpTable table) {
+		super(table.getMap());
+		this.table = table;
+	}
+
+	@Override
+	protected void initSearch() {
+		table.refresh();
+		super.initSearch();
+	}
+
+	@Override
+	protected int jump(int current, int dCol, int dRow) {
+		int d = table.distance(current, GridMap.direction(dRow, dCol));
+		int travel = Math.abs(d);
+		int steps = d > 0 ? d : Integer.MAX_VALUE;
+		int row = map.row(current);
+		int col = map.col(current);
+		int goalRow = map.row(goal);
+		int goalCol = map.col(goal);
+
+		if (dCol == 0 || dRow == 0) {
+			// the goal stops a straight jump if it lies on the way
+			int k = dRow == 0 ? (goalCol - col) * dCol : (goalRow - row) * dRow;
+			boolean onLine = dRow == 0 ? goalRow == row : goalCol == col;
+			if (onLine && k > 0 && k <= travel) {
+				return goal;
+			}
+		} else {
+			// a diagonal jump stops where it crosses the goal's row or column, if the goal can be reached
+			// straight from there
+			int kRow = (goalRow - row) * dRow;
+			if (kRow > 0 && kRow <= travel && kRow < steps
+					&& reachesGoal(map.index(goalRow, col + kRow * dCol), dCol, 0)) {
+				steps = kRow;
+			}
+			int kCol = (goalCol - col) * dCol;
+			if (kCol > 0 && kCol <= travel && kCol < steps
+					&& reachesGoal(map.index(row + kCol * dRow, goalCol), 0, dRow)) {
+				steps = kCol;
+			}
+		}
+		if (steps == Integer.MAX_VALUE) {
+			return -1;
+		}
+		return map.index(row + steps * dRow, col + steps * dCol);
+	}
+
+	/**
+	 * Whether a straight jump from a cell on the goal's row or column reaches the goal.
+	 * @param vertex current cell
+	 * @param dCol x-direction
+	 * @param dRow y-direction
+	 * @return true if the goal is reached, false otherwise
+	 */
+	private boolean reachesGoal(int vertex, int dCol, int dRow) {
+		if (vertex == goal) {
+			return true;
+		}
+		int k = dRow == 0 ? (map.col(goal) - map.col(vertex)) * dCol : (map.row(goal) - map.row(vertex)) * dRow;
+		return k > 0 && k <= Math.abs(table.distance(vertex, GridMap.direction(dRow, dCol)));
+	}
+}
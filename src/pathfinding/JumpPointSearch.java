@@ -0,0 +1,366 @@
+package pathfinding;
+
+/**
+ * Jump Point Search. On a map that forbids cutting corners, a diagonal move never has forced neighbors; a
+ * straight move has one beside it when the cell behind that neighbor is a wall, since the neighbor cannot be
+ * reached diagonally from there.
+ * @author ducda
+ *
+ */
+public class JumpPointSearch extends PathFinder {
+	/**
+	 * Successors of the node being expanded, reused for every expansion.
+	 */
+	private final int[] successors = new int[8];
+
+	/**
+	 * Constructor.
+	 * @param map map to search on, every cell of which costs 1
+	 * @throws IllegalArgumentException if the map has a cost layer with other costs
+	 */
+	public JumpPointSearch(GridMap map) {
+		super(requireUnitCosts(map));
+	}
+
+	/**
+	 * Check that a map can be searched by jumping. Jumps skip the cells they cross and are priced by their length,
+	 * which is only right if every cell costs 1.
+	 * @param map map to check
+	 * @return the map
+	 * @throws IllegalArgumentException if the map has a cost layer with other costs
+	 */
+	static GridMap requireUnitCosts(GridMap map) {
+		if (!map.hasUnitCosts()) {
+			throw new IllegalArgumentException("Jump point search needs every cell to cost 1, use A* on this map");
+		}
+		return map;
+	}
+
+	@Override
+	protected Heuristic defaultHeuristic() {
+		return Heuristic.OCTILE;
+	}
+
+	@Override
+	boolean opensJumpPoints() {
+		return true;
+	}
+
+	@Override
+	protected void expand() {
+		int current = ctx.open.pop();
+		if (current == goal) {
+			finished = true;
+			return;
+		}
+		ctx.close(current);
+		if (listener != null) {
+			listener.nodeClosed(current);
+		}
+		double currentCost = ctx.g[current];
+		int count = identifySuccessors(current, successors);
+		for (int i = 0; i < count; i++) {
+			int successor = successors[i];
+			if (ctx.isClosed(successor)) {
+				continue;
+			}
+			double newCost = currentCost + getDistance(current, successor);
+			if (newCost < ctx.g(successor)) {
+				open(successor, newCost, newCost + heuristicCost(successor), current);
+				if (listener != null) {
+					listener.nodeOpened(successor, current);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get directions of the neighbors of current cell based on the direction from its parent to it.
+	 * @param current current cell
+	 * @return bitmask of directions
+	 */
+	private int prunedNeighbors(int current) {
+		if (current == start) {
+			return map.neighborMask(current, true);
+		}
+		int mask = 0;
+		int dCol = Integer.signum(map.col(current) - map.col(ctx.parent[current]));
+		int dRow = Integer.signum(map.row(current) - map.row(ctx.parent[current]));
+
+		if (!map.allowsCornerCutting()) {
+			return prunedNeighborsNoCut(current, dCol, dRow);
+		}
+		if (dCol != 0 && dRow != 0) {
+			if (map.isWalkable(current, dCol, 0)) {
+				mask |= 1 << GridMap.direction(0, dCol);
+			}
+			if (map.isWalkable(current, 0, dRow)) {
+				mask |= 1 << GridMap.direction(dRow, 0);
+			}
+			if (map.isWalkable(current, dCol, dRow)) {
+				mask |= 1 << GridMap.direction(dRow, dCol);
+			}
+			if (!map.isWalkable(current, -dCol, 0) && map.isWalkable(current, 0, dRow)) {
+				mask |= 1 << GridMap.direction(dRow, -dCol);
+			}
+			if (!map.isWalkable(current, 0, -dRow) && map.isWalkable(current, dCol, 0)) {
+				mask |= 1 << GridMap.direction(-dRow, dCol);
+			}
+		} else if (dCol != 0) {
+			if (map.isWalkable(current, dCol, 0)) {
+				mask |= 1 << GridMap.direction(0, dCol);
+				if (!map.isWalkable(current, 0, 1) && map.isWalkable(current, dCol, 1)) {
+					mask |= 1 << GridMap.direction(1, dCol);
+				}
+				if (!map.isWalkable(current, 0, -1) && map.isWalkable(current, dCol, -1)) {
+					mask |= 1 << GridMap.direction(-1, dCol);
+				}
+			}
+		} else {
+			if (map.isWalkable(current, 0, dRow)) {
+				mask |= 1 << GridMap.direction(dRow, 0);
+				if (!map.isWalkable(current, 1, 0) && map.isWalkable(current, 1, dRow)) {
+					mask |= 1 << GridMap.direction(dRow, 1);
+				}
+				if (!map.isWalkable(current, -1, 0) && map.isWalkable(current, -1, dRow)) {
+					mask |= 1 << GridMap.direction(dRow, -1);
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Get directions of the neighbors of current cell on a map that forbids cutting corners.
+	 * @param current current cell, not the start
+	 * @param dCol x-direction from its parent
+	 * @param dRow y-direction from its parent
+	 * @return bitmask of directions
+	 */
+	private int prunedNeighborsNoCut(int current, int dCol, int dRow) {
+		int mask = 0;
+		if (dCol != 0 && dRow != 0) {
+			if (map.isWalkable(current, dCol, 0)) {
+				mask |= 1 << GridMap.direction(0, dCol);
+			}
+			if (map.isWalkable(current, 0, dRow)) {
+				mask |= 1 << GridMap.direction(dRow, 0);
+			}
+			if (map.isWalkable(current, dCol, dRow)) {
+				mask |= 1 << GridMap.direction(dRow, dCol);
+			}
+			return mask;
+		}
+		if (map.isWalkable(current, dCol, dRow)) {
+			mask |= 1 << GridMap.direction(dRow, dCol);
+		}
+		int row = map.row(current);
+		int col = map.col(current);
+		// the cell behind current is open, it was walked through
+		for (int side = -1; side <= 1; side += 2) {
+			int sCol = dCol == 0 ? side : 0;
+			int sRow = dRow == 0 ? side : 0;
+			if (map.isWalkable(current, sCol, sRow) && map.isWall(row + sRow - dRow, col + sCol - dCol)) {
+				mask |= 1 << GridMap.direction(sRow, sCol);
+				if (map.isWalkable(current, sCol + dCol, sRow + dRow)) {
+					mask |= 1 << GridMap.direction(sRow + dRow, sCol + dCol);
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Jump to a next cell in a direction from current cell.
+	 * @param current current cell
+	 * @param dCol x-direction
+	 * @param dRow y-direction
+	 * @return the jump point, -1 if there is none
+	 */
+	protected int jump(int current, int dCol, int dRow) {
+		if (dCol == 0 || dRow == 0) {
+			return jumpStraight(current, dCol, dRow);
+		}
+		boolean cutsCorners = map.allowsCornerCutting();
+		// jump diagonally, one cell per iteration
+		while (map.isWalkable(current, dCol, dRow)) {
+			cellsScanned++;
+			int next = map.index(map.row(current) + dRow, map.col(current) + dCol);
+			if (next == goal) {
+				return next;
+			}
+			/*
+			 * o
+			 * x c or   c
+			 * p      p x o
+			 */
+			if (cutsCorners && ((!map.isWalkable(next, -dCol, 0) && map.isWalkable(next, -dCol, dRow))
+					|| (!map.isWalkable(next, 0, -dRow) && map.isWalkable(next, dCol, -dRow)))) {
+				return next;
+			}
+			if (jumpStraight(next, dCol, 0) != -1 || jumpStraight(next, 0, dRow) != -1) {
+				return next;
+			}
+			current = next;
+		}
+		return -1;
+	}
+
+	/**
+	 * Jump horizontally or vertically from current cell, scanning the wall bitboard 64 cells at a time for the
+	 * first wall, forced neighbor or goal.
+	 *
+	 * o x o    moving right, c is a jump point when a wall x is beside it
+	 * p c      and the cells diagonally ahead and straight ahead are open
+	 * o x o
+	 *
+	 * x o      without corner cutting, c is a jump point when the cell o beside it is open
+	 * p c      and the cell x behind o is a wall
+	 * @param current current cell
+	 * @param dCol x-direction
+	 * @param dRow y-direction
+	 * @return the jump point, -1 if there is none
+	 */
+	private int jumpStraight(int current, int dCol, int dRow) {
+		int row = map.row(current);
+		int col = map.col(current);
+		if (dRow == 0) {
+			int target = row == map.row(goal) ? map.col(goal) : -1;
+			int x = scanLine(true, row, col + dCol, dCol, target);
+			return x == -1 ? -1 : map.index(row, x);
+		}
+		int target = col == map.col(goal) ? map.row(goal) : -1;
+		int y = scanLine(false, col, row + dRow, dRow, target);
+		return y == -1 ? -1 : map.index(y, col);
+	}
+
+	/**
+	 * Get 64 walls of a row or a column.
+	 * @param horizontal true for a row, false for a column
+	 * @param line row or col pos
+	 * @param word word index in the line
+	 * @return wall bits, set outside the grid
+	 */
+	private long word(boolean horizontal, int line, int word) {
+		return horizontal ? map.rowWord(line, word) : map.colWord(line, word);
+	}
+
+	/**
+	 * Scan a row or a column for the first cell that is a wall, has a forced neighbor or is the target.
+	 * @param horizontal true to scan a row, false to scan a column
+	 * @param line row or col pos being scanned
+	 * @param from first position to look at
+	 * @param dir 1 to scan towards higher positions, -1 towards lower ones
+	 * @param target position of the goal on this line, -1 if it is not on it
+	 * @return position of the jump point, -1 if a wall is hit first
+	 */
+	private int scanLine(boolean horizontal, int line, int from, int dir, int target) {
+		if (from < 0) {
+			return -1;
+		}
+		int w = from >>> 6;
+		long cells = word(horizontal, line, w);
+		long sideA = word(horizontal, line - 1, w);
+		long sideB = word(horizontal, line + 1, w);
+		long mask = dir > 0 ? -1L << from : -1L >>> (63 - (from & 63));
+		boolean cutsCorners = map.allowsCornerCutting();
+		// side words one step back, read only when corners cannot be cut
+		long backA = cutsCorners ? 0 : word(horizontal, line - 1, w - dir);
+		long backB = cutsCorners ? 0 : word(horizontal, line + 1, w - dir);
+		while (true) {
+			long nextCells = word(horizontal, line, w + dir);
+			long nextA = word(horizontal, line - 1, w + dir);
+			long nextB = word(horizontal, line + 1, w + dir);
+			long forced;
+			if (cutsCorners) {
+				// bit i of these is the cell one step further in the scan direction
+				long cellsAhead;
+				long aAhead;
+				long bAhead;
+				if (dir > 0) {
+					cellsAhead = (cells >>> 1) | (nextCells << 63);
+					aAhead = (sideA >>> 1) | (nextA << 63);
+					bAhead = (sideB >>> 1) | (nextB << 63);
+				} else {
+					cellsAhead = (cells << 1) | (nextCells >>> 63);
+					aAhead = (sideA << 1) | (nextA >>> 63);
+					bAhead = (sideB << 1) | (nextB >>> 63);
+				}
+				forced = ((sideA & ~aAhead) | (sideB & ~bAhead)) & ~cellsAhead;
+			} else {
+				// bit i of these is the cell one step back
+				long aBehind;
+				long bBehind;
+				if (dir > 0) {
+					aBehind = (sideA << 1) | (backA >>> 63);
+					bBehind = (sideB << 1) | (backB >>> 63);
+				} else {
+					aBehind = (sideA >>> 1) | (backA << 63);
+					bBehind = (sideB >>> 1) | (backB << 63);
+				}
+				forced = (~sideA & aBehind) | (~sideB & bBehind);
+			}
+			long stop = cells | forced;
+			if (target >= 0 && target >>> 6 == w) {
+				stop |= 1L << target;
+			}
+			stop &= mask;
+			if (stop != 0) {
+				int bit = dir > 0 ? Long.numberOfTrailingZeros(stop) : 63 - Long.numberOfLeadingZeros(stop);
+				int stopAt = (w << 6) + bit;
+				cellsScanned += Math.abs(stopAt - from) + 1;
+				if ((cells & (1L << bit)) != 0) {
+					return -1;
+				}
+				return stopAt;
+			}
+			w += dir;
+			backA = sideA;
+			backB = sideB;
+			cells = nextCells;
+			sideA = nextA;
+			sideB = nextB;
+			mask = -1L;
+		}
+	}
+
+	/**
+	 * Indentify jump point successors of current cell.
+	 * @param current current cell
+	 * @param out buffer the successors are written to, at least 8 long
+	 * @return number of successors
+	 */
+	private int identifySuccessors(int current, int[] out) {
+		int count = 0;
+		int mask = prunedNeighbors(current);
+		while (mask != 0) {
+			int dir = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+			jumpCalls++;
+			int successor = jump(current, GridMap.DIR_COL[dir], GridMap.DIR_ROW[dir]);
+			if (successor != -1) {
+				out[count++] = successor;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Get distance from current cell to its successor.
+	 * @param current current cell
+	 * @param successor successor of current cell
+	 * @return distance between current cell and its successor
+	 */
+	private double getDistance(int current, int successor) {
+		int dCol = map.col(current) - map.col(successor);
+		int dRow = map.row(current) - map.row(successor);
+
+		if (dCol != 0 && dRow != 0) {
+			return Math.abs(dCol) * GridMap.SQRT2;
+		} else if (dCol != 0) {
+			return Math.abs(dCol);
+		} else {
+			return Math.abs(dRow);
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package pathfinding;
+
+/**
+ * Jump distances precomputed for JPS+. For every cell and each of the 8 directions it stores how far the next
+ * jump point is (a positive distance), or how many cells can be walked before hitting a wall (zero or a negative
+ * distance). The goal is not known in advance, so it is handled at query time by {@link JumpPointPlus}.
+ * <p>
+ * Once attached with {@link #attach()}, the table listens to its map. When a wall changes, only the entries whose
+ * jump can see that cell are recomputed: straight jumps in the rows and columns next to it and diagonal jumps that
+ * cross those lines. A table that is not attached is rebuilt as a whole by {@link #refresh()} once the walls
+ * changed, which {@link JumpPointPlus} calls before every search.
+ * @author ducda
+ *
+ */
+public class JumpTable implements MapListener {
+	/**
+	 * Map the distances are computed on.
+	 */
+	private final GridMap map;
+	/**
+	 * Jump distance of each cell in each direction, at index cell * 8 + direction.
+	 */
+	private final int[] dist;
+	/**
+	 * Whether the table listens to its map.
+	 */
+	private boolean attached;
+	/**
+	 * Version of the walls the table was last computed for, while it is not attached.
+	 */
+	private long syncedVersion;
+
+	/**
+	 * Constructor. Computes the whole table, which does not listen to the map until {@link #attach()} is called.
+	 * @param map map to compute the distances on, every cell of which costs 1
+	 * @throws IllegalArgumentException if the map has a cost layer with other costs
+	 */
+	public JumpTable(GridMap map) {
+		this.map = JumpPointSearch.requireUnitCosts(map);
+		dist = new int[map.size() * 8];
+		build();
+		syncedVersion = map.getVersion();
+	}
+
+	/**
+	 * Start listening to the map, so a wall change only repairs the entries it affects. Walls changed before are
+	 * caught up with first.
+	 * @return this table
+	 */
+	public JumpTable attach() {
+		if (!attached) {
+			refresh();
+			map.addListener(this);
+			attached = true;
+		}
+		return this;
+	}
+
+	/**
+	 * Stop listening to the map. The table is then rebuilt as a whole by {@link #refresh()} once the walls change.
+	 */
+	public void close() {
+		map.removeListener(this);
+		attached = false;
+		syncedVersion = map.getVersion();
+	}
+
+	/**
+	 * Rebuild the table if it is not attached and the walls changed since it was last computed.
+	 */
+	public void refresh() {
+		if (!attached && map.getVersion() != syncedVersion) {
+			build();
+			syncedVersion = map.getVersion();
+		}
+	}
+
+	/**
+	 * Get the map the distances are computed on.
+	 * @return the map
+	 */
+	public GridMap getMap() {
+		return map;
+	}
+
+	/**
+	 * Get jump distance of a cell in a direction.
+	 * @param vertex current cell
+	 * @param dir direction index
+	 * @return distance to the jump point if positive, otherwise minus the number of cells that can be walked
+	 */
+	public int distance(int vertex, int dir) {
+		return dist[vertex * 8 + dir];
+	}
+
+	/**
+	 * Compute the whole table. Straight directions go first since diagonal jumps depend on them.
+	 */
+	public void build() {
+		int rows = map.getRows();
+		int cols = map.getCols();
+		for (int pass = 0; pass < 2; pass++) {
+			for (int dir = pass; dir < 8; dir += 2) {
+				int dRow = GridMap.DIR_ROW[dir];
+				int dCol = GridMap.DIR_COL[dir];
+				// walk against the direction so the next cell is always computed first
+				for (int i = 0; i < rows; i++) {
+					int row = dRow > 0 ? rows - 1 - i : i;
+					for (int j = 0; j < cols; j++) {
+						int col = dCol > 0 ? cols - 1 - j : j;
+						int vertex = map.index(row, col);
+						dist[vertex * 8 + dir] = compute(vertex, dir);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void wallChanged(int row, int col, boolean isWall) {
+		int rows = map.getRows();
+		int cols = map.getCols();
+		// straight jumps only look one cell to the side, cells within 2 of the wall have new inputs
+		for (int dir = 0; dir < 8; dir += 2) {
+			for (int i = row - 2; i <= row + 2; i++) {
+				for (int j = col - 2; j <= col + 2; j++) {
+					if (map.inBounds(i, j)) {
+						repair(map.index(i, j), dir);
+					}
+				}
+			}
+		}
+		// diagonal jumps read straight distances of the cells they cross, which changed along these lines
+		for (int dir = 1; dir < 8; dir += 2) {
+			int dRow = GridMap.DIR_ROW[dir];
+			int dCol = GridMap.DIR_COL[dir];
+			for (int i = row - 1; i <= row + 1; i++) {
+				for (int j = 0; j < cols; j++) {
+					if (map.inBounds(i - dRow, j - dCol)) {
+						repair(map.index(i - dRow, j - dCol), dir);
+					}
+				}
+			}
+			for (int j = col - 1; j <= col + 1; j++) {
+				for (int i = 0; i < rows; i++) {
+					if (map.inBounds(i - dRow, j - dCol)) {
+						repair(map.index(i - dRow, j - dCol), dir);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Recompute the entry of a cell, then walk backwards along the direction while entries keep changing.
+	 * @param vertex cell whose inputs changed
+	 * @param dir direction index
+	 */
+	private void repair(int vertex, int dir) {
+		int dRow = GridMap.DIR_ROW[dir];
+		int dCol = GridMap.DIR_COL[dir];
+		int row = map.row(vertex);
+		int col = map.col(vertex);
+		while (map.inBounds(row, col)) {
+			int current = map.index(row, col);
+			int value = compute(current, dir);
+			if (dist[current * 8 + dir] == value) {
+				return;
+			}
+			dist[current * 8 + dir] = value;
+			row -= dRow;
+			col -= dCol;
+		}
+	}
+
+	/**
+	 * Compute the entry of a cell from the entry of the next cell in the same direction.
+	 * @param vertex current cell
+	 * @param dir direction index
+	 * @return jump distance
+	 */
+	private int compute(int vertex, int dir) {
+		int dRow = GridMap.DIR_ROW[dir];
+		int dCol = GridMap.DIR_COL[dir];
+		if (!map.isWalkable(vertex, dCol, dRow)) {
+			return 0;
+		}
+		int next = map.neighbor(vertex, dir);
+		if (isJumpPoint(next, dCol, dRow)) {
+			return 1;
+		}
+		int d = dist[next * 8 + dir];
+		return d > 0 ? d + 1 : d - 1;
+	}
+
+	/**
+	 * Whether a cell reached by moving in a direction is a jump point, ignoring the goal.
+	 * @param next cell reached
+	 * @param dCol x-direction
+	 * @param dRow y-direction
+	 * @return true if it is a jump point, false otherwise
+	 */
+	private boolean isJumpPoint(int next, int dCol, int dRow) {
+		if (dCol != 0 && dRow != 0) {
+			if (map.allowsCornerCutting() && ((!map.isWalkable(next, -dCol, 0) && map.isWalkable(next, -dCol, dRow))
+					|| (!map.isWalkable(next, 0, -dRow) && map.isWalkable(next, dCol, -dRow)))) {
+				return true;
+			}
+			return dist[next * 8 + GridMap.direction(0, dCol)] > 0 || dist[next * 8 + GridMap.direction(dRow, 0)] > 0;
+		} else if (!map.allowsCornerCutting()) {
+			// a side cell is forced when the cell behind it, next to the one walked from, is a wall
+			int row = map.row(next) - dRow;
+			int col = map.col(next) - dCol;
+			if (dCol != 0) {
+				return (map.isWalkable(next, 0, 1) && map.isWall(row + 1, col))
+						|| (map.isWalkable(next, 0, -1) && map.isWall(row - 1, col));
+			}
+			return (map.isWalkable(next, 1, 0) && map.isWall(row, col + 1))
+					|| (map.isWalkable(next, -1, 0) && map.isWall(row, col - 1));
+		} else if (dCol != 0) {
+			return (!map.isWalkable(next, 0, 1) && map.isWalkable(next, dCol, 1))
+					|| (!map.isWalkable(next, 0, -1) && map.isWalkable(next, dCol, -1));
+		} else {
+			return (!map.isWalkable(next, 1, 0) && map.isWalkable(next, 1, dRow))
+					|| (!map.isWalkable(next, -1, 0) && map.isWalkable(next, -1, dRow));
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package pathfinding;
+
+import java.util.Random;
+
+/**
+ * Generates maps of any size, e.g. for benchmarks. The same seed always gives the same map.
+ * @author ducda
+ *
+ */
+public class MapGenerator {
+	/**
+	 * Layout of a generated map.
+	 */
+	public enum Style {
+		/**
+		 * Open grid with random obstacles.
+		 */
+		OPEN,
+		/**
+		 * Maze with corridors one cell wide.
+		 */
+		MAZE,
+		/**
+		 * Rooms joined by doors, with random obstacles inside.
+		 */
+		ROOMS
+	}
+
+	/**
+	 * Size of a room, walls included.
+	 */
+	private static final int ROOM_SIZE = 16;
+
+	/**
+	 * Generate a map.
+	 * @param style layout
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @param density chance of a random obstacle in each cell, not used by mazes
+	 * @param seed random seed
+	 * @return the map
+	 */
+	public static GridMap generate(Style style, int rows, int cols, double density, long seed) {
+		GridMap map = new GridMap(rows, cols);
+		Random random = new Random(seed);
+		switch (style) {
+		case MAZE:
+			maze(map, random);
+			break;
+		case ROOMS:
+			rooms(map, random);
+			obstacles(map, random, density);
+			break;
+		default:
+			obstacles(map, random, density);
+		}
+		return map;
+	}
+
+	/**
+	 * Put random obstacles on the map.
+	 * @param map the map
+	 * @param random random source
+	 * @param density chance of an obstacle in each cell
+	 */
+	private static void obstacles(GridMap map, Random random, double density) {
+		if (density <= 0) {
+			return;
+		}
+		for (int i = 0; i < map.getRows(); i++) {
+			for (int j = 0; j < map.getCols(); j++) {
+				if (random.nextDouble() < density) {
+					map.setWall(i, j, true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Carve a maze with a depth first search. Cells with an even row and column are rooms of the maze, the cells
+	 * between them are walls that get knocked down.
+	 * @param map the map
+	 * @param random random source
+	 */
+	private static void maze(GridMap map, Random random) {
+		int rows = map.getRows();
+		int cols = map.getCols();
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				if (i % 2 == 1 || j % 2 == 1) {
+					map.setWall(i, j, true);
+				}
+			}
+		}
+		int mazeRows = (rows + 1) / 2;
+		int mazeCols = (cols + 1) / 2;
+		boolean[] carved = new boolean[mazeRows * mazeCols];
+		int[] stack = new int[mazeRows * mazeCols];
+		int[] options = new int[4];
+		int top = 0;
+		stack[top++] = 0;
+		carved[0] = true;
+		while (top > 0) {
+			int current = stack[top - 1];
+			int row = current / mazeCols;
+			int col = current % mazeCols;
+			int count = 0;
+			for (int dir = 0; dir < 8; dir += 2) {
+				int nextRow = row + GridMap.DIR_ROW[dir];
+				int nextCol = col + GridMap.DIR_COL[dir];
+				if (nextRow >= 0 && nextCol >= 0 && nextRow < mazeRows && nextCol < mazeCols
+						&& !carved[nextRow * mazeCols + nextCol]) {
+					options[count++] = dir;
+				}
+			}
+			if (count == 0) {
+				top--;
+				continue;
+			}
+			int dir = options[random.nextInt(count)];
+			int nextRow = row + GridMap.DIR_ROW[dir];
+			int nextCol = col + GridMap.DIR_COL[dir];
+			map.setWall(row * 2 + GridMap.DIR_ROW[dir], col * 2 + GridMap.DIR_COL[dir], false);
+			carved[nextRow * mazeCols + nextCol] = true;
+			stack[top++] = nextRow * mazeCols + nextCol;
+		}
+	}
+
+	/**
+	 * Split the map into square rooms with a door in every wall between two rooms.
+	 * @param map the map
+	 * @param random random source
+	 */
+	private static void rooms(GridMap map, Random random) {
+		int rows = map.getRows();
+		int cols = map.getCols();
+		for (int i = ROOM_SIZE - 1; i < rows; i += ROOM_SIZE) {
+			for (int j = 0; j < cols; j++) {
+				map.setWall(i, j, true);
+			}
+		}
+		for (int j = ROOM_SIZE - 1; j < cols; j += ROOM_SIZE) {
+			for (int i = 0; i < rows; i++) {
+				map.setWall(i, j, true);
+			}
+		}
+		// a door of width 2 in each wall segment
+		for (int i = ROOM_SIZE - 1; i < rows; i += ROOM_SIZE) {
+			for (int j = 0; j < cols; j += ROOM_SIZE) {
+				int door = j + random.nextInt(Math.min(ROOM_SIZE - 2, cols - j));
+				map.setWall(i, door, false);
+				if (door + 1 < cols) {
+					map.setWall(i, door + 1, false);
+				}
+			}
+		}
+		for (int j = ROOM_SIZE - 1; j < cols; j += ROOM_SIZE) {
+			for (int i = 0; i < rows; i += ROOM_SIZE) {
+				int door = i + random.nextInt(Math.min(ROOM_SIZE - 2, rows - i));
+				map.setWall(door, j, false);
+				if (door + 1 < rows) {
+					map.setWall(door + 1, j, false);
+				}
+			}
+		}
+	}
+}
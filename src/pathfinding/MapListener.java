@@ -0,0 +1,16 @@
+package pathfinding;
+
+/**
+ * Receives changes of a {@link GridMap}, e.g. to repair data precomputed from it.
+ * @author ducda
+ *
+ */
+public interface MapListener {
+	/**
+	 * Called after a cell turned into a wall or back into a normal cell.
+	 * @param row row pos
+	 * @param col col pos
+	 * @param isWall whether the cell is now a wall
+	 */
+	void wallChanged(int row, int col, boolean isWall);
+}
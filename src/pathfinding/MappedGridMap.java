@@ -0,0 +1,288 @@
+package pathfinding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Map read in place from a memory-mapped binary map file. Nothing is copied onto the heap, so opening a map is
+ * instant whatever its size, and every JVM opening the same file shares its pages. The map is read only.
+ * <p>
+ * File layout, little endian:
+ * <ul>
+ * <li>header of 32 bytes: magic "GRID", version, rows, columns, flags (bit 0: cost layer, bit 1: corners cannot be
+ * cut), then zeros</li>
+ * <li>walls packed row by row, one bit per cell, each row padded to 64-bit words with set bits</li>
+ * <li>the same walls packed column by column, for the vertical scans of JPS</li>
+ * <li>optionally, one byte per cell with the cost of entering it, 1 to 255</li>
+ * </ul>
+ * The cost layer is used by the engines reading move costs from the map. JPS and JPS+ only measure the length of
+ * their jumps and a bidirectional search needs moves to cost the same both ways, so they refuse a map whose cost
+ * layer has a cost other than 1.
+ * @author ducda
+ *
+ */
+public class MappedGridMap extends GridMap {
+	/**
+	 * First 4 bytes of a map file, "GRID" read as a little endian int.
+	 */
+	private static final int MAGIC = 0x44495247;
+	/**
+	 * Version of the layout.
+	 */
+	private static final int VERSION = 1;
+	/**
+	 * Size of the header in bytes.
+	 */
+	private static final int HEADER_SIZE = 32;
+	/**
+	 * Flag set when the file has a cost layer.
+	 */
+	private static final int FLAG_COSTS = 1;
+	/**
+	 * Flag set when a diagonal move may not pass a wall on one side.
+	 */
+	private static final int FLAG_NO_CORNER_CUTTING = 2;
+	/**
+	 * Walls packed row by row.
+	 */
+	private final LongBuffer rowWords;
+	/**
+	 * Walls packed column by column.
+	 */
+	private final LongBuffer colWords;
+	/**
+	 * Cost of entering each cell, null if the file has no cost layer.
+	 */
+	private final ByteBuffer costs;
+	/**
+	 * Whether every cell costs 1, null until the cost layer is first scanned.
+	 */
+	private Boolean unitCosts;
+
+	/**
+	 * Constructor.
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @param rowWords walls packed row by row
+	 * @param colWords walls packed column by column
+	 * @param costs cost of entering each cell, null for none
+	 * @param cornerCutting whether a diagonal move may pass a wall on one side
+	 */
+	private MappedGridMap(int rows, int cols, LongBuffer rowWords, LongBuffer colWords, ByteBuffer costs,
+			boolean cornerCutting) {
+		super(rows, cols, null, null, cornerCutting);
+		this.rowWords = rowWords;
+		this.colWords = colWords;
+		this.costs = costs;
+	}
+
+	/**
+	 * Open a map file.
+	 * @param file map file
+	 * @return the map
+	 * @throws IOException if the file cannot be read or is not a map file
+	 */
+	public static MappedGridMap open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				throw new IOException("Not a map file: " + file);
+			}
+			int rows = header.getInt(8);
+			int cols = header.getInt(12);
+			int flags = header.getInt(16);
+			boolean hasCosts = (flags & FLAG_COSTS) != 0;
+			long rowSize = 8L * rows * words(cols);
+			long colSize = 8L * cols * words(rows);
+			long costSize = hasCosts ? (long) rows * cols : 0;
+			if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE
+					|| channel.size() < HEADER_SIZE + rowSize + colSize + costSize) {
+				throw new IOException("Truncated or corrupt map file: " + file);
+			}
+			// the mappings stay valid after the channel is closed
+			LongBuffer rowWords = map(channel, HEADER_SIZE, rowSize).asLongBuffer();
+			LongBuffer colWords = map(channel, HEADER_SIZE + rowSize, colSize).asLongBuffer();
+			ByteBuffer costs = hasCosts ? map(channel, HEADER_SIZE + rowSize + colSize, costSize) : null;
+			return new MappedGridMap(rows, cols, rowWords, colWords, costs, (flags & FLAG_NO_CORNER_CUTTING) == 0);
+		}
+	}
+
+	/**
+	 * Map a section of a file.
+	 * @param channel the file
+	 * @param offset start of the section
+	 * @param size size of the section in bytes
+	 * @return the mapped section
+	 * @throws IOException if the section cannot be mapped
+	 */
+	private static MappedByteBuffer map(FileChannel channel, long offset, long size) throws IOException {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+
+	/**
+	 * Write a map to a map file.
+	 * @param map map to write
+	 * @param cellCosts cost of entering each cell, null to write no cost layer
+	 * @param file destination
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(GridMap map, byte[] cellCosts, Path file) throws IOException {
+		int rows = map.getRows();
+		int cols = map.getCols();
+		if (cellCosts != null && cellCosts.length != map.size()) {
+			throw new IllegalArgumentException("Cost layer must have one byte per cell");
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			int flags = (cellCosts != null ? FLAG_COSTS : 0) | (map.allowsCornerCutting() ? 0 : FLAG_NO_CORNER_CUTTING);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(flags);
+			buffer.position(HEADER_SIZE);
+			for (int i = 0; i < rows; i++) {
+				for (int w = 0; w < words(cols); w++) {
+					putLong(channel, buffer, map.rowWord(i, w));
+				}
+			}
+			for (int j = 0; j < cols; j++) {
+				for (int w = 0; w < words(rows); w++) {
+					putLong(channel, buffer, map.colWord(j, w));
+				}
+			}
+			if (cellCosts != null) {
+				for (byte cost : cellCosts) {
+					if (!buffer.hasRemaining()) {
+						flush(channel, buffer);
+					}
+					buffer.put(cost);
+				}
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	/**
+	 * Append a word to the write buffer, flushing it when full.
+	 * @param channel destination
+	 * @param buffer write buffer
+	 * @param word word to append
+	 * @throws IOException if the buffer cannot be flushed
+	 */
+	private static void putLong(FileChannel channel, ByteBuffer buffer, long word) throws IOException {
+		if (buffer.remaining() < 8) {
+			flush(channel, buffer);
+		}
+		buffer.putLong(word);
+	}
+
+	/**
+	 * Write out the content of the write buffer and empty it.
+	 * @param channel destination
+	 * @param buffer write buffer
+	 * @throws IOException if the content cannot be written
+	 */
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Whether the map has a cost layer.
+	 * @return true if it has one, false otherwise
+	 */
+	public boolean hasCosts() {
+		return costs != null;
+	}
+
+	@Override
+	public boolean hasUnitCosts() {
+		if (unitCosts == null) {
+			// scanned on first use, so opening a map stays instant
+			boolean unit = true;
+			for (int i = 0; costs != null && i < numVertices && unit; i++) {
+				unit = (costs.get(i) & 0xFF) <= 1;
+			}
+			unitCosts = unit;
+		}
+		return unitCosts;
+	}
+
+	@Override
+	public boolean isWall(int row, int col) {
+		return (rowWords.get(row * wordsPerRow + (col >>> 6)) & (1L << col)) != 0;
+	}
+
+	@Override
+	public void setWall(int row, int col, boolean isWall) {
+		throw new UnsupportedOperationException("Mapped maps are read only");
+	}
+
+	@Override
+	public GridMap snapshot() {
+		return this;
+	}
+
+	@Override
+	public long rowWord(int row, int word) {
+		if (row < 0 || row >= rows || word < 0 || word >= wordsPerRow) {
+			return -1L;
+		}
+		return rowWords.get(row * wordsPerRow + word);
+	}
+
+	@Override
+	public long colWord(int col, int word) {
+		if (col < 0 || col >= cols || word < 0 || word >= wordsPerCol) {
+			return -1L;
+		}
+		return colWords.get(col * wordsPerCol + word);
+	}
+
+	@Override
+	public int getCellCost(int vertex) {
+		if (costs == null) {
+			return 1;
+		}
+		// 0 is not a valid cost, read it as 1 so the heuristics stay admissible
+		return Math.max(1, costs.get(vertex) & 0xFF);
+	}
+
+	@Override
+	public double getCost(int v1, int v2) {
+		return super.getCost(v1, v2) * getCellCost(v2);
+	}
+
+	@Override
+	public double getMoveCost(int vertex, int dir) {
+		return super.getMoveCost(vertex, dir) * getCellCost(neighbor(vertex, dir));
+	}
+
+	/**
+	 * Convert a Moving AI .map file to a map file.
+	 * @param args source .map file and destination file
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.err.println("Usage: MappedGridMap <file.map> <file.grid>");
+			System.exit(2);
+		}
+		try {
+			write(MovingAiLoader.readMap(Paths.get(args[0])), null, Paths.get(args[1]));
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+}
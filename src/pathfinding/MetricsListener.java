@@ -0,0 +1,15 @@
+package pathfinding;
+
+/**
+ * Receives the metrics of every finished search, e.g. to aggregate or log them. Engines used from several threads
+ * call it from each of them.
+ * @author ducda
+ *
+ */
+public interface MetricsListener {
+	/**
+	 * Called when a search is done.
+	 * @param metrics metrics of the search
+	 */
+	void searchFinished(SearchMetrics metrics);
+}
@@ -0,0 +1,136 @@
+package pathfinding;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the Moving AI benchmark formats: .map grids and .scen scenario lists. Files are read line by line, the
+ * walls go straight into the map without an intermediate copy. The benchmarks never let a diagonal move cut a
+ * corner, so neither do the maps read.
+ * @author ducda
+ *
+ */
+public class MovingAiLoader {
+	/**
+	 * Read a .map file.
+	 * @param file map file
+	 * @return the map
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	public static GridMap readMap(Path file) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+			return readMap(reader);
+		}
+	}
+
+	/**
+	 * Read a map in .map format.
+	 * @param reader source of the map
+	 * @return the map
+	 * @throws IOException if the map cannot be read or is malformed
+	 */
+	public static GridMap readMap(BufferedReader reader) throws IOException {
+		int rows = -1;
+		int cols = -1;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			String[] tokens = line.trim().split("\\s+");
+			if (tokens[0].equals("map")) {
+				break;
+			} else if (tokens[0].equals("height")) {
+				rows = parseInt(tokens, line);
+			} else if (tokens[0].equals("width")) {
+				cols = parseInt(tokens, line);
+			}
+			// the type line is always octile, nothing to read from it
+		}
+		if (line == null || rows <= 0 || cols <= 0) {
+			throw new IOException("Missing map header");
+		}
+		GridMap map = new GridMap(rows, cols, false);
+		for (int i = 0; i < rows; i++) {
+			line = reader.readLine();
+			if (line == null || line.length() < cols) {
+				throw new IOException("Map row " + i + " is missing or too short");
+			}
+			for (int j = 0; j < cols; j++) {
+				if (!isPassable(line.charAt(j))) {
+					map.setWall(i, j, true);
+				}
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Whether a terrain character of the .map format can be walked on. Ground and swamp can, out of bounds, trees
+	 * and water cannot.
+	 * @param terrain terrain character
+	 * @return true if it can be walked on, false otherwise
+	 */
+	private static boolean isPassable(char terrain) {
+		return terrain == '.' || terrain == 'G' || terrain == 'S';
+	}
+
+	/**
+	 * Read a .scen file.
+	 * @param file scenario file
+	 * @return queries in file order
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	public static List<Scenario> readScenarios(Path file) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+			return readScenarios(reader);
+		}
+	}
+
+	/**
+	 * Read scenarios in .scen format.
+	 * @param reader source of the scenarios
+	 * @return queries in order
+	 * @throws IOException if the scenarios cannot be read or are malformed
+	 */
+	public static List<Scenario> readScenarios(BufferedReader reader) throws IOException {
+		List<Scenario> scenarios = new ArrayList<>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("version")) {
+				continue;
+			}
+			// bucket, map, width, height, start x, start y, goal x, goal y, optimal length
+			String[] tokens = line.split("\\s+");
+			if (tokens.length < 9) {
+				throw new IOException("Malformed scenario: " + line);
+			}
+			try {
+				scenarios.add(new Scenario(Integer.parseInt(tokens[0]), tokens[1], Integer.parseInt(tokens[4]),
+						Integer.parseInt(tokens[5]), Integer.parseInt(tokens[6]), Integer.parseInt(tokens[7]),
+						Double.parseDouble(tokens[8])));
+			} catch (NumberFormatException e) {
+				throw new IOException("Malformed scenario: " + line, e);
+			}
+		}
+		return scenarios;
+	}
+
+	/**
+	 * Parse the value of a header line.
+	 * @param tokens tokens of the line
+	 * @param line the line
+	 * @return value
+	 * @throws IOException if there is no valid value
+	 */
+	private static int parseInt(String[] tokens, String line) throws IOException {
+		try {
+			return Integer.parseInt(tokens[1]);
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			throw new IOException("Malformed header: " + line, e);
+		}
+	}
+}
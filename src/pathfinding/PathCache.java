@@ -0,0 +1,297 @@
+package pathfinding;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded cache of path results, keyed by start, goal and kind of search, evicting the least recently used
+ * entry when full. Once attached with {@link #attach()}, the cache listens to its map: a new wall only drops the
+ * paths it blocks, since every other path stays valid and cannot get beaten, while a removed wall may open
+ * shorter paths and clears the cache. A cache that is not attached cannot tell which paths a change affects, so
+ * it drops every entry once the walls changed. Results computed on an older version of the map are never stored. The cache keeps its own copy of every
+ * result and hands out copies, so a caller changing a path cannot change what later queries get.
+ * @author ducda
+ *
+ */
+public class PathCache implements MapListener {
+	/**
+	 * Map the paths were found on.
+	 */
+	private final GridMap map;
+	/**
+	 * Cached paths in access order, least recently used first.
+	 */
+	private final LinkedHashMap<Key, PathResult> entries;
+	/**
+	 * Number of queries answered from the cache.
+	 */
+	private long hits;
+	/**
+	 * Number of queries that needed a search.
+	 */
+	private long misses;
+	/**
+	 * Number of entries dropped to make room.
+	 */
+	private long evictions;
+	/**
+	 * Number of entries dropped because the map changed.
+	 */
+	private long invalidations;
+	/**
+	 * Whether the cache listens to its map.
+	 */
+	private boolean attached;
+	/**
+	 * Version of the walls the entries were last checked against, while the cache is not attached.
+	 */
+	private long syncedVersion;
+
+	/**
+	 * Constructor. The cache does not listen to the map until {@link #attach()} is called.
+	 * @param map map the paths are found on
+	 * @param capacity maximum number of entries
+	 */
+	public PathCache(GridMap map, int capacity) {
+		this.map = map;
+		entries = new LinkedHashMap<Key, PathResult>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, PathResult> eldest) {
+				if (size() > capacity) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+		syncedVersion = map.getVersion();
+	}
+
+	/**
+	 * Start listening to the map, so a wall change only drops the paths it affects.
+	 * @return this cache
+	 */
+	public synchronized PathCache attach() {
+		if (!attached) {
+			catchUp();
+			map.addListener(this);
+			attached = true;
+		}
+		return this;
+	}
+
+	/**
+	 * Stop listening to the map. Entries are then dropped all at once when the walls change.
+	 */
+	public synchronized void close() {
+		map.removeListener(this);
+		attached = false;
+		syncedVersion = map.getVersion();
+	}
+
+	/**
+	 * Drop every entry if the walls changed while the cache was not listening.
+	 */
+	private void catchUp() {
+		long version = map.getVersion();
+		if (version != syncedVersion) {
+			invalidations += entries.size();
+			entries.clear();
+			syncedVersion = version;
+		}
+	}
+
+	/**
+	 * Find a path, from the cache if this query was answered before.
+	 * @param finder engine searching the cache's map
+	 * @param start start cell
+	 * @param goal end cell
+	 * @return the path, the caller's to change
+	 */
+	public PathResult findPath(PathFinder finder, int start, int goal) {
+		Key key = new Key(start, goal, finder.searchKey());
+		long version;
+		synchronized (this) {
+			if (!attached) {
+				catchUp();
+			}
+			PathResult cached = entries.get(key);
+			if (cached != null) {
+				hits++;
+				return copy(cached);
+			}
+			misses++;
+			version = map.getVersion();
+		}
+		PathResult result = finder.findPath(start, goal);
+		synchronized (this) {
+			// a wall changed during the search, the result may already be stale, and a stopped search has no answer
+			if (map.getVersion() == version && result.isComplete()) {
+				entries.put(key, copy(result));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Copy a result, path included.
+	 * @param result result to copy
+	 * @return a result sharing nothing with it
+	 */
+	private static PathResult copy(PathResult result) {
+		return new PathResult(result.getPath().clone(), result.getCost(), result.getStatus());
+	}
+
+	@Override
+	public synchronized void wallChanged(int row, int col, boolean isWall) {
+		if (!isWall) {
+			invalidations += entries.size();
+			entries.clear();
+			return;
+		}
+		Iterator<PathResult> it = entries.values().iterator();
+		while (it.hasNext()) {
+			if (blocks(it.next().getPath(), row, col)) {
+				it.remove();
+				invalidations++;
+			}
+		}
+	}
+
+	/**
+	 * Whether a new wall blocks a path. The path may only hold its turning points, every segment between them is
+	 * straight or diagonal.
+	 * @param path cells of the path
+	 * @param row row of the wall
+	 * @param col col of the wall
+	 * @return true if the path goes through the wall or moves diagonally past it where that is not allowed anymore,
+	 * false otherwise
+	 */
+	private boolean blocks(int[] path, int row, int col) {
+		if (path.length == 0) {
+			return false;
+		}
+		int r = map.row(path[0]);
+		int c = map.col(path[0]);
+		if (r == row && c == col) {
+			return true;
+		}
+		for (int i = 1; i < path.length; i++) {
+			int toRow = map.row(path[i]);
+			int toCol = map.col(path[i]);
+			int dRow = Integer.signum(toRow - r);
+			int dCol = Integer.signum(toCol - c);
+			while (r != toRow || c != toCol) {
+				int nextRow = r + dRow;
+				int nextCol = c + dCol;
+				if (nextRow == row && nextCol == col) {
+					return true;
+				}
+				// a diagonal move is blocked once both cells next to it are walls, or either if corners cannot be cut
+				if (dRow != 0 && dCol != 0 && ((nextRow == row && c == col
+						&& (!map.allowsCornerCutting() || map.isWall(r, nextCol)))
+						|| (r == row && nextCol == col && (!map.allowsCornerCutting() || map.isWall(nextRow, c))))) {
+					return true;
+				}
+				r = nextRow;
+				c = nextCol;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Drop every entry.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Get number of entries.
+	 * @return size
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Get number of queries answered from the cache.
+	 * @return hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get number of queries that needed a search.
+	 * @return misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get number of entries dropped to make room.
+	 * @return evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Get number of entries dropped because the map changed.
+	 * @return invalidations
+	 */
+	public synchronized long getInvalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * Key of a cached path.
+	 */
+	private static final class Key {
+		/**
+		 * Start cell.
+		 */
+		private final int start;
+		/**
+		 * End cell.
+		 */
+		private final int goal;
+		/**
+		 * Kind of search.
+		 */
+		private final String search;
+
+		/**
+		 * Constructor.
+		 * @param start start cell
+		 * @param goal end cell
+		 * @param search kind of search
+		 */
+		Key(int start, int goal, String search) {
+			this.start = start;
+			this.goal = goal;
+			this.search = search;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return start == other.start && goal == other.goal && search.equals(other.search);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(start, goal, search);
+		}
+	}
+}
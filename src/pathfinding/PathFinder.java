@@ -0,0 +1,528 @@
+package pathfinding;
+
+/**
+ * Base class of the pathfinding engines. A search can be run at once with {@link #findPath(int, int)} or one
+ * expansion at a time with {@link #begin(int, int)} and {@link #step()}.
+ * @author ducda
+ *
+ */
+public abstract class PathFinder {
+	/**
+	 * Number of steps between two reads of the clock.
+	 */
+	static final int CLOCK_INTERVAL = 64;
+	/**
+	 * Map to search on.
+	 */
+	protected final GridMap map;
+	/**
+	 * Listener notified of search events, may be null.
+	 */
+	protected SearchListener listener;
+	/**
+	 * Start location.
+	 */
+	protected int start;
+	/**
+	 * End location.
+	 */
+	protected int goal;
+	/**
+	 * Scores, parents and open list of the current search.
+	 */
+	protected SearchContext ctx;
+	/**
+	 * Engine whose context this one searches with, null to keep one of its own.
+	 */
+	private PathFinder contextOwner;
+	/**
+	 * Whether the search is done.
+	 */
+	protected boolean finished;
+	/**
+	 * Whether the start or the goal of the current search is a wall, so there is nothing to search.
+	 */
+	protected boolean wallEndpoint;
+	/**
+	 * Heuristic chosen by the caller, null to pick one from the movement model.
+	 */
+	private Heuristic heuristic;
+	/**
+	 * Heuristic used by the current search.
+	 */
+	protected Heuristic activeHeuristic;
+	/**
+	 * Order of open cells with equal F score.
+	 */
+	protected TieBreaking tieBreaking = TieBreaking.HIGHER_G;
+	/**
+	 * Cell whose distance is balanced against the distance to the goal in the heuristic, -1 for none. Set by
+	 * {@link BidirectionalSearch}.
+	 */
+	int balanceRoot = -1;
+	/**
+	 * Number of nodes expanded by the current search.
+	 */
+	protected int expansions;
+	/**
+	 * Number of times the current search gave a node a new best score.
+	 */
+	protected long generated;
+	/**
+	 * Number of jumps tried by the current search.
+	 */
+	protected long jumpCalls;
+	/**
+	 * Number of cells looked at by those jumps.
+	 */
+	protected long cellsScanned;
+	/**
+	 * Open list counters when the current search began: pushes, pops and decrease-keys.
+	 */
+	private final long[] heapBase = new long[3];
+	/**
+	 * Listener notified of the metrics of every finished search, may be null.
+	 */
+	private MetricsListener metricsListener;
+	/**
+	 * Metrics of the last search reported, null before the first one.
+	 */
+	private SearchMetrics lastMetrics;
+	/**
+	 * Budget of each search run by {@link #findPath(int, int)}.
+	 */
+	private SearchLimits limits = SearchLimits.UNLIMITED;
+	/**
+	 * Token another thread may use to stop the searches, null for none.
+	 */
+	private CancelToken cancelToken;
+	/**
+	 * Value of {@link System#nanoTime()} when the current search began.
+	 */
+	private long startTime;
+
+	/**
+	 * Constructor.
+	 * @param map map to search on
+	 */
+	public PathFinder(GridMap map) {
+		this.map = map;
+	}
+
+	/**
+	 * Search with the context of another engine on the same map instead of one of its own, so a set of engines
+	 * only allocates one context between them. Each search overwrites what the last one left, so engines sharing
+	 * a context must never search at the same time, nor read the state of a search once another has begun.
+	 * @param owner engine whose context to use, null to go back to one of its own
+	 */
+	public void shareContext(PathFinder owner) {
+		while (owner != null && owner.contextOwner != null) {
+			owner = owner.contextOwner;
+		}
+		if (owner == this) {
+			owner = null;
+		} else if (owner != null && owner.map.size() != map.size()) {
+			throw new IllegalArgumentException("Engines sharing a context must search maps of the same size");
+		}
+		contextOwner = owner;
+		ctx = null;
+	}
+
+	/**
+	 * Get the context this engine searches with, allocating it the first time.
+	 * @return context with one entry per cell
+	 */
+	private SearchContext context() {
+		if (contextOwner != null) {
+			return contextOwner.context();
+		}
+		if (ctx == null || ctx.capacity() != map.size()) {
+			ctx = new SearchContext(map.size());
+		}
+		return ctx;
+	}
+
+	/**
+	 * Set the listener notified of search events.
+	 * @param listener listener, null for none
+	 */
+	public void setListener(SearchListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Set the heuristic.
+	 * @param heuristic heuristic, null to pick the tightest admissible one for the movement model
+	 */
+	public void setHeuristic(Heuristic heuristic) {
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Set the order of open cells with equal F score.
+	 * @param tieBreaking tie-breaking rule
+	 */
+	public void setTieBreaking(TieBreaking tieBreaking) {
+		this.tieBreaking = tieBreaking;
+	}
+
+	/**
+	 * Set the budget of the searches run by {@link #findPath(int, int)}.
+	 * @param limits budget, {@link SearchLimits#UNLIMITED} for none
+	 */
+	public void setLimits(SearchLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Set the token that stops the searches run by {@link #findPath(int, int)}.
+	 * @param cancelToken token, null for none
+	 */
+	public void setCancelToken(CancelToken cancelToken) {
+		this.cancelToken = cancelToken;
+	}
+
+	/**
+	 * Set the listener notified of the metrics of every search reported, see {@link #report(PathResult)}.
+	 * @param metricsListener listener, null for none
+	 */
+	public void setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * Get the metrics of the last search reported.
+	 * @return metrics, null if no search was reported yet
+	 */
+	public SearchMetrics getLastMetrics() {
+		return lastMetrics;
+	}
+
+	/**
+	 * Get a key telling which kind of search this engine runs. Engines with the same key on the same map find
+	 * interchangeable paths.
+	 * @return search key
+	 */
+	public String searchKey() {
+		return getClass().getSimpleName();
+	}
+
+	/**
+	 * Whether the nodes this engine opens are jump points, which may be far from the node they were reached from.
+	 * @return true if it jumps, false if it opens neighbors
+	 */
+	boolean opensJumpPoints() {
+		return false;
+	}
+
+	/**
+	 * Get the map this engine searches.
+	 * @return the map
+	 */
+	public GridMap getMap() {
+		return map;
+	}
+
+	/**
+	 * Find a path from start to goal, within the budget and until cancelled.
+	 * @param start start cell
+	 * @param goal end cell
+	 * @return the path, or the best partial path if the search was stopped
+	 */
+	public PathResult findPath(int start, int goal) {
+		begin(start, goal);
+		SearchStatus stopped = null;
+		int count = 0;
+		while (!finished && (stopped = checkLimits(count++)) == null && step()) {
+			// keep expanding
+		}
+		PathResult result = stopped == null ? result() : partialResult(stopped);
+		report(result);
+		return result;
+	}
+
+	/**
+	 * Build the metrics of the current search and hand them to the metrics listener. Done by
+	 * {@link #findPath(int, int)}; callers running a search with {@link #step()} call it once they are done.
+	 * @param result path the search ended with
+	 * @return metrics of the search
+	 */
+	public SearchMetrics report(PathResult result) {
+		SearchMetrics metrics = new SearchMetrics(searchKey());
+		collectMetrics(metrics);
+		metrics.pathLength = result.getPath().length;
+		metrics.cost = result.getCost();
+		metrics.status = result.getStatus();
+		metrics.wallNanos = System.nanoTime() - startTime;
+		lastMetrics = metrics;
+		if (metricsListener != null) {
+			metricsListener.searchFinished(metrics);
+		}
+		return metrics;
+	}
+
+	/**
+	 * Add the counters of the current search to its metrics.
+	 * @param metrics metrics being built
+	 */
+	protected void collectMetrics(SearchMetrics metrics) {
+		metrics.expanded += expansions;
+		metrics.generated += generated;
+		metrics.jumpCalls += jumpCalls;
+		metrics.cellsScanned += cellsScanned;
+		IndexedHeap heap = openList();
+		if (heap != null) {
+			metrics.heapPushes += heap.getPushes() - heapBase[0];
+			metrics.heapPops += heap.getPops() - heapBase[1];
+			metrics.heapDecreaseKeys += heap.getDecreases() - heapBase[2];
+		}
+	}
+
+	/**
+	 * Get the open list of the current search, to count its work.
+	 * @return open list, null if there is none yet
+	 */
+	protected IndexedHeap openList() {
+		return ctx == null ? null : ctx.open;
+	}
+
+	/**
+	 * Read the counters of an open list.
+	 * @param heap open list, may be null
+	 * @param out array the pushes, pops and decrease-keys are written to, zeros if there is no open list
+	 */
+	static void heapCounters(IndexedHeap heap, long[] out) {
+		out[0] = heap == null ? 0 : heap.getPushes();
+		out[1] = heap == null ? 0 : heap.getPops();
+		out[2] = heap == null ? 0 : heap.getDecreases();
+	}
+
+	/**
+	 * Check whether the current search has to stop. Reads the clock only every {@link #CLOCK_INTERVAL} steps.
+	 * @param count number of steps taken so far in this run
+	 * @return why the search has to stop, null if it may go on
+	 */
+	protected SearchStatus checkLimits(int count) {
+		if (cancelToken != null && cancelToken.isCancelled()) {
+			return SearchStatus.CANCELLED;
+		}
+		if (budgetedExpansions() >= limits.getMaxExpansions() || openSize() > limits.getMaxOpenSize()) {
+			return SearchStatus.BUDGET_EXCEEDED;
+		}
+		if (count % CLOCK_INTERVAL == 0 && System.nanoTime() - startTime > limits.getTimeoutNanos()) {
+			return SearchStatus.BUDGET_EXCEEDED;
+		}
+		return null;
+	}
+
+	/**
+	 * Get the work of the current search counted against the expansion limit.
+	 * @return number of expansions
+	 */
+	protected long budgetedExpansions() {
+		return expansions;
+	}
+
+	/**
+	 * Get the number of nodes on the open list.
+	 * @return open list size
+	 */
+	protected int openSize() {
+		return ctx.open.size();
+	}
+
+	/**
+	 * Initialize objects used by algorithms. A search from or to a wall is done at once, with no path, before any
+	 * engine starts searching.
+	 * @param start start cell
+	 * @param goal end cell
+	 */
+	public void begin(int start, int goal) {
+		this.start = start;
+		this.goal = goal;
+		startTime = System.nanoTime();
+		activeHeuristic = heuristic != null ? heuristic : defaultHeuristic();
+		finished = false;
+		expansions = 0;
+		generated = 0;
+		jumpCalls = 0;
+		cellsScanned = 0;
+		if (contextOwner != null) {
+			// picked up before the counters are read, a shared open list already counts the work of other engines
+			ctx = contextOwner.context();
+		}
+		IndexedHeap heap = openList();
+		heapCounters(heap, heapBase);
+		wallEndpoint = map.isWall(start) || map.isWall(goal);
+		if (wallEndpoint) {
+			// nothing reaches or leaves a wall, so every engine gives the same answer without searching
+			finished = true;
+			return;
+		}
+		initSearch();
+		if (heap != openList()) {
+			// the search allocated a new open list, all of its work counts
+			heapCounters(null, heapBase);
+		}
+	}
+
+	/**
+	 * Set up the search state once start, goal and heuristic are known.
+	 */
+	protected void initSearch() {
+		ctx = context();
+		ctx.reset();
+		ctx.set(start, 0, heuristicCost(start), -1);
+		ctx.open.push(start, ctx.f[start], tieBreaking.key(0));
+	}
+
+	/**
+	 * Expand the next node.
+	 * @return true if the search is not done yet, false otherwise
+	 */
+	public boolean step() {
+		if (finished) {
+			return false;
+		}
+		if (ctx.open.isEmpty()) {
+			finished = true;
+			return false;
+		}
+		expansions++;
+		expand();
+		return !finished;
+	}
+
+	/**
+	 * Get the number of nodes expanded by the current search.
+	 * @return number of expansions
+	 */
+	public int getExpansions() {
+		return expansions;
+	}
+
+	/**
+	 * Whether the search is done.
+	 * @return true if the search is done, false otherwise
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Get the parent of a node in the current search.
+	 * @param vertex current node
+	 * @return its parent, -1 if it has none
+	 */
+	public int getParent(int vertex) {
+		return ctx.parent(vertex);
+	}
+
+	/**
+	 * Get the path found by the current search.
+	 * @return the path, empty if the start or the goal is a wall
+	 */
+	public PathResult result() {
+		if (wallEndpoint) {
+			return new PathResult(new int[0], Double.POSITIVE_INFINITY);
+		}
+		return searchResult();
+	}
+
+	/**
+	 * Get the path found by the current search, whose start and goal are both open.
+	 * @return the path
+	 */
+	protected PathResult searchResult() {
+		if (goal != start && ctx.parent(goal) == -1) {
+			return new PathResult(new int[0], Double.POSITIVE_INFINITY);
+		}
+		return new PathResult(pathTo(goal), ctx.g[goal]);
+	}
+
+	/**
+	 * Get the best partial path of a search that was stopped: the path to the open node that looks closest to the
+	 * goal.
+	 * @param status why the search was stopped
+	 * @return the partial path
+	 */
+	protected PathResult partialResult(SearchStatus status) {
+		int best = start;
+		double bestEstimate = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < ctx.open.size(); i++) {
+			int vertex = ctx.open.get(i);
+			double estimate = activeHeuristic.estimate(Math.abs(map.row(vertex) - map.row(goal)),
+					Math.abs(map.col(vertex) - map.col(goal)));
+			if (estimate < bestEstimate || (estimate == bestEstimate && ctx.g[vertex] < ctx.g[best])) {
+				best = vertex;
+				bestEstimate = estimate;
+			}
+		}
+		return new PathResult(pathTo(best), ctx.g[best], status);
+	}
+
+	/**
+	 * Follow the parents of a node back to the start.
+	 * @param vertex node reached by the current search
+	 * @return nodes from start to that node
+	 */
+	protected int[] pathTo(int vertex) {
+		int length = 1;
+		for (int current = vertex; current != start; current = ctx.parent[current]) {
+			length++;
+		}
+		int[] path = new int[length];
+		int current = vertex;
+		for (int i = length - 1; i >= 0; i--) {
+			path[i] = current;
+			current = ctx.parent[current];
+		}
+		return path;
+	}
+
+	/**
+	 * Estimated cost from current node to end location.
+	 * @param current current node
+	 * @return estimated cost
+	 */
+	protected double heuristicCost(int current) {
+		int dx = Math.abs(map.col(current) - map.col(goal));
+		int dy = Math.abs(map.row(current) - map.row(goal));
+		if (balanceRoot == -1) {
+			return activeHeuristic.estimate(dy, dx);
+		}
+		// average of the distance to the goal and minus the distance to the other root, so both directions of a
+		// bidirectional search see the same reduced costs
+		int rx = Math.abs(map.col(current) - map.col(balanceRoot));
+		int ry = Math.abs(map.row(current) - map.row(balanceRoot));
+		return (activeHeuristic.estimate(dy, dx) - activeHeuristic.estimate(ry, rx)) / 2;
+	}
+
+	/**
+	 * Get the heuristic matching the movement model of this engine.
+	 * @return default heuristic
+	 */
+	protected abstract Heuristic defaultHeuristic();
+
+	/**
+	 * Put a node on the open list with new scores, or lower its scores if it is already there.
+	 * @param vertex node reached
+	 * @param gScore its new G score
+	 * @param fScore its new F score
+	 * @param from node it was reached from
+	 */
+	protected void open(int vertex, double gScore, double fScore, int from) {
+		generated++;
+		ctx.set(vertex, gScore, fScore, from);
+		if (ctx.open.contains(vertex)) {
+			ctx.open.decreaseKey(vertex, fScore, tieBreaking.key(gScore));
+		} else {
+			ctx.open.push(vertex, fScore, tieBreaking.key(gScore));
+		}
+	}
+
+	/**
+	 * Take the best node from the open list and expand it.
+	 */
+	protected abstract void expand();
+}
@@ -0,0 +1,83 @@
+package pathfinding;
+
+/**
+ * Result of a path query.
+ * @author ducda
+ *
+ */
+public class PathResult {
+	/**
+	 * Cells from start to goal, or towards the goal if the search was stopped, empty if there is no path.
+	 */
+	private final int[] path;
+	/**
+	 * Total cost of the path.
+	 */
+	private final double cost;
+	/**
+	 * How the search ended.
+	 */
+	private final SearchStatus status;
+
+	/**
+	 * Constructor for a search that ran to the end.
+	 * @param path cells from start to goal, empty if there is no path
+	 * @param cost total cost of the path
+	 */
+	public PathResult(int[] path, double cost) {
+		this(path, cost, path.length > 0 ? SearchStatus.FOUND : SearchStatus.UNREACHABLE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param path cells from start to goal, or from start to the best node reached if the search was stopped
+	 * @param cost total cost of the path
+	 * @param status how the search ended
+	 */
+	public PathResult(int[] path, double cost, SearchStatus status) {
+		this.path = path;
+		this.cost = cost;
+		this.status = status;
+	}
+
+	/**
+	 * Whether a path to the goal was found.
+	 * @return true if a path was found, false otherwise
+	 */
+	public boolean isFound() {
+		return status == SearchStatus.FOUND;
+	}
+
+	/**
+	 * Whether the search ran to the end, i.e. it either found a path or showed there is none.
+	 * @return true if the search was not stopped, false otherwise
+	 */
+	public boolean isComplete() {
+		return status == SearchStatus.FOUND || status == SearchStatus.UNREACHABLE;
+	}
+
+	/**
+	 * Get how the search ended.
+	 * @return search status
+	 */
+	public SearchStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * Get the path. For JPS it only contains the jump points. If the search was stopped it is the best partial
+	 * path, ending at the node that looked closest to the goal.
+	 * @return cells from start to goal, or towards it
+	 */
+	public int[] getPath() {
+		return path;
+	}
+
+	/**
+	 * Get the cost of the path.
+	 * @return path cost, infinity if there is no path
+	 */
+	public double getCost() {
+		return cost;
+	}
+}
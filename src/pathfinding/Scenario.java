@@ -0,0 +1,113 @@
+package pathfinding;
+
+/**
+ * One query of a Moving AI scenario file: a start and goal on a map, and the length of an optimal path.
+ * @author ducda
+ *
+ */
+public class Scenario {
+	/**
+	 * Bucket of the query, queries in a bucket have about the same optimal length.
+	 */
+	private final int bucket;
+	/**
+	 * Name of the map file.
+	 */
+	private final String mapName;
+	/**
+	 * Start column.
+	 */
+	private final int startCol;
+	/**
+	 * Start row.
+	 */
+	private final int startRow;
+	/**
+	 * Goal column.
+	 */
+	private final int goalCol;
+	/**
+	 * Goal row.
+	 */
+	private final int goalRow;
+	/**
+	 * Published optimal path length.
+	 */
+	private final double optimal;
+
+	/**
+	 * Constructor.
+	 * @param bucket bucket of the query
+	 * @param mapName name of the map file
+	 * @param startCol start column
+	 * @param startRow start row
+	 * @param goalCol goal column
+	 * @param goalRow goal row
+	 * @param optimal published optimal path length
+	 */
+	public Scenario(int bucket, String mapName, int startCol, int startRow, int goalCol, int goalRow, double optimal) {
+		this.bucket = bucket;
+		this.mapName = mapName;
+		this.startCol = startCol;
+		this.startRow = startRow;
+		this.goalCol = goalCol;
+		this.goalRow = goalRow;
+		this.optimal = optimal;
+	}
+
+	/**
+	 * Get bucket of the query.
+	 * @return bucket
+	 */
+	public int getBucket() {
+		return bucket;
+	}
+
+	/**
+	 * Get name of the map file.
+	 * @return map file name
+	 */
+	public String getMapName() {
+		return mapName;
+	}
+
+	/**
+	 * Get start column.
+	 * @return start column
+	 */
+	public int getStartCol() {
+		return startCol;
+	}
+
+	/**
+	 * Get start row.
+	 * @return start row
+	 */
+	public int getStartRow() {
+		return startRow;
+	}
+
+	/**
+	 * Get goal column.
+	 * @return goal column
+	 */
+	public int getGoalCol() {
+		return goalCol;
+	}
+
+	/**
+	 * Get goal row.
+	 * @return goal row
+	 */
+	public int getGoalRow() {
+		return goalRow;
+	}
+
+	/**
+	 * Get published optimal path length.
+	 * @return optimal length
+	 */
+	public double getOptimal() {
+		return optimal;
+	}
+}
@@ -0,0 +1,261 @@
+package pathfinding;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line runner for Moving AI scenarios. Runs every query of a .scen file and writes one CSV row per query
+ * with the published optimal length, the cost found, the number of expansions, the latency and how the search
+ * ended. Latency percentiles are written to stderr as CSV when all queries are done. Queries slower than a
+ * threshold can be run again with a {@link SearchTrace} and saved, to be replayed in the visualizer.
+ * <p>
+ * Usage: ScenarioRunner &lt;file.scen&gt; [--engine ASTAR|ASTAR_4|JPS|JPS_PLUS|BI_ASTAR|BI_JPS|HPA] [--maps dir]
+ * [--warmup passes] [--max-expansions n] [--timeout-ms ms] [--out file] [--trace-over-ms ms] [--trace-dir dir]
+ * @author ducda
+ *
+ */
+public class ScenarioRunner {
+	/**
+	 * Difference above which a cost does not match the published optimal length, which is printed with 8
+	 * decimals.
+	 */
+	private static final double COST_TOLERANCE = 1e-4;
+	/**
+	 * Percentiles written in the summary.
+	 */
+	private static final double[] PERCENTILES = { 50, 90, 95, 99, 100 };
+	/**
+	 * Names of the engines that can be run.
+	 */
+	private static final List<String> ENGINES = List.of("ASTAR", "ASTAR_4", "JPS", "JPS_PLUS", "BI_ASTAR", "BI_JPS",
+			"HPA");
+
+	/**
+	 * Engine to run.
+	 */
+	private String engine = "JPS";
+	/**
+	 * Directory of the map files, null for the directory of the scenario file.
+	 */
+	private Path mapDir;
+	/**
+	 * Number of untimed passes over all queries before the timed one.
+	 */
+	private int warmup = 1;
+	/**
+	 * Most nodes a query may expand.
+	 */
+	private long maxExpansions = Long.MAX_VALUE;
+	/**
+	 * Most time a query may run, in nanoseconds.
+	 */
+	private long timeout = Long.MAX_VALUE;
+	/**
+	 * Latency above which a query is traced, in nanoseconds.
+	 */
+	private long traceOver = Long.MAX_VALUE;
+	/**
+	 * Directory the traces are saved to.
+	 */
+	private Path traceDir = Paths.get(".");
+	/**
+	 * Engine of each map already read, by map name.
+	 */
+	private final HashMap<String, PathFinder> finders = new HashMap<>();
+
+	/**
+	 * Entry point.
+	 * @param args command line arguments
+	 */
+	public static void main(String[] args) {
+		ScenarioRunner runner = new ScenarioRunner();
+		Path scenFile = null;
+		Path outFile = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--engine":
+					runner.engine = args[++i].toUpperCase(Locale.ROOT);
+					break;
+				case "--maps":
+					runner.mapDir = Paths.get(args[++i]);
+					break;
+				case "--warmup":
+					runner.warmup = Integer.parseInt(args[++i]);
+					break;
+				case "--max-expansions":
+					runner.maxExpansions = Long.parseLong(args[++i]);
+					break;
+				case "--timeout-ms":
+					runner.timeout = Long.parseLong(args[++i]) * 1_000_000L;
+					break;
+				case "--trace-over-ms":
+					runner.traceOver = Long.parseLong(args[++i]) * 1_000_000L;
+					break;
+				case "--trace-dir":
+					runner.traceDir = Paths.get(args[++i]);
+					break;
+				case "--out":
+					outFile = Paths.get(args[++i]);
+					break;
+				default:
+					scenFile = Paths.get(args[i]);
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			scenFile = null;
+		}
+		if (scenFile == null || !ENGINES.contains(runner.engine)) {
+			System.err.println("Usage: ScenarioRunner <file.scen>"
+					+ " [--engine ASTAR|ASTAR_4|JPS|JPS_PLUS|BI_ASTAR|BI_JPS|HPA]"
+					+ " [--maps dir] [--warmup passes] [--max-expansions n] [--timeout-ms ms] [--out file]"
+					+ " [--trace-over-ms ms] [--trace-dir dir]");
+			System.exit(2);
+		}
+		if (runner.mapDir == null) {
+			Path parent = scenFile.toAbsolutePath().getParent();
+			runner.mapDir = parent != null ? parent : Paths.get(".");
+		}
+		try (PrintStream out = outFile != null ? new PrintStream(new FileOutputStream(outFile.toFile())) : null) {
+			runner.run(MovingAiLoader.readScenarios(scenFile), out != null ? out : System.out, System.err);
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Run the queries.
+	 * @param scenarios queries
+	 * @param out destination of the per-query rows
+	 * @param summary destination of the latency percentiles
+	 * @throws IOException if a map cannot be read or a trace cannot be saved
+	 */
+	public void run(List<Scenario> scenarios, PrintStream out, PrintStream summary) throws IOException {
+		for (int pass = 0; pass < warmup; pass++) {
+			for (Scenario scenario : scenarios) {
+				query(scenario);
+			}
+		}
+
+		long[] latencies = new long[scenarios.size()];
+		int mismatches = 0;
+		int stopped = 0;
+		out.println("id,bucket,start_col,start_row,goal_col,goal_row,optimal,cost,expansions,latency_ns,status,"
+				+ "generated,heap_pushes,heap_pops,heap_decrease_keys,jump_calls,cells_scanned");
+		for (int i = 0; i < scenarios.size(); i++) {
+			Scenario scenario = scenarios.get(i);
+			PathFinder finder = finderFor(scenario.getMapName());
+			long time = System.nanoTime();
+			PathResult result = query(scenario);
+			latencies[i] = System.nanoTime() - time;
+			if (!result.isComplete()) {
+				stopped++;
+			} else if (Math.abs(result.getCost() - scenario.getOptimal()) > COST_TOLERANCE) {
+				mismatches++;
+			}
+			SearchMetrics metrics = finder.getLastMetrics();
+			out.printf(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%.8f,%.8f,%d,%d,%s,%d,%d,%d,%d,%d,%d%n", i,
+					scenario.getBucket(), scenario.getStartCol(), scenario.getStartRow(), scenario.getGoalCol(),
+					scenario.getGoalRow(), scenario.getOptimal(), result.getCost(), finder.getExpansions(),
+					latencies[i], result.getStatus(), metrics.getGenerated(), metrics.getHeapPushes(),
+					metrics.getHeapPops(), metrics.getHeapDecreaseKeys(), metrics.getJumpCalls(),
+					metrics.getCellsScanned());
+			if (latencies[i] > traceOver) {
+				// engines are deterministic, running the query again records the same search
+				GridMap map = finder.getMap();
+				SearchTrace.record(finder, map.index(scenario.getStartRow(), scenario.getStartCol()),
+						map.index(scenario.getGoalRow(), scenario.getGoalCol()))
+						.save(traceDir.resolve("query-" + i + ".trace"));
+			}
+		}
+		out.flush();
+
+		Arrays.sort(latencies);
+		summary.println("statistic,value");
+		summary.println("queries," + latencies.length);
+		summary.println("cost_mismatches," + mismatches);
+		summary.println("stopped," + stopped);
+		for (double p : PERCENTILES) {
+			String name = p == 100 ? "max" : "p" + (int) p;
+			summary.println(name + "_latency_ns," + percentile(latencies, p));
+		}
+		summary.flush();
+	}
+
+	/**
+	 * Run one query.
+	 * @param scenario query
+	 * @return the path
+	 * @throws IOException if the map cannot be read
+	 */
+	private PathResult query(Scenario scenario) throws IOException {
+		PathFinder finder = finderFor(scenario.getMapName());
+		GridMap map = finder.getMap();
+		return finder.findPath(map.index(scenario.getStartRow(), scenario.getStartCol()),
+				map.index(scenario.getGoalRow(), scenario.getGoalCol()));
+	}
+
+	/**
+	 * Get the engine for a map, reading the map the first time.
+	 * @param mapName name of the map file
+	 * @return engine searching that map
+	 * @throws IOException if the map cannot be read
+	 */
+	private PathFinder finderFor(String mapName) throws IOException {
+		PathFinder finder = finders.get(mapName);
+		if (finder == null) {
+			// scenario files may name the map with a directory, only the file name is looked up
+			GridMap map = MovingAiLoader.readMap(mapDir.resolve(Paths.get(mapName).getFileName()));
+			finder = createFinder(map);
+			finder.setLimits(new SearchLimits(maxExpansions, timeout, Integer.MAX_VALUE));
+			finders.put(mapName, finder);
+		}
+		return finder;
+	}
+
+	/**
+	 * Create the chosen engine on a map.
+	 * @param map map to search on
+	 * @return the engine
+	 */
+	private PathFinder createFinder(GridMap map) {
+		switch (engine) {
+		case "ASTAR":
+			return new AStar(map, true);
+		case "ASTAR_4":
+			return new AStar(map, false);
+		case "JPS_PLUS":
+			return new JumpPointPlus(new JumpTable(map));
+		case "BI_ASTAR":
+			return new BidirectionalSearch(new AStar(map, true), new AStar(map, true), true);
+		case "BI_JPS":
+			return new BidirectionalSearch(new JumpPointSearch(map), new JumpPointSearch(map), false);
+		case "HPA":
+			return new HierarchicalSearch(new ClusterGraph(map, ClusterGraph.DEFAULT_CLUSTER_SIZE, true));
+		default:
+			return new JumpPointSearch(map);
+		}
+	}
+
+	/**
+	 * Get a percentile of sorted values, by nearest rank.
+	 * @param sorted values in ascending order
+	 * @param p percentile, 0 to 100
+	 * @return value at that percentile, 0 if there are no values
+	 */
+	private static long percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(p / 100 * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+	}
+}
@@ -0,0 +1,143 @@
+package pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Per-search state kept in primitive arrays indexed by cell id. Every entry is stamped with the generation of the
+ * search that wrote it, so starting a new search only bumps the generation instead of resetting the arrays, and
+ * entries from older searches read as unvisited.
+ * @author ducda
+ *
+ */
+public class SearchContext {
+	/**
+	 * Open list.
+	 */
+	protected final IndexedHeap open;
+	/**
+	 * G score of each cell.
+	 */
+	protected final double[] g;
+	/**
+	 * F score of each cell.
+	 */
+	protected final double[] f;
+	/**
+	 * Parent of each cell.
+	 */
+	protected final int[] parent;
+	/**
+	 * Generation in which the scores and parent of each cell were written.
+	 */
+	private final int[] seen;
+	/**
+	 * Generation in which each cell was closed.
+	 */
+	private final int[] closed;
+	/**
+	 * Generation of the current search.
+	 */
+	private int generation;
+
+	/**
+	 * Constructor.
+	 * @param capacity number of cells
+	 */
+	public SearchContext(int capacity) {
+		open = new IndexedHeap(capacity);
+		g = new double[capacity];
+		f = new double[capacity];
+		parent = new int[capacity];
+		seen = new int[capacity];
+		closed = new int[capacity];
+	}
+
+	/**
+	 * Get number of cells this context can hold.
+	 * @return capacity
+	 */
+	public int capacity() {
+		return g.length;
+	}
+
+	/**
+	 * Start a new search. Costs O(open list size), not O(capacity).
+	 */
+	public void reset() {
+		open.clear();
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			// stamps would wrap around, clear them once
+			Arrays.fill(seen, 0);
+			Arrays.fill(closed, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Whether a cell has been reached in the current search.
+	 * @param id cell id
+	 * @return true if it has been reached, false otherwise
+	 */
+	public boolean isSeen(int id) {
+		return seen[id] == generation;
+	}
+
+	/**
+	 * Whether a cell has been expanded in the current search.
+	 * @param id cell id
+	 * @return true if it has been expanded, false otherwise
+	 */
+	public boolean isClosed(int id) {
+		return closed[id] == generation;
+	}
+
+	/**
+	 * Mark a cell as expanded.
+	 * @param id cell id
+	 */
+	public void close(int id) {
+		closed[id] = generation;
+	}
+
+	/**
+	 * Get G score of a cell.
+	 * @param id cell id
+	 * @return its G score, infinity if it has not been reached
+	 */
+	public double g(int id) {
+		return seen[id] == generation ? g[id] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Get F score of a cell.
+	 * @param id cell id
+	 * @return its F score, infinity if it has not been reached
+	 */
+	public double f(int id) {
+		return seen[id] == generation ? f[id] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Get parent of a cell.
+	 * @param id cell id
+	 * @return its parent, -1 if it has none
+	 */
+	public int parent(int id) {
+		return seen[id] == generation ? parent[id] : -1;
+	}
+
+	/**
+	 * Record scores and parent of a cell.
+	 * @param id cell id
+	 * @param gScore its G score
+	 * @param fScore its F score
+	 * @param from its parent, -1 for none
+	 */
+	public void set(int id, double gScore, double fScore, int from) {
+		seen[id] = generation;
+		g[id] = gScore;
+		f[id] = fScore;
+		parent[id] = from;
+	}
+}
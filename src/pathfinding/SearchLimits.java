@@ -0,0 +1,66 @@
+package pathfinding;
+
+/**
+ * Budget of a search: how many nodes it may expand, how long it may run and how large its open list may grow.
+ * A search that runs out of budget ends with {@link SearchStatus#BUDGET_EXCEEDED} and the best partial path.
+ * @author ducda
+ *
+ */
+public class SearchLimits {
+	/**
+	 * No limit at all.
+	 */
+	public static final SearchLimits UNLIMITED = new SearchLimits(Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE);
+	/**
+	 * Most nodes a search may expand.
+	 */
+	private final long maxExpansions;
+	/**
+	 * Most time a search may run, in nanoseconds.
+	 */
+	private final long timeoutNanos;
+	/**
+	 * Most nodes the open list may hold.
+	 */
+	private final int maxOpenSize;
+
+	/**
+	 * Constructor.
+	 * @param maxExpansions most nodes a search may expand, Long.MAX_VALUE for no limit
+	 * @param timeoutNanos most time a search may run in nanoseconds, Long.MAX_VALUE for no limit
+	 * @param maxOpenSize most nodes the open list may hold, Integer.MAX_VALUE for no limit
+	 */
+	public SearchLimits(long maxExpansions, long timeoutNanos, int maxOpenSize) {
+		if (maxExpansions <= 0 || timeoutNanos <= 0 || maxOpenSize <= 0) {
+			throw new IllegalArgumentException("Limits must be positive: " + maxExpansions + ", " + timeoutNanos
+					+ ", " + maxOpenSize);
+		}
+		this.maxExpansions = maxExpansions;
+		this.timeoutNanos = timeoutNanos;
+		this.maxOpenSize = maxOpenSize;
+	}
+
+	/**
+	 * Get the most nodes a search may expand.
+	 * @return expansion limit
+	 */
+	public long getMaxExpansions() {
+		return maxExpansions;
+	}
+
+	/**
+	 * Get the most time a search may run.
+	 * @return time limit in nanoseconds
+	 */
+	public long getTimeoutNanos() {
+		return timeoutNanos;
+	}
+
+	/**
+	 * Get the most nodes the open list may hold.
+	 * @return open list size limit
+	 */
+	public int getMaxOpenSize() {
+		return maxOpenSize;
+	}
+}
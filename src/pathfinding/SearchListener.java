@@ -0,0 +1,21 @@
+package pathfinding;
+
+/**
+ * Receives search events, e.g. to paint them.
+ * @author ducda
+ *
+ */
+public interface SearchListener {
+	/**
+	 * Called when a cell is put on the open list.
+	 * @param vertex opened cell
+	 * @param parent cell it was reached from
+	 */
+	void nodeOpened(int vertex, int parent);
+
+	/**
+	 * Called when a cell is expanded.
+	 * @param vertex expanded cell
+	 */
+	void nodeClosed(int vertex);
+}
@@ -0,0 +1,172 @@
+package pathfinding;
+
+import java.util.Locale;
+
+/**
+ * Counters of one search, built by {@link PathFinder#report(PathResult)} when the search is done.
+ * @author ducda
+ *
+ */
+public class SearchMetrics {
+	/**
+	 * Search key of the engine that ran the search.
+	 */
+	private final String engine;
+	/**
+	 * Number of nodes expanded.
+	 */
+	long expanded;
+	/**
+	 * Number of times a node got a new best score, i.e. was put on the open list or had its key lowered.
+	 */
+	long generated;
+	/**
+	 * Number of ids pushed on the open list.
+	 */
+	long heapPushes;
+	/**
+	 * Number of ids taken off the open list.
+	 */
+	long heapPops;
+	/**
+	 * Number of keys lowered on the open list.
+	 */
+	long heapDecreaseKeys;
+	/**
+	 * Number of jumps tried by Jump Point Search.
+	 */
+	long jumpCalls;
+	/**
+	 * Number of cells looked at by those jumps.
+	 */
+	long cellsScanned;
+	/**
+	 * Number of nodes in the path.
+	 */
+	int pathLength;
+	/**
+	 * Cost of the path.
+	 */
+	double cost;
+	/**
+	 * Time from the start of the search to the report, in nanoseconds.
+	 */
+	long wallNanos;
+	/**
+	 * How the search ended.
+	 */
+	SearchStatus status;
+
+	/**
+	 * Constructor.
+	 * @param engine search key of the engine
+	 */
+	SearchMetrics(String engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 * Get the search key of the engine that ran the search.
+	 * @return search key
+	 */
+	public String getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Get the number of nodes expanded.
+	 * @return number of expansions
+	 */
+	public long getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * Get the number of times a node got a new best score.
+	 * @return number of generated nodes
+	 */
+	public long getGenerated() {
+		return generated;
+	}
+
+	/**
+	 * Get the number of ids pushed on the open list.
+	 * @return number of pushes
+	 */
+	public long getHeapPushes() {
+		return heapPushes;
+	}
+
+	/**
+	 * Get the number of ids taken off the open list.
+	 * @return number of pops
+	 */
+	public long getHeapPops() {
+		return heapPops;
+	}
+
+	/**
+	 * Get the number of keys lowered on the open list.
+	 * @return number of decrease-keys
+	 */
+	public long getHeapDecreaseKeys() {
+		return heapDecreaseKeys;
+	}
+
+	/**
+	 * Get the number of jumps tried, 0 for engines that do not jump.
+	 * @return number of jumps
+	 */
+	public long getJumpCalls() {
+		return jumpCalls;
+	}
+
+	/**
+	 * Get the number of cells looked at by the jumps, 0 for JPS+ whose jumps are table lookups.
+	 * @return number of cells scanned
+	 */
+	public long getCellsScanned() {
+		return cellsScanned;
+	}
+
+	/**
+	 * Get the number of nodes in the path. For JPS it only counts the jump points.
+	 * @return path length, 0 if there is no path
+	 */
+	public int getPathLength() {
+		return pathLength;
+	}
+
+	/**
+	 * Get the cost of the path.
+	 * @return path cost, infinity if there is no path
+	 */
+	public double getCost() {
+		return cost;
+	}
+
+	/**
+	 * Get the time from the start of the search to the report.
+	 * @return wall time in nanoseconds
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * Get how the search ended.
+	 * @return search status
+	 */
+	public SearchStatus getStatus() {
+		return status;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT,
+				"engine=%s status=%s cost=%.3f length=%d expanded=%d generated=%d pushes=%d pops=%d"
+						+ " decreaseKeys=%d jumps=%d scanned=%d time_us=%.1f",
+				engine, status, cost, pathLength, expanded, generated, heapPushes, heapPops, heapDecreaseKeys,
+				jumpCalls, cellsScanned, wallNanos / 1000.0);
+	}
+}
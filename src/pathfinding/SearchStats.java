@@ -0,0 +1,252 @@
+package pathfinding;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histogram aggregated over every search reported to it. Set it as the metrics listener of
+ * any number of engines, on any number of threads, and register it to read it over JMX. Latencies go into
+ * power-of-two buckets, so percentiles are upper bounds within a factor of 2.
+ * @author ducda
+ *
+ */
+public class SearchStats implements MetricsListener, SearchStatsMBean {
+	/**
+	 * Number of latency buckets, one per bit of a long.
+	 */
+	private static final int BUCKETS = 64;
+	/**
+	 * Number of searches per status, in {@link SearchStatus} order.
+	 */
+	private final LongAdder[] byStatus = new LongAdder[SearchStatus.values().length];
+	/**
+	 * Total number of nodes expanded.
+	 */
+	private final LongAdder expanded = new LongAdder();
+	/**
+	 * Total number of nodes generated.
+	 */
+	private final LongAdder generated = new LongAdder();
+	/**
+	 * Total number of open list pushes.
+	 */
+	private final LongAdder heapPushes = new LongAdder();
+	/**
+	 * Total number of open list pops.
+	 */
+	private final LongAdder heapPops = new LongAdder();
+	/**
+	 * Total number of open list decrease-keys.
+	 */
+	private final LongAdder heapDecreaseKeys = new LongAdder();
+	/**
+	 * Total number of jumps tried.
+	 */
+	private final LongAdder jumpCalls = new LongAdder();
+	/**
+	 * Total number of cells scanned by jumps.
+	 */
+	private final LongAdder cellsScanned = new LongAdder();
+	/**
+	 * Total time of the searches, in nanoseconds.
+	 */
+	private final LongAdder totalNanos = new LongAdder();
+	/**
+	 * Number of searches per latency bucket.
+	 */
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+	/**
+	 * Longest time of a search, in nanoseconds.
+	 */
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 */
+	public SearchStats() {
+		for (int i = 0; i < byStatus.length; i++) {
+			byStatus[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Register these stats with the platform MBean server, under pathfinding:type=SearchStats,name=...
+	 * @param name name of the MBean, e.g. the application using it
+	 * @return object name it was registered under
+	 * @throws IllegalStateException if the name is taken or invalid
+	 */
+	public ObjectName register(String name) {
+		try {
+			ObjectName objectName = new ObjectName("pathfinding:type=SearchStats,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register search stats " + name, e);
+		}
+	}
+
+	@Override
+	public void searchFinished(SearchMetrics metrics) {
+		byStatus[metrics.getStatus().ordinal()].increment();
+		expanded.add(metrics.getExpanded());
+		generated.add(metrics.getGenerated());
+		heapPushes.add(metrics.getHeapPushes());
+		heapPops.add(metrics.getHeapPops());
+		heapDecreaseKeys.add(metrics.getHeapDecreaseKeys());
+		jumpCalls.add(metrics.getJumpCalls());
+		cellsScanned.add(metrics.getCellsScanned());
+		long nanos = Math.max(0, metrics.getWallNanos());
+		totalNanos.add(nanos);
+		histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+		maxNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	@Override
+	public long getSearches() {
+		long total = 0;
+		for (LongAdder count : byStatus) {
+			total += count.sum();
+		}
+		return total;
+	}
+
+	@Override
+	public long getFound() {
+		return byStatus[SearchStatus.FOUND.ordinal()].sum();
+	}
+
+	@Override
+	public long getUnreachable() {
+		return byStatus[SearchStatus.UNREACHABLE.ordinal()].sum();
+	}
+
+	@Override
+	public long getBudgetExceeded() {
+		return byStatus[SearchStatus.BUDGET_EXCEEDED.ordinal()].sum();
+	}
+
+	@Override
+	public long getCancelled() {
+		return byStatus[SearchStatus.CANCELLED.ordinal()].sum();
+	}
+
+	@Override
+	public long getExpanded() {
+		return expanded.sum();
+	}
+
+	@Override
+	public long getGenerated() {
+		return generated.sum();
+	}
+
+	@Override
+	public long getHeapPushes() {
+		return heapPushes.sum();
+	}
+
+	@Override
+	public long getHeapPops() {
+		return heapPops.sum();
+	}
+
+	@Override
+	public long getHeapDecreaseKeys() {
+		return heapDecreaseKeys.sum();
+	}
+
+	@Override
+	public long getJumpCalls() {
+		return jumpCalls.sum();
+	}
+
+	@Override
+	public long getCellsScanned() {
+		return cellsScanned.sum();
+	}
+
+	@Override
+	public double getMeanLatencyMicros() {
+		long searches = getSearches();
+		return searches == 0 ? 0 : totalNanos.sum() / 1000.0 / searches;
+	}
+
+	@Override
+	public double getP50LatencyMicros() {
+		return percentile(0.5);
+	}
+
+	@Override
+	public double getP90LatencyMicros() {
+		return percentile(0.9);
+	}
+
+	@Override
+	public double getP99LatencyMicros() {
+		return percentile(0.99);
+	}
+
+	@Override
+	public double getMaxLatencyMicros() {
+		return maxNanos.get() / 1000.0;
+	}
+
+	@Override
+	public long[] getLatencyHistogram() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = histogram.get(i);
+		}
+		return counts;
+	}
+
+	@Override
+	public void reset() {
+		for (LongAdder count : byStatus) {
+			count.reset();
+		}
+		expanded.reset();
+		generated.reset();
+		heapPushes.reset();
+		heapPops.reset();
+		heapDecreaseKeys.reset();
+		jumpCalls.reset();
+		cellsScanned.reset();
+		totalNanos.reset();
+		for (int i = 0; i < BUCKETS; i++) {
+			histogram.set(i, 0);
+		}
+		maxNanos.set(0);
+	}
+
+	/**
+	 * Get a percentile of the latency from the histogram.
+	 * @param q fraction of the searches that are at least as fast, from 0 to 1
+	 * @return upper bound of the bucket it falls in, capped by the max, in microseconds, 0 before the first search
+	 */
+	private double percentile(double q) {
+		long[] counts = getLatencyHistogram();
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(q * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				double upper = i == 0 ? 0 : Math.scalb(1.0, i) - 1;
+				return Math.min(upper, maxNanos.get()) / 1000.0;
+			}
+		}
+		return getMaxLatencyMicros();
+	}
+}
@@ -0,0 +1,121 @@
+package pathfinding;
+
+/**
+ * Management interface of {@link SearchStats}, as seen from JConsole or any other JMX client.
+ * @author ducda
+ *
+ */
+public interface SearchStatsMBean {
+	/**
+	 * Get the number of searches reported.
+	 * @return number of searches
+	 */
+	long getSearches();
+
+	/**
+	 * Get the number of searches that found a path.
+	 * @return number of searches
+	 */
+	long getFound();
+
+	/**
+	 * Get the number of searches that proved there is no path.
+	 * @return number of searches
+	 */
+	long getUnreachable();
+
+	/**
+	 * Get the number of searches stopped by their budget.
+	 * @return number of searches
+	 */
+	long getBudgetExceeded();
+
+	/**
+	 * Get the number of searches stopped by a cancel token.
+	 * @return number of searches
+	 */
+	long getCancelled();
+
+	/**
+	 * Get the total number of nodes expanded.
+	 * @return number of expansions
+	 */
+	long getExpanded();
+
+	/**
+	 * Get the total number of nodes generated.
+	 * @return number of generated nodes
+	 */
+	long getGenerated();
+
+	/**
+	 * Get the total number of open list pushes.
+	 * @return number of pushes
+	 */
+	long getHeapPushes();
+
+	/**
+	 * Get the total number of open list pops.
+	 * @return number of pops
+	 */
+	long getHeapPops();
+
+	/**
+	 * Get the total number of open list decrease-keys.
+	 * @return number of decrease-keys
+	 */
+	long getHeapDecreaseKeys();
+
+	/**
+	 * Get the total number of jumps tried.
+	 * @return number of jumps
+	 */
+	long getJumpCalls();
+
+	/**
+	 * Get the total number of cells scanned by jumps.
+	 * @return number of cells
+	 */
+	long getCellsScanned();
+
+	/**
+	 * Get the mean time of a search.
+	 * @return mean latency in microseconds, 0 before the first search
+	 */
+	double getMeanLatencyMicros();
+
+	/**
+	 * Get the median time of a search.
+	 * @return upper bound of the median latency in microseconds
+	 */
+	double getP50LatencyMicros();
+
+	/**
+	 * Get the 90th percentile of the time of a search.
+	 * @return upper bound of the latency in microseconds
+	 */
+	double getP90LatencyMicros();
+
+	/**
+	 * Get the 99th percentile of the time of a search.
+	 * @return upper bound of the latency in microseconds
+	 */
+	double getP99LatencyMicros();
+
+	/**
+	 * Get the longest time of a search.
+	 * @return max latency in microseconds
+	 */
+	double getMaxLatencyMicros();
+
+	/**
+	 * Get the latency histogram. Entry i counts the searches that took from 2^(i-1) to 2^i - 1 nanoseconds.
+	 * @return number of searches per bucket
+	 */
+	long[] getLatencyHistogram();
+
+	/**
+	 * Set every counter back to 0.
+	 */
+	void reset();
+}
@@ -0,0 +1,25 @@
+package pathfinding;
+
+/**
+ * How a search ended.
+ * @author ducda
+ *
+ */
+public enum SearchStatus {
+	/**
+	 * A path from start to goal was found.
+	 */
+	FOUND,
+	/**
+	 * Every reachable cell was searched, there is no path.
+	 */
+	UNREACHABLE,
+	/**
+	 * The search hit one of its {@link SearchLimits} before it was done.
+	 */
+	BUDGET_EXCEEDED,
+	/**
+	 * The search was stopped through its {@link CancelToken}.
+	 */
+	CANCELLED
+}
@@ -0,0 +1,495 @@
+package pathfinding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Recording of a search as a compact list of events, one long each, so a search can run at full speed and be
+ * replayed afterwards at any speed, from any point, or saved and inspected offline. The events are the nodes
+ * opened (with the parent they were reached from, again each time a better parent is found), the jump points
+ * found by JPS, the nodes closed, then the nodes of the path the search ended with.
+ * <p>
+ * File layout, little endian:
+ * <ul>
+ * <li>header of 64 bytes: magic "TRCE", version, rows, columns, start, goal, status, flags (bit 0: opened nodes
+ * are jump points), number of events, then zeros up to byte 40, path cost and wall time in nanoseconds</li>
+ * <li>search key: length in bytes, then UTF-8 bytes</li>
+ * <li>walls row by row, one bit per cell, packed in 64-bit words</li>
+ * <li>events, 8 bytes each</li>
+ * </ul>
+ * Cell costs are not saved.
+ * @author ducda
+ *
+ */
+public class SearchTrace implements SearchListener {
+	/**
+	 * Kind of an event.
+	 */
+	public enum Event {
+		/**
+		 * A node was reached, or reached again through a better parent.
+		 */
+		OPENED,
+		/**
+		 * A jump point was reached, the parent is the node the jump started from.
+		 */
+		JUMPED,
+		/**
+		 * A node was expanded.
+		 */
+		CLOSED,
+		/**
+		 * A node of the path, the parent is the node before it.
+		 */
+		PATH
+	}
+
+	/**
+	 * First 4 bytes of a trace file, "TRCE" read as a little endian int.
+	 */
+	private static final int MAGIC = 0x45435254;
+	/**
+	 * Version of the layout.
+	 */
+	private static final int VERSION = 1;
+	/**
+	 * Size of the header in bytes.
+	 */
+	private static final int HEADER_SIZE = 64;
+	/**
+	 * Size in bytes of the buffer a trace is written and read through.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/**
+	 * Flag set when opened nodes are jump points.
+	 */
+	private static final int FLAG_JUMPS = 1;
+	/**
+	 * Kinds of events by ordinal.
+	 */
+	private static final Event[] EVENTS = Event.values();
+	/**
+	 * Bits of an event holding a node.
+	 */
+	private static final int NODE_BITS = 31;
+	/**
+	 * Mask of a node in an event.
+	 */
+	private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+	/**
+	 * Number of rows of the map searched.
+	 */
+	private final int rows;
+	/**
+	 * Number of columns of the map searched.
+	 */
+	private final int cols;
+	/**
+	 * Walls of the map searched, row by row, one bit per cell.
+	 */
+	private final long[] walls;
+	/**
+	 * Search key of the engine that ran the search.
+	 */
+	private String searchKey;
+	/**
+	 * Start cell.
+	 */
+	private int start;
+	/**
+	 * Goal cell.
+	 */
+	private int goal;
+	/**
+	 * Whether opened nodes are recorded as jump points.
+	 */
+	private boolean jumps;
+	/**
+	 * How the search ended.
+	 */
+	private SearchStatus status = SearchStatus.UNREACHABLE;
+	/**
+	 * Cost of the path the search ended with.
+	 */
+	private double cost = Double.POSITIVE_INFINITY;
+	/**
+	 * Time the search took, in nanoseconds.
+	 */
+	private long wallNanos;
+	/**
+	 * Events: kind in the top 2 bits, then parent + 1 and node in 31 bits each.
+	 */
+	private long[] events = new long[1024];
+	/**
+	 * Number of events.
+	 */
+	private int size;
+
+	/**
+	 * Constructor.
+	 * @param rows number of rows of the map
+	 * @param cols number of columns of the map
+	 * @param walls walls row by row, one bit per cell
+	 */
+	private SearchTrace(int rows, int cols, long[] walls) {
+		this.rows = rows;
+		this.cols = cols;
+		this.walls = walls;
+	}
+
+	/**
+	 * Run a search and record it. The listener of the engine is left out while the search runs, its limits and
+	 * metrics listener apply as usual.
+	 * @param finder engine to run
+	 * @param start start cell
+	 * @param goal end cell
+	 * @return recording of the search
+	 */
+	public static SearchTrace record(PathFinder finder, int start, int goal) {
+		GridMap map = finder.getMap();
+		long[] walls = new long[(int) ((map.size() + 63L) >>> 6)];
+		for (int id = 0; id < map.size(); id++) {
+			if (map.isWall(id)) {
+				walls[id >>> 6] |= 1L << id;
+			}
+		}
+		SearchTrace trace = new SearchTrace(map.getRows(), map.getCols(), walls);
+		trace.searchKey = finder.searchKey();
+		trace.start = start;
+		trace.goal = goal;
+		trace.jumps = finder.opensJumpPoints();
+		SearchListener listener = finder.listener;
+		finder.setListener(trace);
+		PathResult result;
+		try {
+			result = finder.findPath(start, goal);
+		} finally {
+			finder.setListener(listener);
+		}
+		int[] path = result.getPath();
+		for (int i = 0; i < path.length; i++) {
+			trace.add(Event.PATH, path[i], i == 0 ? -1 : path[i - 1]);
+		}
+		trace.status = result.getStatus();
+		trace.cost = result.getCost();
+		trace.wallNanos = finder.getLastMetrics().getWallNanos();
+		return trace;
+	}
+
+	@Override
+	public void nodeOpened(int vertex, int parent) {
+		add(jumps ? Event.JUMPED : Event.OPENED, vertex, parent);
+	}
+
+	@Override
+	public void nodeClosed(int vertex) {
+		add(Event.CLOSED, vertex, -1);
+	}
+
+	/**
+	 * Append an event.
+	 * @param event kind of event
+	 * @param vertex node
+	 * @param parent its parent, -1 for none
+	 */
+	private void add(Event event, int vertex, int parent) {
+		if (size == events.length) {
+			events = Arrays.copyOf(events, size * 2);
+		}
+		events[size++] = (long) event.ordinal() << (2 * NODE_BITS) | (long) (parent + 1) << NODE_BITS | vertex;
+	}
+
+	/**
+	 * Get the number of events.
+	 * @return number of events
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the kind of an event.
+	 * @param i event index
+	 * @return kind of event
+	 */
+	public Event event(int i) {
+		return EVENTS[(int) (events[i] >>> (2 * NODE_BITS))];
+	}
+
+	/**
+	 * Get the node of an event.
+	 * @param i event index
+	 * @return cell id
+	 */
+	public int vertex(int i) {
+		return (int) (events[i] & NODE_MASK);
+	}
+
+	/**
+	 * Get the parent of an event.
+	 * @param i event index
+	 * @return cell id, -1 for none
+	 */
+	public int parent(int i) {
+		return (int) ((events[i] >>> NODE_BITS) & NODE_MASK) - 1;
+	}
+
+	/**
+	 * Get the index of the first path event.
+	 * @return index, the number of events if there is no path
+	 */
+	public int pathStart() {
+		int i = size;
+		while (i > 0 && event(i - 1) == Event.PATH) {
+			i--;
+		}
+		return i;
+	}
+
+	/**
+	 * Get the path the search ended with.
+	 * @return the path, with the status and cost of the search
+	 */
+	public PathResult result() {
+		int first = pathStart();
+		int[] path = new int[size - first];
+		for (int i = 0; i < path.length; i++) {
+			path[i] = vertex(first + i);
+		}
+		return new PathResult(path, cost, status);
+	}
+
+	/**
+	 * Whether the engine that ran the search opens jump points rather than neighbors.
+	 * @return true for JPS, false otherwise
+	 */
+	public boolean opensJumpPoints() {
+		return jumps;
+	}
+
+	/**
+	 * Get the number of rows of the map searched.
+	 * @return number of rows
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Get the number of columns of the map searched.
+	 * @return number of columns
+	 */
+	public int getCols() {
+		return cols;
+	}
+
+	/**
+	 * Whether a cell of the map searched was a wall.
+	 * @param id cell id
+	 * @return true if it was a wall, false otherwise
+	 */
+	public boolean isWall(int id) {
+		return (walls[id >>> 6] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Get the search key of the engine that ran the search.
+	 * @return search key
+	 */
+	public String getSearchKey() {
+		return searchKey;
+	}
+
+	/**
+	 * Get the start cell.
+	 * @return cell id
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Get the goal cell.
+	 * @return cell id
+	 */
+	public int getGoal() {
+		return goal;
+	}
+
+	/**
+	 * Get the time the search took when it was recorded, listener calls included.
+	 * @return wall time in nanoseconds
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * Save this trace. It is written through a buffer of fixed size, so a trace of any length can be saved.
+	 * @param file destination
+	 * @throws IOException if it cannot be written
+	 */
+	public void save(Path file) throws IOException {
+		byte[] key = searchKey.getBytes(StandardCharsets.UTF_8);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(start).putInt(goal)
+					.putInt(status.ordinal()).putInt(jumps ? FLAG_JUMPS : 0).putInt(size);
+			buffer.putDouble(40, cost).putLong(48, wallNanos);
+			buffer.position(HEADER_SIZE);
+			buffer.putInt(key.length);
+			for (int i = 0; i < key.length;) {
+				if (!buffer.hasRemaining()) {
+					flush(channel, buffer);
+				}
+				int n = Math.min(key.length - i, buffer.remaining());
+				buffer.put(key, i, n);
+				i += n;
+			}
+			for (long word : walls) {
+				putLong(channel, buffer, word);
+			}
+			for (int i = 0; i < size; i++) {
+				putLong(channel, buffer, events[i]);
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	/**
+	 * Append a word to the write buffer, flushing it when full.
+	 * @param channel destination
+	 * @param buffer write buffer
+	 * @param word word to append
+	 * @throws IOException if the buffer cannot be flushed
+	 */
+	private static void putLong(FileChannel channel, ByteBuffer buffer, long word) throws IOException {
+		if (buffer.remaining() < 8) {
+			flush(channel, buffer);
+		}
+		buffer.putLong(word);
+	}
+
+	/**
+	 * Write out the content of the write buffer and empty it.
+	 * @param channel destination
+	 * @param buffer write buffer
+	 * @throws IOException if the content cannot be written
+	 */
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Read a trace saved with {@link #save(Path)}. It is read through a buffer of fixed size, and the sizes in the
+	 * header are checked against the size of the file before anything is allocated.
+	 * @param file trace file
+	 * @return the trace
+	 * @throws IOException if it cannot be read or is not a trace file
+	 */
+	public static SearchTrace load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long length = channel.size();
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.limit(0);
+			if (length < HEADER_SIZE + 4) {
+				throw new IOException("Not a trace file: " + file);
+			}
+			fill(channel, buffer, HEADER_SIZE + 4, file);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				throw new IOException("Not a trace file: " + file);
+			}
+			int rows = buffer.getInt(8);
+			int cols = buffer.getInt(12);
+			int start = buffer.getInt(16);
+			int goal = buffer.getInt(20);
+			int statusIndex = buffer.getInt(24);
+			int flags = buffer.getInt(28);
+			int count = buffer.getInt(32);
+			double cost = buffer.getDouble(40);
+			long wallNanos = buffer.getLong(48);
+			buffer.position(HEADER_SIZE);
+			int keyLength = buffer.getInt();
+			long cells = (long) rows * cols;
+			if (rows <= 0 || cols <= 0 || cells > NODE_MASK || start < 0 || start >= cells || goal < 0
+					|| goal >= cells || statusIndex < 0 || statusIndex >= SearchStatus.values().length || count < 0
+					|| keyLength < 0 || length < HEADER_SIZE + 4L + keyLength + 8L * (((cells + 63) >>> 6) + count)) {
+				throw new IOException("Truncated or corrupt trace file: " + file);
+			}
+			byte[] key = new byte[keyLength];
+			for (int i = 0; i < keyLength;) {
+				if (!buffer.hasRemaining()) {
+					fill(channel, buffer, 1, file);
+				}
+				int n = Math.min(keyLength - i, buffer.remaining());
+				buffer.get(key, i, n);
+				i += n;
+			}
+			long[] walls = new long[(int) ((cells + 63) >>> 6)];
+			for (int w = 0; w < walls.length; w++) {
+				walls[w] = getLong(channel, buffer, file);
+			}
+			SearchTrace trace = new SearchTrace(rows, cols, walls);
+			trace.start = start;
+			trace.goal = goal;
+			trace.status = SearchStatus.values()[statusIndex];
+			trace.jumps = (flags & FLAG_JUMPS) != 0;
+			trace.cost = cost;
+			trace.wallNanos = wallNanos;
+			trace.searchKey = new String(key, StandardCharsets.UTF_8);
+			trace.events = new long[Math.max(1, count)];
+			for (int i = 0; i < count; i++) {
+				trace.events[i] = getLong(channel, buffer, file);
+				trace.size++;
+				if (trace.vertex(i) >= cells || trace.parent(i) >= cells) {
+					throw new IOException("Corrupt trace file, event " + i + " is off the map: " + file);
+				}
+			}
+			return trace;
+		}
+	}
+
+	/**
+	 * Take a word from the read buffer, filling it when empty.
+	 * @param channel source
+	 * @param buffer read buffer
+	 * @param file trace file, for error messages
+	 * @return the word
+	 * @throws IOException if the file ends first
+	 */
+	private static long getLong(FileChannel channel, ByteBuffer buffer, Path file) throws IOException {
+		if (buffer.remaining() < 8) {
+			fill(channel, buffer, 8, file);
+		}
+		return buffer.getLong();
+	}
+
+	/**
+	 * Keep what is left in the read buffer and read more after it.
+	 * @param channel source
+	 * @param buffer read buffer
+	 * @param needed number of bytes the buffer must hold
+	 * @param file trace file, for error messages
+	 * @throws IOException if the file ends first
+	 */
+	private static void fill(FileChannel channel, ByteBuffer buffer, int needed, Path file) throws IOException {
+		buffer.compact();
+		while (buffer.position() < needed) {
+			if (channel.read(buffer) < 0) {
+				throw new IOException("Truncated or corrupt trace file: " + file);
+			}
+		}
+		buffer.flip();
+	}
+}
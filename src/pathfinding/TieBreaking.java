@@ -0,0 +1,38 @@
+package pathfinding;
+
+/**
+ * Order of open cells with equal F score.
+ * @author ducda
+ *
+ */
+public enum TieBreaking {
+	/**
+	 * No preference, whatever order the open list gives.
+	 */
+	NONE,
+	/**
+	 * Prefer the cell with the higher G score, i.e. the one closer to the goal. Usually expands far fewer cells
+	 * on open grids.
+	 */
+	HIGHER_G,
+	/**
+	 * Prefer the cell with the lower G score.
+	 */
+	LOWER_G;
+
+	/**
+	 * Get the secondary key of a cell, smaller comes first.
+	 * @param g G score of the cell
+	 * @return secondary key
+	 */
+	public double key(double g) {
+		switch (this) {
+		case HIGHER_G:
+			return -g;
+		case LOWER_G:
+			return g;
+		default:
+			return 0;
+		}
+	}
+}